@@ -0,0 +1,26 @@
+package org.ecoride.gateway.cache;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Respuesta 200 de trip-service guardada en el gateway. tripIds son los viajes que
+ * aparecen en ella: el propio viaje en un detalle, los items en una búsqueda.
+ */
+public record CachedResponse(
+        String contentType,
+        byte[] body,
+        String etag,
+        Set<UUID> tripIds,
+        boolean search,
+        long storedAtNanos) {
+
+    public long ageNanos() {
+        return System.nanoTime() - storedAtNanos;
+    }
+
+    public long ageSeconds() {
+        return TimeUnit.NANOSECONDS.toSeconds(ageNanos());
+    }
+}
@@ -0,0 +1,185 @@
+package org.ecoride.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caché de respuestas GET de /api/trips. Cada entrada caduca por TTL (corto para
+ * búsquedas, algo más largo para detalles) y además se invalida cuando llega un
+ * evento de reserva del viaje, a través de un índice tripId -> claves.
+ * <p>
+ * Para no guardar una respuesta que ya estaba obsoleta al llegar (el evento se
+ * procesó mientras la petición iba a trip-service), se recuerda cuándo se invalidó
+ * cada viaje y se descarta el put si la petición empezó antes.
+ */
+@Component
+@Slf4j
+public class ResponseCache {
+
+    private final Cache<String, CachedResponse> responses;
+    private final Map<UUID, Set<String>> keysByTrip = new ConcurrentHashMap<>();
+    private final Cache<UUID, Long> tripInvalidatedAt;
+    private volatile long searchesInvalidatedAt = System.nanoTime();
+
+    private final Timer servedAge;
+    private final Counter eventInvalidations;
+    private final Counter requestInvalidations;
+    private final Counter notModified;
+
+    public ResponseCache(
+            @Value("${gateway.response-cache.max-entries:10000}") long maxEntries,
+            @Value("${gateway.response-cache.trip-ttl:30s}") Duration tripTtl,
+            @Value("${gateway.response-cache.search-ttl:5s}") Duration searchTtl,
+            MeterRegistry meterRegistry) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new ResponseExpiry(tripTtl, searchTtl))
+                .removalListener((String key, CachedResponse removed, RemovalCause cause) -> {
+                    if (key != null && removed != null) {
+                        unindex(key, removed);
+                    }
+                })
+                .recordStats()
+                .build();
+        // Basta con recordar invalidaciones durante lo que dura una entrada
+        this.tripInvalidatedAt = Caffeine.newBuilder()
+                .expireAfterWrite(tripTtl.compareTo(searchTtl) > 0 ? tripTtl : searchTtl)
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "gateway.response-cache");
+        this.servedAge = Timer.builder("gateway.response-cache.served.age")
+                .description("Antigüedad de las respuestas servidas desde la caché")
+                .register(meterRegistry);
+        this.eventInvalidations = Counter.builder("gateway.response-cache.invalidations")
+                .tag("source", "event")
+                .register(meterRegistry);
+        this.requestInvalidations = Counter.builder("gateway.response-cache.invalidations")
+                .tag("source", "request")
+                .register(meterRegistry);
+        this.notModified = Counter.builder("gateway.response-cache.not-modified")
+                .description("Respuestas 304 por If-None-Match")
+                .register(meterRegistry);
+    }
+
+    public CachedResponse get(String key) {
+        CachedResponse cached = responses.getIfPresent(key);
+        if (cached != null) {
+            servedAge.record(cached.ageNanos(), TimeUnit.NANOSECONDS);
+        }
+        return cached;
+    }
+
+    /**
+     * @param requestStartedAt System.nanoTime() al empezar la petición que produjo la respuesta
+     */
+    public void put(String key, CachedResponse response, long requestStartedAt) {
+        if (invalidatedSince(response, requestStartedAt)) {
+            return;
+        }
+
+        for (UUID tripId : response.tripIds()) {
+            keysByTrip.compute(tripId, (id, keys) -> {
+                Set<String> indexed = keys != null ? keys : ConcurrentHashMap.newKeySet();
+                indexed.add(key);
+                return indexed;
+            });
+        }
+        responses.put(key, response);
+
+        // Una invalidación entre la comprobación y el put no habría encontrado la clave
+        if (invalidatedSince(response, requestStartedAt)) {
+            responses.asMap().remove(key, response);
+        }
+    }
+
+    /**
+     * Los asientos del viaje han cambiado: fuera su detalle y las búsquedas que lo contienen.
+     */
+    public void invalidateTrip(UUID tripId, boolean fromEvent) {
+        tripInvalidatedAt.put(tripId, System.nanoTime());
+        Set<String> keys = keysByTrip.remove(tripId);
+        if (keys != null) {
+            responses.invalidateAll(keys);
+        }
+        (fromEvent ? eventInvalidations : requestInvalidations).increment();
+    }
+
+    /**
+     * Un viaje nuevo puede aparecer en cualquier búsqueda.
+     */
+    public void invalidateSearches() {
+        searchesInvalidatedAt = System.nanoTime();
+        responses.asMap().values().removeIf(CachedResponse::search);
+        requestInvalidations.increment();
+    }
+
+    public void recordNotModified() {
+        notModified.increment();
+    }
+
+    long size() {
+        responses.cleanUp();
+        return responses.estimatedSize();
+    }
+
+    private boolean invalidatedSince(CachedResponse response, long requestStartedAt) {
+        if (response.search() && searchesInvalidatedAt - requestStartedAt > 0) {
+            return true;
+        }
+        for (UUID tripId : response.tripIds()) {
+            Long invalidatedAt = tripInvalidatedAt.getIfPresent(tripId);
+            if (invalidatedAt != null && invalidatedAt - requestStartedAt > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void unindex(String key, CachedResponse removed) {
+        // Si la clave se ha reemplazado, el índice de la respuesta nueva se mantiene
+        CachedResponse current = responses.getIfPresent(key);
+        for (UUID tripId : removed.tripIds()) {
+            if (current != null && current.tripIds().contains(tripId)) {
+                continue;
+            }
+            keysByTrip.computeIfPresent(tripId, (id, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    private record ResponseExpiry(Duration tripTtl, Duration searchTtl) implements Expiry<String, CachedResponse> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+            return (value.search() ? searchTtl : tripTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedResponse value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedResponse value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package org.ecoride.gateway.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sirve desde {@link ResponseCache} el detalle de un viaje (/trips/{id}) y las
+ * búsquedas (/trips?...), con ETag e If-None-Match. Debe ir después de StripPrefix
+ * y antes del circuit breaker, para que un acierto no llegue al balanceador.
+ * Las reservas (/trips/reservations/..) y el streaming NDJSON no se cachean.
+ * Las escrituras que pasan por este gateway (altas, altas masivas y reservas)
+ * invalidan en el momento; las del resto de réplicas llegan por los eventos de reserva.
+ */
+@Component
+@Slf4j
+public class ResponseCacheFilter implements GatewayFilter {
+
+    public static final String CACHE_HEADER = "X-Cache";
+
+    private static final String SEARCH_PATH = "/trips";
+    private static final String BULK_PATH = "/trips/bulk";
+    private static final Pattern TRIP_PATH = Pattern.compile(
+            "^/trips/([0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12})(/.*)?$");
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+
+    private final ResponseCache responseCache;
+    private final boolean enabled;
+    private final long maxBodyBytes;
+
+    public ResponseCacheFilter(
+            ResponseCache responseCache,
+            @Value("${gateway.response-cache.enabled:true}") boolean enabled,
+            @Value("${gateway.response-cache.max-body-size:256KB}") DataSize maxBodySize) {
+        this.responseCache = responseCache;
+        this.enabled = enabled;
+        this.maxBodyBytes = maxBodySize.toBytes();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!enabled) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getURI().getRawPath();
+        Matcher tripPath = TRIP_PATH.matcher(path);
+
+        if (request.getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange)
+                    .doOnSuccess(aVoid -> invalidateAfterWrite(exchange, path, tripPath));
+        }
+
+        boolean search = SEARCH_PATH.equals(path);
+        UUID tripId = null;
+        if (!search) {
+            if (!tripPath.matches() || tripPath.group(2) != null) {
+                return chain.filter(exchange);
+            }
+            tripId = UUID.fromString(tripPath.group(1));
+        }
+
+        String query = request.getURI().getRawQuery();
+        String key = query == null ? path : path + "?" + query;
+
+        CachedResponse cached = responseCache.get(key);
+        if (cached != null) {
+            return writeCached(exchange, cached);
+        }
+
+        long startedAt = System.nanoTime();
+        CachingResponse response = new CachingResponse(exchange, key, search ? null : tripId, startedAt);
+        return chain.filter(exchange.mutate().response(response).build());
+    }
+
+    private void invalidateAfterWrite(ServerWebExchange exchange, String path, Matcher tripPath) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        if (status == null || !status.is2xxSuccessful()) {
+            return;
+        }
+        if (SEARCH_PATH.equals(path) || BULK_PATH.equals(path)) {
+            responseCache.invalidateSearches();
+        } else if (tripPath.matches()) {
+            responseCache.invalidateTrip(UUID.fromString(tripPath.group(1)), false);
+        }
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(cached.etag());
+        headers.set(CACHE_HEADER, "HIT");
+        headers.set(HttpHeaders.AGE, Long.toString(cached.ageSeconds()));
+
+        if (matchesIfNoneMatch(exchange.getRequest(), cached.etag())) {
+            responseCache.recordNotModified();
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+
+        response.setStatusCode(HttpStatus.OK);
+        if (cached.contentType() != null) {
+            headers.set(HttpHeaders.CONTENT_TYPE, cached.contentType());
+        }
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private static boolean matchesIfNoneMatch(ServerHttpRequest request, String etag) {
+        for (String candidate : request.getHeaders().getIfNoneMatch()) {
+            String tag = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if ("*".equals(tag) || etag.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Ids de los viajes de una página de búsqueda (items[].id); null si el cuerpo no
+     * tiene la forma esperada y por tanto no se podría invalidar por evento.
+     */
+    private static Set<UUID> searchTripIds(byte[] body) {
+        try {
+            JsonNode items = JSON.readTree(body).path("items");
+            if (!items.isArray()) {
+                return null;
+            }
+            Set<UUID> tripIds = new HashSet<>();
+            for (JsonNode item : items) {
+                tripIds.add(UUID.fromString(item.path("id").asString()));
+            }
+            return tripIds;
+        } catch (JacksonException | IllegalArgumentException e) {
+            log.debug("Búsqueda no cacheable: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Junta el cuerpo de una respuesta 200, lo guarda y lo reenvía con su ETag.
+     */
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final String key;
+        private final UUID tripId;
+        private final long startedAt;
+
+        CachingResponse(ServerWebExchange exchange, String key, UUID tripId, long startedAt) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.key = key;
+            this.tripId = tripId;
+            this.startedAt = startedAt;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            if (status == null || status.value() != HttpStatus.OK.value()) {
+                return super.writeWith(body);
+            }
+
+            return DataBufferUtils.join(body).flatMap(joined -> {
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                DataBufferUtils.release(joined);
+
+                String etag = etag(bytes);
+                HttpHeaders headers = getHeaders();
+                headers.setETag(etag);
+                headers.set(CACHE_HEADER, "MISS");
+                store(bytes, etag, headers);
+
+                if (matchesIfNoneMatch(exchange.getRequest(), etag)) {
+                    responseCache.recordNotModified();
+                    setStatusCode(HttpStatus.NOT_MODIFIED);
+                    headers.remove(HttpHeaders.CONTENT_LENGTH);
+                    headers.remove(HttpHeaders.TRANSFER_ENCODING);
+                    return setComplete();
+                }
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            });
+        }
+
+        private void store(byte[] bytes, String etag, HttpHeaders headers) {
+            if (bytes.length > maxBodyBytes) {
+                return;
+            }
+            Set<UUID> tripIds = tripId != null ? Set.of(tripId) : searchTripIds(bytes);
+            if (tripIds == null) {
+                return;
+            }
+            String contentType = headers.getFirst(HttpHeaders.CONTENT_TYPE);
+            responseCache.put(key,
+                    new CachedResponse(contentType, bytes, etag, tripIds, tripId == null, System.nanoTime()),
+                    startedAt);
+        }
+    }
+}
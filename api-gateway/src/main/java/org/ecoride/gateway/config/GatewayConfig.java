@@ -1,7 +1,12 @@
 package org.ecoride.gateway.config;
 
 import lombok.RequiredArgsConstructor;
+import org.ecoride.gateway.cache.ResponseCacheFilter;
 import org.ecoride.gateway.filter.RequestLoggingFilter;
+import org.ecoride.gateway.ratelimit.LocalRateLimiter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
@@ -9,6 +14,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.Objects;
 
 @Configuration
@@ -16,25 +22,28 @@ import java.util.Objects;
 public class GatewayConfig {
 
     private final RequestLoggingFilter requestLoggingFilter;
+    private final ResponseCacheFilter responseCacheFilter;
 
     @Bean
-    public RouteLocator customRouteLocator(RouteLocatorBuilder builder) {
+    public RouteLocator customRouteLocator(RouteLocatorBuilder builder, LocalRateLimiter localRateLimiter) {
         return builder.routes()
 
                 .route("trip-service", r -> r
                         .path("/api/trips/**")
                         .filters(f -> f
                                 .stripPrefix(1)
-                                .circuitBreaker(c -> c
-                                        .setName("tripServiceCB")
-                                        .setFallbackUri("forward:/fallback/trips")
-                                )
                                 .filter(requestLoggingFilter.apply(
                                         new RequestLoggingFilter.Config() {{
                                             setBaseMessage("TripService Request");
                                             setLogHeaders(false);
                                         }}
                                 ))
+                                // Los aciertos de caché no pasan por el circuit breaker ni el balanceador
+                                .filter(responseCacheFilter)
+                                .circuitBreaker(c -> c
+                                        .setName("tripServiceCB")
+                                        .setFallbackUri("forward:/fallback/trips")
+                                )
                                 .retry(retryConfig -> retryConfig
                                         .setRetries(3)
                                         .setMethods(org.springframework.http.HttpMethod.GET)
@@ -78,7 +87,8 @@ public class GatewayConfig {
                                         }}
                                 ))
                                 .requestRateLimiter(rl -> rl
-                                        .setRateLimiter(redisRateLimiter())
+                                        .setRateLimiter(localRateLimiter)
+                                        .setKeyResolver(userKeyResolver())
                                 )
                         )
                         .uri("lb://payment-service")
@@ -100,9 +110,21 @@ public class GatewayConfig {
                 .build();
     }
 
+    // Token bucket en memoria; en modo partitioned el límite se reparte entre réplicas
     @Bean
-    public org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter redisRateLimiter() {
-        return new org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter(100, 200);
+    public LocalRateLimiter localRateLimiter(
+            @Value("${gateway.rate-limit.replenish-rate:100}") int replenishRate,
+            @Value("${gateway.rate-limit.burst-capacity:200}") int burstCapacity,
+            @Value("${gateway.rate-limit.eviction-interval:1m}") Duration evictionInterval,
+            @Value("${gateway.rate-limit.mode:local}") String mode,
+            @Value("${gateway.rate-limit.sync-interval:10s}") Duration syncInterval,
+            @Value("${spring.application.name}") String serviceId,
+            ObjectProvider<DiscoveryClient> discoveryClient) {
+        if ("partitioned".equalsIgnoreCase(mode)) {
+            return new LocalRateLimiter(replenishRate, burstCapacity, evictionInterval,
+                    discoveryClient.getObject(), serviceId, syncInterval);
+        }
+        return new LocalRateLimiter(replenishRate, burstCapacity, evictionInterval);
     }
 
     @Bean
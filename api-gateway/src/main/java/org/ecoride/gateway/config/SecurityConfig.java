@@ -1,6 +1,10 @@
 package org.ecoride.gateway.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.ecoride.gateway.security.CachingJwtAuthenticationManager;
+import org.ecoride.gateway.security.PrefetchingJwkSource;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
@@ -11,6 +15,9 @@ import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
 import org.springframework.security.web.server.SecurityWebFilterChain;
@@ -27,12 +34,15 @@ import java.util.stream.Collectors;
 public class SecurityConfig {
 
     @Bean
-    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+                                                         ReactiveJwtDecoder jwtDecoder,
+                                                         MeterRegistry meterRegistry,
+                                                         @Value("${gateway.security.token-cache-max-size:50000}") long tokenCacheMaxSize) {
         http.csrf(ServerHttpSecurity.CsrfSpec::disable)
                 .authorizeExchange(exchanges -> exchanges
                         .pathMatchers("/actuator/health", "/actuator/info", "/actuator/metrics","/actuator/prometheus").permitAll()
 
-                        .pathMatchers(HttpMethod.POST, "/api/trips").hasRole("DRIVER")
+                        .pathMatchers(HttpMethod.POST, "/api/trips", "/api/trips/bulk").hasRole("DRIVER")
                         .pathMatchers(HttpMethod.GET, "/api/trips/**").hasAnyRole("DRIVER", "PASSENGER")
                         .pathMatchers(HttpMethod.POST, "/api/trips/*/reservations").hasRole("PASSENGER")
 
@@ -45,12 +55,22 @@ public class SecurityConfig {
                         .anyExchange().authenticated()
                 )
                 .oauth2ResourceServer(oauth2 -> oauth2
-                        .jwt(jwt -> jwt.jwtAuthenticationConverter(grantedAuthoritiesExtractor()))
+                        .jwt(jwt -> jwt.authenticationManager(new CachingJwtAuthenticationManager(
+                                jwtDecoder, grantedAuthoritiesExtractor(), tokenCacheMaxSize, meterRegistry)))
                 );
 
         return http.build();
     }
 
+    // Las claves salen de la copia local del JWK Set: ninguna petición espera a Keycloak
+    @Bean
+    public ReactiveJwtDecoder jwtDecoder(PrefetchingJwkSource jwkSource,
+                                         @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri) {
+        NimbusReactiveJwtDecoder decoder = NimbusReactiveJwtDecoder.withJwkSource(jwkSource::select).build();
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+        return decoder;
+    }
+
     @Bean
     public Converter<Jwt, Mono<AbstractAuthenticationToken>> grantedAuthoritiesExtractor() {
         JwtAuthenticationConverter jwtAuthenticationConverter = new JwtAuthenticationConverter();
@@ -1,6 +1,7 @@
 package org.ecoride.gateway.filter;
 
 import lombok.extern.slf4j.Slf4j;
+import org.ecoride.gateway.security.GatewayUserHeaders;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
@@ -65,14 +66,22 @@ public class AuthenticationFilter implements GlobalFilter, Ordered {
     }
 
     private ServerHttpRequest enrichRequestWithUserInfo(ServerHttpRequest request, Authentication authentication) {
-        String userId = extractUserId(authentication);
-        List<String> roles = extractRoles(authentication);
+        String userId;
+        String roles;
+        // Calculados una sola vez por token en CachingJwtAuthenticationManager
+        if (authentication.getDetails() instanceof GatewayUserHeaders headers) {
+            userId = headers.userId();
+            roles = headers.roles();
+        } else {
+            userId = extractUserId(authentication);
+            roles = String.join(",", extractRoles(authentication));
+        }
 
         log.debug("Enriching request - UserId: {}, Roles: {}", userId, roles);
 
         return request.mutate()
                 .header("X-User-Id", userId)
-                .header("X-User-Roles", String.join(",", roles))
+                .header("X-User-Roles", roles)
                 .build();
     }
 
@@ -1,6 +1,7 @@
 package org.ecoride.gateway.filter;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
@@ -9,8 +10,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.util.UUID;
-
 @Component
 @Slf4j
 public class CorrelationIdFilter implements GlobalFilter, Ordered {
@@ -18,6 +17,13 @@ public class CorrelationIdFilter implements GlobalFilter, Ordered {
     private static final String CORRELATION_ID_HEADER = "X-Correlation-Id";
     private static final String TRACE_ID_HEADER = "X-Trace-Id";
 
+    // compact: la única línea por petición la escribe RequestLoggingFilter
+    private final boolean verbose;
+
+    public CorrelationIdFilter(@Value("${gateway.access-log.mode:compact}") String mode) {
+        this.verbose = "verbose".equalsIgnoreCase(mode);
+    }
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
@@ -25,13 +31,13 @@ public class CorrelationIdFilter implements GlobalFilter, Ordered {
         String correlationId = request.getHeaders().getFirst(CORRELATION_ID_HEADER);
 
         if (correlationId == null || correlationId.isBlank()) {
-            correlationId = UUID.randomUUID().toString();
+            correlationId = RequestIds.next();
             log.debug("Generated new correlation ID: {}", correlationId);
         } else {
             log.debug("Using existing correlation ID: {}", correlationId);
         }
 
-        String traceId = UUID.randomUUID().toString();
+        String traceId = RequestIds.next();
 
         ServerHttpRequest mutatedRequest = request.mutate()
                 .header(CORRELATION_ID_HEADER, correlationId)
@@ -42,6 +48,10 @@ public class CorrelationIdFilter implements GlobalFilter, Ordered {
                 .request(mutatedRequest)
                 .build();
 
+        if (!verbose) {
+            return chain.filter(mutatedExchange);
+        }
+
         log.info("[{}] {} {} - Path: {}",
                 correlationId,
                 request.getMethod(),
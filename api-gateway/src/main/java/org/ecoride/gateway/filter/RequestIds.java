@@ -0,0 +1,22 @@
+package org.ecoride.gateway.filter;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * IDs de correlación y traza con formato UUID v4 pero generados con
+ * ThreadLocalRandom: no son secretos, solo tienen que ser únicos, y así se evita
+ * pasar por SecureRandom en cada petición.
+ */
+final class RequestIds {
+
+    private RequestIds() {
+    }
+
+    static String next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long msb = (random.nextLong() & 0xFFFFFFFFFFFF0FFFL) | 0x0000000000004000L;
+        long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb).toString();
+    }
+}
@@ -1,28 +1,141 @@
 package org.ecoride.gateway.filter;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
 
-import java.time.Duration;
-import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Registra cada petición enrutada. En modo compact (por defecto) escribe una única
+ * línea clave=valor al terminar en el logger org.ecoride.gateway.access, muestrea
+ * las trazas de inicio y deja la latencia en el timer gateway.requests, también para
+ * las peticiones que el cliente cancela (outcome CANCELLED, status 499 si no llegó a
+ * haber respuesta). Los timers se registran una vez por combinación de etiquetas y
+ * se reutilizan. El modo verbose mantiene las líneas START/END de siempre.
+ */
 @Component
 @Slf4j
 public class RequestLoggingFilter extends AbstractGatewayFilterFactory<RequestLoggingFilter.Config> {
 
-    public RequestLoggingFilter() {
+    private static final Logger accessLog = LoggerFactory.getLogger("org.ecoride.gateway.access");
+
+    // Cliente que cerró la conexión antes de recibir la respuesta (convención de nginx)
+    private static final int CLIENT_CLOSED_REQUEST = 499;
+
+    private final MeterRegistry meterRegistry;
+    private final boolean verbose;
+    private final double startSampleRate;
+    private final ConcurrentMap<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public RequestLoggingFilter(
+            MeterRegistry meterRegistry,
+            @Value("${gateway.access-log.mode:compact}") String mode,
+            @Value("${gateway.access-log.start-sample-rate:0.01}") double startSampleRate) {
         super(Config.class);
+        this.meterRegistry = meterRegistry;
+        this.verbose = "verbose".equalsIgnoreCase(mode);
+        this.startSampleRate = startSampleRate;
     }
 
     @Override
     public GatewayFilter apply(Config config) {
+        return verbose ? verbose(config) : compact(config);
+    }
+
+    private GatewayFilter compact(Config config) {
+        return (exchange, chain) -> {
+            long start = System.nanoTime();
+
+            if (accessLog.isDebugEnabled() && ThreadLocalRandom.current().nextDouble() < startSampleRate) {
+                accessLog.debug("event=start correlationId={} method={} path={}",
+                        exchange.getRequest().getHeaders().getFirst("X-Correlation-Id"),
+                        exchange.getRequest().getMethod().name(),
+                        exchange.getRequest().getURI().getRawPath());
+            }
+
+            return chain.filter(exchange)
+                    .doOnSuccess(aVoid -> complete(exchange, config, start, Outcome.SUCCESS, null))
+                    .doOnError(error -> complete(exchange, config, start, Outcome.ERROR, error))
+                    .doOnCancel(() -> complete(exchange, config, start, Outcome.CANCELLED, null));
+        };
+    }
+
+    private void complete(ServerWebExchange exchange, Config config, long start, Outcome outcome, Throwable error) {
+        long elapsed = System.nanoTime() - start;
+        String method = exchange.getRequest().getMethod().name();
+        int status = status(exchange, outcome);
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "unknown";
+
+        timers.computeIfAbsent(new TimerKey(routeId, method, status, outcome), this::registerTimer)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+
+        if (outcome == Outcome.CANCELLED) {
+            accessLog.info("correlationId={} route={} method={} path={} status={} durationMs={} cancelled=true",
+                    exchange.getRequest().getHeaders().getFirst("X-Correlation-Id"), routeId, method,
+                    exchange.getRequest().getURI().getRawPath(), status,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed));
+        } else if (error != null) {
+            accessLog.warn("correlationId={} route={} method={} path={} status={} durationMs={} error=\"{}\"",
+                    exchange.getRequest().getHeaders().getFirst("X-Correlation-Id"), routeId, method,
+                    exchange.getRequest().getURI().getRawPath(), status,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), error.getMessage());
+        } else if (accessLog.isInfoEnabled()) {
+            accessLog.info("correlationId={} route={} method={} path={} status={} durationMs={}",
+                    exchange.getRequest().getHeaders().getFirst("X-Correlation-Id"), routeId, method,
+                    exchange.getRequest().getURI().getRawPath(), status,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+
+        if (config.isLogHeaders() && log.isDebugEnabled()) {
+            log.debug("[{}] Response Headers: {}",
+                    exchange.getRequest().getHeaders().getFirst("X-Correlation-Id"),
+                    exchange.getResponse().getHeaders());
+        }
+    }
+
+    private static int status(ServerWebExchange exchange, Outcome outcome) {
+        HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+        if (statusCode != null) {
+            return statusCode.value();
+        }
+        return switch (outcome) {
+            case SUCCESS -> 0;
+            case ERROR -> 500;
+            case CANCELLED -> CLIENT_CLOSED_REQUEST;
+        };
+    }
+
+    private Timer registerTimer(TimerKey key) {
+        return Timer.builder("gateway.requests")
+                .description("Latencia de las peticiones enrutadas por el gateway")
+                .tag("route", key.route())
+                .tag("method", key.method())
+                .tag("status", Integer.toString(key.status()))
+                .tag("outcome", key.outcome().name())
+                .register(meterRegistry);
+    }
+
+    private GatewayFilter verbose(Config config) {
         return (exchange, chain) -> {
-            Instant startTime = Instant.now();
+            long start = System.nanoTime();
             String path = exchange.getRequest().getURI().getPath();
             String method = exchange.getRequest().getMethod().name();
             String correlationId = exchange.getRequest().getHeaders().getFirst("X-Correlation-Id");
@@ -32,14 +145,13 @@ public class RequestLoggingFilter extends AbstractGatewayFilterFactory<RequestLo
 
             return chain.filter(exchange)
                     .doOnSuccess(aVoid -> {
-                        Instant endTime = Instant.now();
-                        Duration duration = Duration.between(startTime, endTime);
+                        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
                         int statusCode = exchange.getResponse().getStatusCode() != null
                                 ? exchange.getResponse().getStatusCode().value()
                                 : 0;
 
                         log.info("[CUSTOM FILTER] [{}] REQUEST END: {} {} - Status: {} - Duration: {}ms",
-                                correlationId, method, path, statusCode, duration.toMillis());
+                                correlationId, method, path, statusCode, durationMs);
 
                         if (config.isLogHeaders()) {
                             log.debug("[{}] Response Headers: {}",
@@ -48,15 +160,23 @@ public class RequestLoggingFilter extends AbstractGatewayFilterFactory<RequestLo
                         }
                     })
                     .doOnError(error -> {
-                        Instant endTime = Instant.now();
-                        Duration duration = Duration.between(startTime, endTime);
+                        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
 
                         log.error("[CUSTOM FILTER] [{}] REQUEST ERROR: {} {} - Duration: {}ms - Error: {}",
-                                correlationId, method, path, duration.toMillis(), error.getMessage());
+                                correlationId, method, path, durationMs, error.getMessage());
                     });
         };
     }
 
+    private enum Outcome {
+        SUCCESS,
+        ERROR,
+        CANCELLED
+    }
+
+    private record TimerKey(String route, String method, int status, Outcome outcome) {
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -64,4 +184,4 @@ public class RequestLoggingFilter extends AbstractGatewayFilterFactory<RequestLo
         private String baseMessage = "ECO-RIDE Gateway";
         private boolean logHeaders = false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,48 @@
+package org.ecoride.gateway.listener;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.ecoride.events.ReservationEvents;
+import org.ecoride.gateway.cache.ResponseCache;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Invalida la caché de respuestas cuando cambian los asientos de un viaje: al pedir
+ * una reserva se ocupa un asiento y al cancelarla se libera. Cada réplica del
+ * gateway usa su propio grupo para recibir todos los eventos, nombrado con su
+ * instance-id de Eureka: es estable entre reinicios, así que no deja un grupo
+ * huérfano en el broker en cada arranque y al volver retoma donde lo dejó. Una
+ * réplica nueva empieza por los eventos más recientes (lo anterior ya lo cubre el TTL).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TripCacheInvalidationListener {
+
+    private final ResponseCache responseCache;
+
+    @KafkaListener(
+            topics = {"reservation-requested", "reservation-cancelled"},
+            groupId = "api-gateway-cache-${eureka.instance.instance-id}",
+            autoStartup = "${gateway.response-cache.enabled:true}",
+            properties = "auto.offset.reset=latest"
+    )
+    public void onReservationEvent(@Payload Object event) {
+        UUID tripId = switch (event) {
+            case ReservationEvents.ReservationRequested requested -> requested.getTripId();
+            case ReservationEvents.ReservationCancelled cancelled -> cancelled.getTripId();
+            default -> null;
+        };
+
+        if (tripId == null) {
+            log.warn("Evento de reserva sin tripId, se ignora: {}", event.getClass().getSimpleName());
+            return;
+        }
+        log.debug("Invalidando respuestas cacheadas del viaje {}", tripId);
+        responseCache.invalidateTrip(tripId, true);
+    }
+}
@@ -0,0 +1,188 @@
+package org.ecoride.gateway.ratelimit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket en memoria, sin saltos de red en la ruta caliente.
+ *
+ * <p>Cada clave guarda un único long (GCRA, "theoretical arrival time"), equivalente
+ * a un token bucket de replenishRate tokens/s y capacidad burstCapacity: una
+ * petición es un CAS, sin locks ni asignaciones. ConcurrentHashMap reparte las
+ * claves en bins independientes, así usuarios distintos no compiten entre sí.
+ *
+ * <p>Un bucket cuyo TAT ya pasó está lleno: borrarlo no cambia el resultado, por eso
+ * el barrido de inactivos es seguro. En modo "partitioned" cada réplica aplica
+ * rate / N, con N = instancias del gateway registradas en Eureka.
+ */
+@Slf4j
+public class LocalRateLimiter extends AbstractRateLimiter<LocalRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+    public static final String REQUESTED_TOKENS_HEADER = "X-RateLimit-Requested-Tokens";
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final Config defaultConfig;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final Duration evictionInterval;
+
+    private final DiscoveryClient discoveryClient;
+    private final String serviceId;
+    private final Duration syncInterval;
+    private volatile int replicas = 1;
+
+    private Disposable eviction;
+    private Disposable replicaSync;
+
+    public LocalRateLimiter(int defaultReplenishRate, int defaultBurstCapacity, Duration evictionInterval) {
+        this(defaultReplenishRate, defaultBurstCapacity, evictionInterval, null, null, null);
+    }
+
+    /**
+     * Modo "partitioned": el límite se reparte entre las réplicas del gateway.
+     */
+    public LocalRateLimiter(int defaultReplenishRate, int defaultBurstCapacity, Duration evictionInterval,
+                            DiscoveryClient discoveryClient, String serviceId, Duration syncInterval) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, null);
+        this.defaultConfig = new Config()
+                .setReplenishRate(defaultReplenishRate)
+                .setBurstCapacity(defaultBurstCapacity);
+        this.evictionInterval = evictionInterval;
+        this.discoveryClient = discoveryClient;
+        this.serviceId = serviceId;
+        this.syncInterval = syncInterval;
+    }
+
+    @PostConstruct
+    void start() {
+        eviction = Flux.interval(evictionInterval, evictionInterval)
+                .onBackpressureDrop()
+                .subscribe(tick -> evictIdleBuckets());
+        if (discoveryClient != null) {
+            replicaSync = Flux.interval(Duration.ZERO, syncInterval)
+                    .onBackpressureDrop()
+                    .subscribe(tick -> syncReplicas());
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (eviction != null) {
+            eviction.dispose();
+        }
+        if (replicaSync != null) {
+            replicaSync.dispose();
+        }
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        return Mono.just(tryAcquire(routeId + ':' + id, config));
+    }
+
+    Response tryAcquire(String key, Config config) {
+        int replicaCount = replicas;
+        long rate = Math.max(1, config.getReplenishRate() / replicaCount);
+        long burst = Math.max(1, config.getBurstCapacity() / replicaCount);
+
+        long interval = NANOS_PER_SECOND / rate;
+        long increment = interval * config.getRequestedTokens();
+        long burstWindow = interval * burst;
+
+        AtomicLong bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(System.nanoTime()));
+        while (true) {
+            long now = System.nanoTime();
+            long tat = bucket.get();
+            long newTat = Math.max(tat, now) + increment;
+
+            if (newTat - now > burstWindow) {
+                long remaining = Math.max(0, (burstWindow - (Math.max(tat, now) - now)) / interval);
+                return new Response(false, headers(config, remaining));
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                long remaining = (burstWindow - (newTat - now)) / interval;
+                return new Response(true, headers(config, remaining));
+            }
+        }
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    void evictIdleBuckets() {
+        long now = System.nanoTime();
+        int before = buckets.size();
+        buckets.entrySet().removeIf(entry -> entry.getValue().get() - now <= 0);
+        log.debug("Rate limiter: {} buckets inactivos eliminados", before - buckets.size());
+    }
+
+    private void syncReplicas() {
+        try {
+            int discovered = Math.max(1, discoveryClient.getInstances(serviceId).size());
+            if (discovered != replicas) {
+                log.info("Rate limiter: {} réplicas de {}, límite local = límite / {}", discovered, serviceId, discovered);
+                replicas = discovered;
+            }
+        } catch (RuntimeException e) {
+            log.warn("No se pudo consultar las réplicas de {}: {}", serviceId, e.getMessage());
+        }
+    }
+
+    private static Map<String, String> headers(Config config, long remaining) {
+        return Map.of(
+                REMAINING_HEADER, Long.toString(remaining),
+                REPLENISH_RATE_HEADER, Integer.toString(config.getReplenishRate()),
+                BURST_CAPACITY_HEADER, Integer.toString(config.getBurstCapacity()),
+                REQUESTED_TOKENS_HEADER, Integer.toString(config.getRequestedTokens()));
+    }
+
+    @Validated
+    @Data
+    public static class Config {
+
+        @Min(1)
+        private int replenishRate;
+
+        @Min(1)
+        private int burstCapacity = 1;
+
+        @Min(1)
+        private int requestedTokens = 1;
+
+        public Config setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public Config setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+
+        public Config setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+            return this;
+        }
+    }
+}
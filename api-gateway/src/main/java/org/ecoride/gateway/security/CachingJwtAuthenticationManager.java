@@ -0,0 +1,101 @@
+package org.ecoride.gateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtReactiveAuthenticationManager;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Evita decodificar, verificar la firma y convertir los roles del mismo JWT en cada
+ * petición. La clave es el SHA-256 del token (no se guarda el token en claro) y cada
+ * entrada caduca en el exp del propio token.
+ */
+public class CachingJwtAuthenticationManager implements ReactiveAuthenticationManager {
+
+    private final JwtReactiveAuthenticationManager delegate;
+    private final Cache<String, JwtAuthenticationToken> authentications;
+
+    public CachingJwtAuthenticationManager(ReactiveJwtDecoder jwtDecoder,
+                                           Converter<Jwt, Mono<AbstractAuthenticationToken>> authenticationConverter,
+                                           long maxSize,
+                                           MeterRegistry meterRegistry) {
+        this.delegate = new JwtReactiveAuthenticationManager(jwtDecoder);
+        this.delegate.setJwtAuthenticationConverter(authenticationConverter);
+        this.authentications = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, authentications, "gateway.jwt.authentications");
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        if (!(authentication instanceof BearerTokenAuthenticationToken bearer)) {
+            return Mono.empty();
+        }
+
+        String key = hash(bearer.getToken());
+        JwtAuthenticationToken cached = authentications.getIfPresent(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+
+        return delegate.authenticate(authentication)
+                .map(result -> {
+                    if (result instanceof JwtAuthenticationToken jwtAuthentication) {
+                        jwtAuthentication.setDetails(GatewayUserHeaders.from(jwtAuthentication));
+                        if (jwtAuthentication.getToken().getExpiresAt() != null) {
+                            authentications.put(key, jwtAuthentication);
+                        }
+                    }
+                    return result;
+                });
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static final class TokenExpiry implements Expiry<String, JwtAuthenticationToken> {
+
+        @Override
+        public long expireAfterCreate(String key, JwtAuthenticationToken value, long currentTime) {
+            Instant expiresAt = value.getToken().getExpiresAt();
+            return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, JwtAuthenticationToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, JwtAuthenticationToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
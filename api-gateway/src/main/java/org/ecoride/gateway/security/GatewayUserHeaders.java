@@ -0,0 +1,21 @@
+package org.ecoride.gateway.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.stream.Collectors;
+
+/**
+ * Valores de X-User-Id / X-User-Roles calculados una vez por token y guardados
+ * como details de la autenticación cacheada.
+ */
+public record GatewayUserHeaders(String userId, String roles) {
+
+    public static GatewayUserHeaders from(JwtAuthenticationToken authentication) {
+        String sub = authentication.getToken().getClaimAsString("sub");
+        String roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(","));
+        return new GatewayUserHeaders(sub != null ? sub : "unknown", roles);
+    }
+}
@@ -0,0 +1,113 @@
+package org.ecoride.gateway.security;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.SignedJWT;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Mantiene el JWK Set de Keycloak en memoria: se descarga al arrancar y se refresca
+ * en segundo plano, así la validación de un token nunca espera a Keycloak. Solo un
+ * kid desconocido (rotación de claves) fuerza una descarga, como mucho una vez por
+ * min-refresh-gap.
+ */
+@Component
+@Slf4j
+public class PrefetchingJwkSource {
+
+    private final WebClient webClient = WebClient.create();
+    private final String jwkSetUri;
+    private final Duration refreshInterval;
+    private final long minRefreshGapNanos;
+
+    private final AtomicReference<JWKSet> current = new AtomicReference<>(new JWKSet());
+    private final AtomicLong lastFetchNanos = new AtomicLong(System.nanoTime() - Long.MAX_VALUE / 2);
+    private Disposable scheduledRefresh;
+
+    public PrefetchingJwkSource(@Value("${gateway.security.jwk-set-uri}") String jwkSetUri,
+                                @Value("${gateway.security.jwk-refresh-interval:5m}") Duration refreshInterval,
+                                @Value("${gateway.security.jwk-min-refresh-gap:30s}") Duration minRefreshGap) {
+        this.jwkSetUri = jwkSetUri;
+        this.refreshInterval = refreshInterval;
+        this.minRefreshGapNanos = minRefreshGap.toNanos();
+    }
+
+    @PostConstruct
+    void start() {
+        scheduledRefresh = Flux.interval(Duration.ZERO, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> fetch().onErrorResume(e -> {
+                    log.warn("No se pudo refrescar el JWK Set desde {}: {}", jwkSetUri, e.getMessage());
+                    return Mono.empty();
+                }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.dispose();
+        }
+    }
+
+    /**
+     * Fuente de claves para NimbusReactiveJwtDecoder.withJwkSource.
+     */
+    public Flux<JWK> select(SignedJWT jwt) {
+        JWKSelector selector = new JWKSelector(JWKMatcher.forJWSHeader(jwt.getHeader()));
+        List<JWK> keys = selector.select(current.get());
+        if (!keys.isEmpty()) {
+            return Flux.fromIterable(keys);
+        }
+        return refreshForUnknownKey()
+                .map(selector::select)
+                .flatMapMany(Flux::fromIterable);
+    }
+
+    private Mono<JWKSet> refreshForUnknownKey() {
+        long now = System.nanoTime();
+        long last = lastFetchNanos.get();
+        if (now - last < minRefreshGapNanos || !lastFetchNanos.compareAndSet(last, now)) {
+            return Mono.just(current.get());
+        }
+        log.info("Token firmado con una clave desconocida, refrescando JWK Set");
+        return fetch().onErrorResume(e -> Mono.just(current.get()));
+    }
+
+    private Mono<JWKSet> fetch() {
+        return webClient.get()
+                .uri(jwkSetUri)
+                .retrieve()
+                .bodyToMono(String.class)
+                .map(PrefetchingJwkSource::parse)
+                .doOnNext(jwkSet -> {
+                    current.set(jwkSet);
+                    lastFetchNanos.set(System.nanoTime());
+                    log.debug("JWK Set actualizado: {} claves", jwkSet.getKeys().size());
+                });
+    }
+
+    private static JWKSet parse(String body) {
+        try {
+            return JWKSet.parse(body);
+        } catch (ParseException e) {
+            throw new IllegalStateException("JWK Set inválido", e);
+        }
+    }
+}
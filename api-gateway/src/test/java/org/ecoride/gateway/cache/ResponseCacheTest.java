@@ -0,0 +1,66 @@
+package org.ecoride.gateway.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTest {
+
+    private final ResponseCache cache = new ResponseCache(
+            100, Duration.ofSeconds(30), Duration.ofSeconds(5), new SimpleMeterRegistry());
+
+    @Test
+    void reservationEventEvictsDetailAndSearchesContainingTheTrip() {
+        UUID tripA = UUID.randomUUID();
+        UUID tripB = UUID.randomUUID();
+        long startedAt = System.nanoTime();
+
+        cache.put("/trips/" + tripA, response(Set.of(tripA), false), startedAt);
+        cache.put("/trips?origin=madrid", response(Set.of(tripA, tripB), true), startedAt);
+        cache.put("/trips?origin=bilbao", response(Set.of(tripB), true), startedAt);
+
+        cache.invalidateTrip(tripA, true);
+
+        assertThat(cache.get("/trips/" + tripA)).isNull();
+        assertThat(cache.get("/trips?origin=madrid")).isNull();
+        assertThat(cache.get("/trips?origin=bilbao")).isNotNull();
+    }
+
+    @Test
+    void doesNotStoreResponseRequestedBeforeTheLastInvalidation() {
+        UUID tripId = UUID.randomUUID();
+        long startedAt = System.nanoTime() - 1_000_000;
+
+        cache.invalidateTrip(tripId, true);
+        cache.put("/trips/" + tripId, response(Set.of(tripId), false), startedAt);
+
+        assertThat(cache.get("/trips/" + tripId)).isNull();
+
+        cache.put("/trips/" + tripId, response(Set.of(tripId), false), System.nanoTime());
+        assertThat(cache.get("/trips/" + tripId)).isNotNull();
+    }
+
+    @Test
+    void newTripEvictsOnlySearches() {
+        UUID tripId = UUID.randomUUID();
+        long startedAt = System.nanoTime();
+
+        cache.put("/trips/" + tripId, response(Set.of(tripId), false), startedAt);
+        cache.put("/trips?destination=valencia", response(Set.of(tripId), true), startedAt);
+
+        cache.invalidateSearches();
+
+        assertThat(cache.get("/trips/" + tripId)).isNotNull();
+        assertThat(cache.get("/trips?destination=valencia")).isNull();
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    private static CachedResponse response(Set<UUID> tripIds, boolean search) {
+        return new CachedResponse("application/json", "{}".getBytes(), "\"etag\"", tripIds, search, System.nanoTime());
+    }
+}
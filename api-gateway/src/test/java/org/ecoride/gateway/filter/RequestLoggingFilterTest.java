@@ -0,0 +1,99 @@
+package org.ecoride.gateway.filter;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Modo compact: una línea clave=valor por petición y un timer reutilizado por
+ * combinación de etiquetas, también cuando el cliente cancela la petición.
+ */
+class RequestLoggingFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final GatewayFilter filter = new RequestLoggingFilter(registry, "compact", 0.0)
+            .apply(new RequestLoggingFilter.Config());
+
+    private final Logger accessLog = (Logger) LoggerFactory.getLogger("org.ecoride.gateway.access");
+    private final ListAppender<ILoggingEvent> lines = new ListAppender<>();
+    private Level previousLevel;
+
+    @BeforeEach
+    void captureAccessLog() {
+        previousLevel = accessLog.getLevel();
+        accessLog.setLevel(Level.INFO);
+        lines.start();
+        accessLog.addAppender(lines);
+    }
+
+    @AfterEach
+    void releaseAccessLog() {
+        accessLog.detachAppender(lines);
+        accessLog.setLevel(previousLevel);
+    }
+
+    @Test
+    void writesOneCompactLineAndReusesTheTimer() {
+        GatewayFilterChain ok = exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            return Mono.empty();
+        };
+
+        StepVerifier.create(filter.filter(exchange(), ok)).verifyComplete();
+        StepVerifier.create(filter.filter(exchange(), ok)).verifyComplete();
+
+        assertThat(lines.list).hasSize(2);
+        assertThat(lines.list.get(0).getFormattedMessage()).matches(
+                "correlationId=abc-123 route=trip-service method=GET path=/api/trips/42 status=200 durationMs=\\d+");
+        assertThat(registry.find("gateway.requests").timers()).hasSize(1);
+        assertThat(timer("200", "SUCCESS").count()).isEqualTo(2);
+    }
+
+    @Test
+    void recordsRequestsCancelledByTheClient() {
+        GatewayFilterChain hanging = exchange -> Mono.never();
+
+        StepVerifier.create(filter.filter(exchange(), hanging)).thenCancel().verify();
+
+        assertThat(timer("499", "CANCELLED").count()).isEqualTo(1);
+        assertThat(lines.list).singleElement()
+                .extracting(ILoggingEvent::getFormattedMessage)
+                .asString()
+                .contains("status=499").endsWith("cancelled=true");
+    }
+
+    private Timer timer(String status, String outcome) {
+        return registry.get("gateway.requests")
+                .tags("route", "trip-service", "method", "GET", "status", status, "outcome", outcome)
+                .timer();
+    }
+
+    private static MockServerWebExchange exchange() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/api/trips/42").header("X-Correlation-Id", "abc-123"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, Route.async()
+                .id("trip-service")
+                .uri("http://localhost:8081")
+                .predicate(serverWebExchange -> true)
+                .build());
+        return exchange;
+    }
+}
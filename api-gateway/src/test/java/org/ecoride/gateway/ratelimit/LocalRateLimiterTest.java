@@ -0,0 +1,71 @@
+package org.ecoride.gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalRateLimiterTest {
+
+    // Reposición lenta para que no entren tokens nuevos durante el test
+    private final LocalRateLimiter rateLimiter = new LocalRateLimiter(1, 50, Duration.ofMinutes(1));
+
+    @Test
+    void allowsBurstThenRejects() {
+        for (int i = 0; i < 50; i++) {
+            assertThat(rateLimiter.isAllowed("payment-service", "user-1").block().isAllowed()).isTrue();
+        }
+
+        RateLimiter.Response rejected = rateLimiter.isAllowed("payment-service", "user-1").block();
+        assertThat(rejected.isAllowed()).isFalse();
+        assertThat(rejected.getHeaders()).containsEntry(LocalRateLimiter.REMAINING_HEADER, "0");
+
+        // Otro usuario tiene su propio bucket
+        assertThat(rateLimiter.isAllowed("payment-service", "user-2").block().isAllowed()).isTrue();
+    }
+
+    @Test
+    void neverGrantsMoreThanBurstUnderContention() throws Exception {
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        for (int t = 0; t < 16; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 100; i++) {
+                    if (rateLimiter.isAllowed("payment-service", "hot-user").block().isAllowed()) {
+                        granted.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // 50 de ráfaga más, como mucho, los tokens repuestos mientras corre el test
+        assertThat(granted.get()).isBetween(50, 60);
+    }
+
+    @Test
+    void evictsOnlyRefilledBuckets() throws Exception {
+        LocalRateLimiter fast = new LocalRateLimiter(1_000, 1, Duration.ofMinutes(1));
+        fast.isAllowed("payment-service", "idle").block();
+        rateLimiter.isAllowed("payment-service", "busy").block();
+
+        Thread.sleep(5);
+        fast.evictIdleBuckets();
+        rateLimiter.evictIdleBuckets();
+
+        assertThat(fast.bucketCount()).isZero();
+        assertThat(rateLimiter.bucketCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,60 @@
+package org.ecoride.gateway.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.ecoride.gateway.config.SecurityConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingJwtAuthenticationManagerTest {
+
+    private final ReactiveJwtDecoder decoder = mock(ReactiveJwtDecoder.class);
+    private final CachingJwtAuthenticationManager manager = new CachingJwtAuthenticationManager(
+            decoder, new SecurityConfig().grantedAuthoritiesExtractor(), 100, new SimpleMeterRegistry());
+
+    @Test
+    void decodesEachTokenOnceAndPrecomputesHeaders() {
+        when(decoder.decode(anyString())).thenReturn(Mono.just(jwt("token-a", Instant.now().plusSeconds(300))));
+
+        Authentication first = manager.authenticate(new BearerTokenAuthenticationToken("token-a")).block();
+        Authentication second = manager.authenticate(new BearerTokenAuthenticationToken("token-a")).block();
+
+        verify(decoder, times(1)).decode("token-a");
+        assertThat(second).isSameAs(first);
+        assertThat(first.getDetails()).isEqualTo(new GatewayUserHeaders("user-1", "ROLE_PASSENGER"));
+    }
+
+    @Test
+    void expiredTokenIsNotServedFromCache() {
+        when(decoder.decode(anyString())).thenReturn(Mono.just(jwt("token-b", Instant.now().minusSeconds(1))));
+
+        manager.authenticate(new BearerTokenAuthenticationToken("token-b")).block();
+        manager.authenticate(new BearerTokenAuthenticationToken("token-b")).block();
+
+        verify(decoder, times(2)).decode("token-b");
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("user-1")
+                .claim("realm_access", Map.of("roles", List.of("ROLE_PASSENGER", "offline_access")))
+                .issuedAt(expiresAt.minusSeconds(600))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
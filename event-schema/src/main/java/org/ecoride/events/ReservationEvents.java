@@ -1,4 +1,4 @@
-package org.ecoride.tripservice.events;
+package org.ecoride.events;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -8,8 +8,14 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.util.UUID;
 
+/**
+ * Eventos de la saga de reservas compartidos por trip, payment y notification.
+ * Cualquier campo nuevo debe añadirse también al final de su bloque en
+ * {@link org.ecoride.events.codec.EventCodec}.
+ */
 public class ReservationEvents {
 
+    // Emitido por TripService al crear una reserva pendiente de pago
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -22,6 +28,7 @@ public class ReservationEvents {
         private String correlationId;
     }
 
+    // Emitido por TripService cuando se confirma todo
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -33,6 +40,7 @@ public class ReservationEvents {
         private String correlationId;
     }
 
+    // Emitido por TripService cuando se cancela (por pago fallido o manual)
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -45,6 +53,7 @@ public class ReservationEvents {
         private String correlationId;
     }
 
+    // Emitido por PaymentService si el cobro es EXITOSO
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -56,6 +65,7 @@ public class ReservationEvents {
         private String correlationId;
     }
 
+    // Emitido por PaymentService si el cobro FALLA
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -67,6 +77,18 @@ public class ReservationEvents {
         private String correlationId;
     }
 
+    // Emitido por TripService si un pago autorizado llega para una reserva ya cancelada
+    // (p. ej. expirada): PaymentService anula la autorización
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class PaymentVoidRequested {
+        private UUID reservationId;
+        private String reason;
+        private String correlationId;
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -76,4 +98,4 @@ public class ReservationEvents {
         private UUID driverId;
         private String correlationId;
     }
-}
\ No newline at end of file
+}
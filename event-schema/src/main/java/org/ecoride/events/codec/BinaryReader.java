@@ -0,0 +1,99 @@
+package org.ecoride.events.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Lectura secuencial del formato escrito por {@link BinaryWriter}. Cualquier
+ * lectura fuera de rango se informa como evento truncado.
+ */
+final class BinaryReader {
+
+    private final byte[] data;
+    private int position;
+
+    BinaryReader(byte[] data) {
+        this.data = data;
+    }
+
+    byte readByte() {
+        require(1);
+        return data[position++];
+    }
+
+    UUID readUuid() {
+        return readPresence() ? readRawUuid() : null;
+    }
+
+    BigDecimal readAmount() {
+        if (!readPresence()) {
+            return null;
+        }
+        int scale = (int) unZigZag(readVarLong());
+        long unscaled = unZigZag(readVarLong());
+        return new BigDecimal(BigInteger.valueOf(unscaled), scale);
+    }
+
+    String readString() {
+        byte tag = readByte();
+        return switch (tag) {
+            case BinaryWriter.ABSENT -> null;
+            case BinaryWriter.STRING_UUID -> readRawUuid().toString();
+            case BinaryWriter.STRING_UTF8 -> {
+                long length = readVarLong();
+                if (length < 0 || length > data.length - position) {
+                    throw new IllegalArgumentException("Evento truncado: longitud de texto " + length);
+                }
+                String value = new String(data, position, (int) length, StandardCharsets.UTF_8);
+                position += (int) length;
+                yield value;
+            }
+            default -> throw new IllegalArgumentException("Etiqueta de texto desconocida: " + tag);
+        };
+    }
+
+    private boolean readPresence() {
+        byte flag = readByte();
+        if (flag != BinaryWriter.ABSENT && flag != BinaryWriter.PRESENT) {
+            throw new IllegalArgumentException("Marca de presencia inválida: " + flag);
+        }
+        return flag == BinaryWriter.PRESENT;
+    }
+
+    private UUID readRawUuid() {
+        require(16);
+        return new UUID(getLong(), getLong());
+    }
+
+    private long getLong() {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (data[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint mal formado");
+    }
+
+    private void require(int bytes) {
+        if (position + bytes > data.length) {
+            throw new IllegalArgumentException("Evento truncado en la posición " + position);
+        }
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
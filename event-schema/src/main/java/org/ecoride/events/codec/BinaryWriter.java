@@ -0,0 +1,131 @@
+package org.ecoride.events.codec;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Escritura secuencial sobre un buffer que crece bajo demanda. Los campos
+ * nulos se marcan con un byte de presencia.
+ */
+final class BinaryWriter {
+
+    static final byte ABSENT = 0;
+    static final byte PRESENT = 1;
+
+    // Etiquetas de String: los correlationId suelen ser UUID y caben en 16 bytes
+    static final byte STRING_UUID = 1;
+    static final byte STRING_UTF8 = 2;
+
+    private byte[] buffer;
+    private int position;
+
+    BinaryWriter(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+
+    void writeByte(byte value) {
+        ensureCapacity(1);
+        buffer[position++] = value;
+    }
+
+    void writeUuid(UUID value) {
+        if (value == null) {
+            writeByte(ABSENT);
+            return;
+        }
+        writeByte(PRESENT);
+        writeRawUuid(value);
+    }
+
+    /**
+     * Importe como entero escalado: escala + valor sin escala en varint zigzag.
+     * 25.50 ocupa 3 bytes en lugar de la representación decimal en texto.
+     */
+    void writeAmount(BigDecimal value) {
+        if (value == null) {
+            writeByte(ABSENT);
+            return;
+        }
+        long unscaled;
+        try {
+            unscaled = value.unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Importe fuera de rango: " + value, e);
+        }
+        writeByte(PRESENT);
+        writeVarLong(zigZag(value.scale()));
+        writeVarLong(zigZag(unscaled));
+    }
+
+    void writeString(String value) {
+        if (value == null) {
+            writeByte(ABSENT);
+            return;
+        }
+        UUID asUuid = canonicalUuid(value);
+        if (asUuid != null) {
+            writeByte(STRING_UUID);
+            writeRawUuid(asUuid);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeByte(STRING_UTF8);
+        writeVarLong(utf8.length);
+        ensureCapacity(utf8.length);
+        System.arraycopy(utf8, 0, buffer, position, utf8.length);
+        position += utf8.length;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void writeRawUuid(UUID value) {
+        ensureCapacity(16);
+        putLong(value.getMostSignificantBits());
+        putLong(value.getLeastSignificantBits());
+    }
+
+    private void putLong(long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Solo se compacta si la vuelta a texto reproduce exactamente el original
+     * (minúsculas, con guiones), así el decode es idéntico.
+     */
+    private static UUID canonicalUuid(String value) {
+        if (value.length() != 36 || value.charAt(8) != '-') {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(value);
+            return uuid.toString().equals(value) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
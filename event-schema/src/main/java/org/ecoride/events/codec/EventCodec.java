@@ -0,0 +1,160 @@
+package org.ecoride.events.codec;
+
+import org.ecoride.events.ReservationEvents;
+
+/**
+ * Codec binario de los eventos de la saga.
+ *
+ * <p>Formato: {@code [0xEC][versión][tipo][campos...]}. Los UUID van como 16 bytes,
+ * los importes como entero escalado y los textos con longitud varint. Los campos
+ * se escriben en orden de declaración; una versión nueva solo puede añadir campos
+ * al final, de modo que un lector antiguo decodifica lo que conoce e ignora el resto.
+ * Por eso la cabecera acepta cualquier versión a partir de la 1, también las más
+ * nuevas que {@link #CURRENT_VERSION}: durante un despliegue escalonado los lectores
+ * viejos siguen consumiendo lo que publican los nuevos.
+ */
+public final class EventCodec {
+
+    public static final byte MAGIC = (byte) 0xEC;
+    public static final byte CURRENT_VERSION = 1;
+
+    private static final int HEADER_SIZE = 3;
+
+    private EventCodec() {
+    }
+
+    public static byte[] encode(Object event) {
+        BinaryWriter writer = new BinaryWriter(96);
+        writer.writeByte(MAGIC);
+        writer.writeByte(CURRENT_VERSION);
+
+        switch (event) {
+            case ReservationEvents.ReservationRequested e -> {
+                writer.writeByte(EventType.RESERVATION_REQUESTED.code());
+                writer.writeUuid(e.getReservationId());
+                writer.writeUuid(e.getTripId());
+                writer.writeUuid(e.getPassengerId());
+                writer.writeAmount(e.getAmount());
+                writer.writeString(e.getCorrelationId());
+            }
+            case ReservationEvents.ReservationConfirmed e -> {
+                writer.writeByte(EventType.RESERVATION_CONFIRMED.code());
+                writer.writeUuid(e.getReservationId());
+                writer.writeUuid(e.getTripId());
+                writer.writeUuid(e.getPassengerId());
+                writer.writeString(e.getCorrelationId());
+            }
+            case ReservationEvents.ReservationCancelled e -> {
+                writer.writeByte(EventType.RESERVATION_CANCELLED.code());
+                writer.writeUuid(e.getReservationId());
+                writer.writeUuid(e.getTripId());
+                writer.writeUuid(e.getPassengerId());
+                writer.writeString(e.getReason());
+                writer.writeString(e.getCorrelationId());
+            }
+            case ReservationEvents.PaymentAuthorized e -> {
+                writer.writeByte(EventType.PAYMENT_AUTHORIZED.code());
+                writer.writeUuid(e.getReservationId());
+                writer.writeUuid(e.getPaymentIntentId());
+                writer.writeUuid(e.getChargeId());
+                writer.writeString(e.getCorrelationId());
+            }
+            case ReservationEvents.PaymentFailed e -> {
+                writer.writeByte(EventType.PAYMENT_FAILED.code());
+                writer.writeUuid(e.getReservationId());
+                writer.writeUuid(e.getPassengerId());
+                writer.writeString(e.getReason());
+                writer.writeString(e.getCorrelationId());
+            }
+            case ReservationEvents.TripCompleted e -> {
+                writer.writeByte(EventType.TRIP_COMPLETED.code());
+                writer.writeUuid(e.getTripId());
+                writer.writeUuid(e.getDriverId());
+                writer.writeString(e.getCorrelationId());
+            }
+            case ReservationEvents.PaymentVoidRequested e -> {
+                writer.writeByte(EventType.PAYMENT_VOID_REQUESTED.code());
+                writer.writeUuid(e.getReservationId());
+                writer.writeString(e.getReason());
+                writer.writeString(e.getCorrelationId());
+            }
+            case null -> throw new IllegalArgumentException("No se puede codificar un evento nulo");
+            default -> throw new IllegalArgumentException(
+                    "Tipo de evento no soportado: " + event.getClass().getName());
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Lee los campos que conoce esta versión en su orden y no mira lo que venga
+     * detrás (campos añadidos por versiones posteriores).
+     */
+    public static Object decode(byte[] data) {
+        EventType type = readType(data);
+        BinaryReader reader = new BinaryReader(data);
+        for (int i = 0; i < HEADER_SIZE; i++) {
+            reader.readByte();
+        }
+
+        return switch (type) {
+            case RESERVATION_REQUESTED -> ReservationEvents.ReservationRequested.builder()
+                    .reservationId(reader.readUuid())
+                    .tripId(reader.readUuid())
+                    .passengerId(reader.readUuid())
+                    .amount(reader.readAmount())
+                    .correlationId(reader.readString())
+                    .build();
+            case RESERVATION_CONFIRMED -> ReservationEvents.ReservationConfirmed.builder()
+                    .reservationId(reader.readUuid())
+                    .tripId(reader.readUuid())
+                    .passengerId(reader.readUuid())
+                    .correlationId(reader.readString())
+                    .build();
+            case RESERVATION_CANCELLED -> ReservationEvents.ReservationCancelled.builder()
+                    .reservationId(reader.readUuid())
+                    .tripId(reader.readUuid())
+                    .passengerId(reader.readUuid())
+                    .reason(reader.readString())
+                    .correlationId(reader.readString())
+                    .build();
+            case PAYMENT_AUTHORIZED -> ReservationEvents.PaymentAuthorized.builder()
+                    .reservationId(reader.readUuid())
+                    .paymentIntentId(reader.readUuid())
+                    .chargeId(reader.readUuid())
+                    .correlationId(reader.readString())
+                    .build();
+            case PAYMENT_FAILED -> ReservationEvents.PaymentFailed.builder()
+                    .reservationId(reader.readUuid())
+                    .passengerId(reader.readUuid())
+                    .reason(reader.readString())
+                    .correlationId(reader.readString())
+                    .build();
+            case TRIP_COMPLETED -> ReservationEvents.TripCompleted.builder()
+                    .tripId(reader.readUuid())
+                    .driverId(reader.readUuid())
+                    .correlationId(reader.readString())
+                    .build();
+            case PAYMENT_VOID_REQUESTED -> ReservationEvents.PaymentVoidRequested.builder()
+                    .reservationId(reader.readUuid())
+                    .reason(reader.readString())
+                    .correlationId(reader.readString())
+                    .build();
+        };
+    }
+
+    /**
+     * Valida la cabecera y devuelve el tipo sin decodificar el cuerpo.
+     */
+    public static EventType readType(byte[] data) {
+        if (data == null || data.length < HEADER_SIZE) {
+            throw new IllegalArgumentException("Evento sin cabecera");
+        }
+        if (data[0] != MAGIC) {
+            throw new IllegalArgumentException("El payload no es un evento binario (magic " + data[0] + ")");
+        }
+        if (Byte.toUnsignedInt(data[1]) < 1) {
+            throw new IllegalArgumentException("Versión de evento no soportada: " + data[1]);
+        }
+        return EventType.fromCode(data[2]);
+    }
+}
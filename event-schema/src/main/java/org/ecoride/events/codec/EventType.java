@@ -0,0 +1,49 @@
+package org.ecoride.events.codec;
+
+import org.ecoride.events.ReservationEvents;
+
+/**
+ * Etiqueta de un byte que identifica el tipo de evento en la cabecera binaria.
+ * Los códigos son parte del formato: no se reutilizan ni se renumeran.
+ */
+public enum EventType {
+
+    RESERVATION_REQUESTED(1, ReservationEvents.ReservationRequested.class),
+    RESERVATION_CONFIRMED(2, ReservationEvents.ReservationConfirmed.class),
+    RESERVATION_CANCELLED(3, ReservationEvents.ReservationCancelled.class),
+    PAYMENT_AUTHORIZED(4, ReservationEvents.PaymentAuthorized.class),
+    PAYMENT_FAILED(5, ReservationEvents.PaymentFailed.class),
+    TRIP_COMPLETED(6, ReservationEvents.TripCompleted.class),
+    PAYMENT_VOID_REQUESTED(7, ReservationEvents.PaymentVoidRequested.class);
+
+    private static final EventType[] BY_CODE = new EventType[8];
+
+    static {
+        for (EventType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final byte code;
+    private final Class<?> eventClass;
+
+    EventType(int code, Class<?> eventClass) {
+        this.code = (byte) code;
+        this.eventClass = eventClass;
+    }
+
+    public byte code() {
+        return code;
+    }
+
+    public Class<?> eventClass() {
+        return eventClass;
+    }
+
+    public static EventType fromCode(byte code) {
+        if (code <= 0 || code >= BY_CODE.length || BY_CODE[code] == null) {
+            throw new IllegalArgumentException("Tipo de evento desconocido: " + code);
+        }
+        return BY_CODE[code];
+    }
+}
@@ -0,0 +1,81 @@
+package org.ecoride.events.kafka;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Administración de los DLT de un servicio: POST /{topic}/replay reenvía hasta max
+ * registros del DLT del topic a su topic de reintento con {@link DeadLetterReplayer}.
+ * Cada servicio lo extiende con su @RestController y @RequestMapping("/admin/dead-letters").
+ * <p>
+ * El gateway no lo publica, pero el puerto del servicio sí puede estar expuesto, así que
+ * cada llamada debe traer la cabecera X-Admin-Token con el secreto configurado. Sin
+ * secreto configurado el endpoint queda deshabilitado.
+ */
+@Slf4j
+public abstract class AbstractDeadLetterController {
+
+    public static final String ADMIN_TOKEN_HEADER = "X-Admin-Token";
+
+    private final RetryTopics retryTopics;
+    private final DeadLetterReplayer deadLetterReplayer;
+    private final int maxReplay;
+    private final byte[] adminToken;
+
+    protected AbstractDeadLetterController(RetryTopics retryTopics,
+                                           DeadLetterReplayer deadLetterReplayer,
+                                           int maxReplay,
+                                           String adminToken) {
+        this.retryTopics = retryTopics;
+        this.deadLetterReplayer = deadLetterReplayer;
+        this.maxReplay = maxReplay;
+        this.adminToken = adminToken == null || adminToken.isBlank()
+                ? null
+                : adminToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @PostMapping("/{topic}/replay")
+    public ResponseEntity<ReplayResponse> replay(
+            @RequestHeader(name = ADMIN_TOKEN_HEADER, required = false) String token,
+            @PathVariable String topic,
+            @RequestParam(defaultValue = "500") int max) {
+
+        authorize(token);
+        if (!retryTopics.handles(topic)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Topic sin DLT en este servicio: " + topic);
+        }
+        if (max < 1 || max > maxReplay) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "max debe estar entre 1 y " + maxReplay);
+        }
+
+        String deadLetterTopic = retryTopics.deadLetterTopic(topic);
+        String retryTopic = retryTopics.retryTopic(topic);
+        int replayed = deadLetterReplayer.replay(deadLetterTopic, retryTopic, max);
+        log.info("POST /admin/dead-letters/{}/replay - {} registros reenviados de {} a {}",
+                topic, replayed, deadLetterTopic, retryTopic);
+        return ResponseEntity.ok(new ReplayResponse(deadLetterTopic, retryTopic, replayed));
+    }
+
+    private void authorize(String token) {
+        if (adminToken == null) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Replay de DLT deshabilitado: no hay token de administración");
+        }
+        // Comparación en tiempo constante
+        if (token == null || !MessageDigest.isEqual(adminToken, token.getBytes(StandardCharsets.UTF_8))) {
+            log.warn("POST /admin/dead-letters rechazado: cabecera {} ausente o incorrecta", ADMIN_TOKEN_HEADER);
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Token de administración inválido");
+        }
+    }
+
+    public record ReplayResponse(String deadLetterTopic, String retryTopic, int replayed) {
+    }
+}
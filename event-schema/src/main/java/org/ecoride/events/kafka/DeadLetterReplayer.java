@@ -0,0 +1,154 @@
+package org.ecoride.events.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.InterruptException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Reenvía en bloque los registros de un DLT al topic de reintento del que salieron,
+ * tal cual (bytes de clave y valor, cabeceras de la aplicación). Lee con su propio
+ * group id y solo confirma los offsets ya reenviados, así que cada llamada sigue donde
+ * se quedó la anterior. Las cabeceras de excepción y de reintento se quitan para que
+ * el registro vuelva a empezar la cadena de reintentos.
+ * <p>
+ * Solo depende de kafka-clients; cada servicio lo expone en su endpoint de administración.
+ */
+public class DeadLetterReplayer {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final List<String> DROPPED_HEADER_PREFIXES =
+            List.of("kafka_dlt-", "retry_topic-", "springDeserializerException");
+
+    private final Supplier<Consumer<byte[], byte[]>> consumers;
+    private final Supplier<Producer<byte[], byte[]>> producers;
+    private final Duration sendTimeout;
+
+    public DeadLetterReplayer(Supplier<Consumer<byte[], byte[]>> consumers,
+                              Supplier<Producer<byte[], byte[]>> producers,
+                              Duration sendTimeout) {
+        this.consumers = consumers;
+        this.producers = producers;
+        this.sendTimeout = sendTimeout;
+    }
+
+    /**
+     * Replayer con KafkaConsumer y KafkaProducer propios para cada llamada.
+     */
+    public static DeadLetterReplayer create(String bootstrapServers, String groupId, Duration sendTimeout) {
+        Map<String, Object> consumerProps = new HashMap<>();
+        consumerProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        consumerProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        consumerProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        consumerProps.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+
+        Map<String, Object> producerProps = new HashMap<>();
+        producerProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        producerProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        producerProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+
+        return new DeadLetterReplayer(
+                () -> new KafkaConsumer<>(consumerProps, new ByteArrayDeserializer(), new ByteArrayDeserializer()),
+                () -> new KafkaProducer<>(producerProps, new ByteArraySerializer(), new ByteArraySerializer()),
+                sendTimeout);
+    }
+
+    /**
+     * Reenvía a targetTopic hasta maxRecords registros pendientes de deadLetterTopic.
+     * Si un envío falla no se confirma nada: la siguiente llamada repite el bloque
+     * (los consumidores de la saga son idempotentes).
+     *
+     * @return número de registros reenviados
+     */
+    public synchronized int replay(String deadLetterTopic, String targetTopic, int maxRecords) {
+        try (Consumer<byte[], byte[]> consumer = consumers.get();
+             Producer<byte[], byte[]> producer = producers.get()) {
+
+            List<PartitionInfo> partitionInfos = consumer.partitionsFor(deadLetterTopic);
+            if (partitionInfos == null || partitionInfos.isEmpty()) {
+                return 0;
+            }
+            consumer.assign(partitionInfos.stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList());
+
+            Map<TopicPartition, OffsetAndMetadata> replayed = new HashMap<>();
+            List<Future<RecordMetadata>> sends = new ArrayList<>();
+            while (sends.size() < maxRecords) {
+                ConsumerRecords<byte[], byte[]> records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    break;
+                }
+                for (ConsumerRecord<byte[], byte[]> record : records) {
+                    if (sends.size() == maxRecords) {
+                        break;
+                    }
+                    sends.add(producer.send(new ProducerRecord<>(
+                            targetTopic, null, record.key(), record.value(), replayHeaders(record))));
+                    replayed.put(new TopicPartition(record.topic(), record.partition()),
+                            new OffsetAndMetadata(record.offset() + 1));
+                }
+            }
+
+            producer.flush();
+            awaitAll(sends);
+            if (!replayed.isEmpty()) {
+                consumer.commitSync(replayed);
+            }
+            return sends.size();
+        }
+    }
+
+    private void awaitAll(List<Future<RecordMetadata>> sends) {
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        try {
+            for (Future<RecordMetadata> send : sends) {
+                send.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptException(e);
+        } catch (ExecutionException e) {
+            throw new KafkaException("Error reenviando registros del DLT", e.getCause());
+        } catch (TimeoutException e) {
+            throw new KafkaException("Timeout reenviando registros del DLT", e);
+        }
+    }
+
+    private static RecordHeaders replayHeaders(ConsumerRecord<byte[], byte[]> record) {
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (DROPPED_HEADER_PREFIXES.stream().noneMatch(header.key()::startsWith)) {
+                headers.add(header);
+            }
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,113 @@
+package org.ecoride.events.kafka;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.KafkaException;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Topics de reintento propios de un servicio. Un evento que su listener principal no
+ * pudo procesar se reenvía a &lt;topic&gt;&lt;retrySuffix&gt; (p. ej. payment-failed-trip-retry),
+ * donde se reintenta sin bloquear (topics -backoff-N con espera exponencial); agotados
+ * los intentos acaba en &lt;topic&gt;&lt;retrySuffix&gt;-dlt, de donde lo saca
+ * {@link DeadLetterReplayer}. El sufijo es distinto por servicio para que ningún grupo
+ * vea los reintentos de otro y la partición del topic principal siga avanzando.
+ * <p>
+ * Publica con su propio KafkaTemplate y SagaEventSerializer, sin transactional.id:
+ * cada servicio lo declara como bean con el sufijo y los topics que reintenta, y no
+ * registra el template para no desplazar al de Spring Boot.
+ */
+@Slf4j
+public class RetryTopics implements AutoCloseable {
+
+    public static final String BACKOFF_SUFFIX = "-backoff";
+    public static final String DLT_SUFFIX = "-dlt";
+
+    private final String retrySuffix;
+    private final Set<String> topics;
+    private final DefaultKafkaProducerFactory<String, Object> producerFactory;
+    private final KafkaTemplate<String, Object> template;
+    private final Duration sendTimeout;
+
+    /**
+     * @param retrySuffix     sufijo del servicio, p. ej. "-trip-retry"
+     * @param topics          topics principales que el servicio reintenta
+     * @param producerFactory productor de la aplicación, del que se copia la configuración
+     */
+    public RetryTopics(String retrySuffix,
+                       Set<String> topics,
+                       ProducerFactory<?, ?> producerFactory,
+                       Duration sendTimeout) {
+        this.retrySuffix = retrySuffix;
+        this.topics = Set.copyOf(topics);
+        Map<String, Object> props = new HashMap<>(producerFactory.getConfigurationProperties());
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, SagaEventSerializer.class);
+        props.remove(ProducerConfig.TRANSACTIONAL_ID_CONFIG);
+        this.producerFactory = new DefaultKafkaProducerFactory<>(props);
+        this.template = new KafkaTemplate<>(this.producerFactory);
+        this.sendTimeout = sendTimeout;
+    }
+
+    public Set<String> topics() {
+        return topics;
+    }
+
+    public boolean handles(String topic) {
+        return topics.contains(topic);
+    }
+
+    public String retryTopic(String topic) {
+        return topic + retrySuffix;
+    }
+
+    public String deadLetterTopic(String topic) {
+        return retryTopic(topic) + DLT_SUFFIX;
+    }
+
+    /**
+     * Topics de reintento de todos los topics del servicio, para includeTopics de la
+     * RetryTopicConfiguration.
+     */
+    public List<String> retryTopics() {
+        return topics.stream().map(this::retryTopic).sorted().toList();
+    }
+
+    /**
+     * Template con el que la infraestructura de reintentos publica en -backoff-N y en el DLT.
+     */
+    public KafkaTemplate<String, Object> template() {
+        return template;
+    }
+
+    /**
+     * Envía el evento al topic de reintento y espera la confirmación del broker, para
+     * que el listener principal solo haga ack de lo que ya está a salvo.
+     */
+    public void forward(String topic, String key, Object event) {
+        try {
+            template.send(retryTopic(topic), key, event).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrumpido reenviando a " + retryTopic(topic), e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new KafkaException("No se pudo reenviar a " + retryTopic(topic), e);
+        }
+        log.warn("Evento con clave {} reenviado a {}", key, retryTopic(topic));
+    }
+
+    @Override
+    public void close() {
+        producerFactory.destroy();
+    }
+}
@@ -0,0 +1,26 @@
+package org.ecoride.events.kafka;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.ecoride.events.codec.EventCodec;
+
+/**
+ * Deserializer de Kafka para los eventos de la saga. Devuelve la clase concreta de
+ * {@link org.ecoride.events.ReservationEvents} indicada en la cabecera, así los
+ * listeners reciben el evento ya tipado. Conviene envolverlo en
+ * ErrorHandlingDeserializer para que un registro corrupto no bloquee la partición.
+ */
+public class SagaEventDeserializer implements Deserializer<Object> {
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return EventCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Evento inválido en " + topic + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.ecoride.events.kafka;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+import org.ecoride.events.codec.EventCodec;
+
+/**
+ * Serializer de Kafka para los eventos de la saga con {@link EventCodec}.
+ * Configurar como spring.kafka.producer.value-serializer.
+ */
+public class SagaEventSerializer implements Serializer<Object> {
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return EventCodec.encode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("No se pudo serializar el evento para " + topic, e);
+        }
+    }
+}
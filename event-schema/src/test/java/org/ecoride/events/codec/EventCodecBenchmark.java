@@ -0,0 +1,99 @@
+package org.ecoride.events.codec;
+
+import org.ecoride.events.ReservationEvents;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el codec binario con la ruta JSON anterior (writeValueAsString +
+ * StringSerializer / StringDeserializer + readValue) para un ReservationRequested.
+ *
+ * <p>Ejecutar con {@code mvn test-compile exec:java -Dexec.mainClass=...EventCodecBenchmark
+ * -Dexec.classpathScope=test} o desde el IDE con el método main.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventCodecBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ReservationEvents.ReservationRequested event;
+    private byte[] jsonBytes;
+    private byte[] binaryBytes;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder().build();
+        event = ReservationEvents.ReservationRequested.builder()
+                .reservationId(UUID.randomUUID())
+                .tripId(UUID.randomUUID())
+                .passengerId(UUID.randomUUID())
+                .amount(new BigDecimal("25.50"))
+                .correlationId(UUID.randomUUID().toString())
+                .build();
+        jsonBytes = objectMapper.writeValueAsString(event).getBytes(StandardCharsets.UTF_8);
+        binaryBytes = EventCodec.encode(event);
+    }
+
+    /**
+     * Tamaño del payload codificado; JMH lo informa como métrica secundaria
+     * (jsonEncode:bytes, binaryEncode:bytes) junto al tiempo de cada encode.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+        public long bytes;
+    }
+
+    @Benchmark
+    public byte[] jsonEncode(PayloadSize size) {
+        byte[] payload = objectMapper.writeValueAsString(event).getBytes(StandardCharsets.UTF_8);
+        size.bytes = payload.length;
+        return payload;
+    }
+
+    @Benchmark
+    public byte[] binaryEncode(PayloadSize size) {
+        byte[] payload = EventCodec.encode(event);
+        size.bytes = payload.length;
+        return payload;
+    }
+
+    @Benchmark
+    public Object jsonDecode() {
+        return objectMapper.readValue(new String(jsonBytes, StandardCharsets.UTF_8),
+                ReservationEvents.ReservationRequested.class);
+    }
+
+    @Benchmark
+    public Object binaryDecode() {
+        return EventCodec.decode(binaryBytes);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(EventCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,106 @@
+package org.ecoride.events.codec;
+
+import org.ecoride.events.ReservationEvents;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventCodecTest {
+
+    @Test
+    void roundTripsEveryEventType() {
+        Object[] events = {
+                ReservationEvents.ReservationRequested.builder()
+                        .reservationId(UUID.randomUUID()).tripId(UUID.randomUUID())
+                        .passengerId(UUID.randomUUID()).amount(new BigDecimal("25.50"))
+                        .correlationId(UUID.randomUUID().toString()).build(),
+                ReservationEvents.ReservationConfirmed.builder()
+                        .reservationId(UUID.randomUUID()).tripId(UUID.randomUUID())
+                        .passengerId(UUID.randomUUID()).correlationId("corr-manual").build(),
+                ReservationEvents.ReservationCancelled.builder()
+                        .reservationId(UUID.randomUUID()).tripId(UUID.randomUUID())
+                        .passengerId(UUID.randomUUID()).reason("PAYMENT_FAILED: tarjeta rechazada ñ")
+                        .correlationId(UUID.randomUUID().toString()).build(),
+                ReservationEvents.PaymentAuthorized.builder()
+                        .reservationId(UUID.randomUUID()).paymentIntentId(UUID.randomUUID())
+                        .chargeId(UUID.randomUUID()).correlationId(UUID.randomUUID().toString()).build(),
+                ReservationEvents.PaymentFailed.builder()
+                        .reservationId(UUID.randomUUID()).passengerId(UUID.randomUUID())
+                        .reason("Fondos insuficientes").correlationId(null).build(),
+                ReservationEvents.TripCompleted.builder()
+                        .tripId(UUID.randomUUID()).driverId(null)
+                        .correlationId(UUID.randomUUID().toString().toUpperCase()).build(),
+                ReservationEvents.PaymentVoidRequested.builder()
+                        .reservationId(UUID.randomUUID()).reason("EXPIRED: pago sin respuesta")
+                        .correlationId(UUID.randomUUID().toString()).build()
+        };
+
+        for (Object event : events) {
+            assertThat(EventCodec.decode(EventCodec.encode(event))).isEqualTo(event);
+        }
+    }
+
+    @Test
+    void binaryPayloadIsSmallerThanJson() throws Exception {
+        ReservationEvents.ReservationRequested event = ReservationEvents.ReservationRequested.builder()
+                .reservationId(UUID.randomUUID()).tripId(UUID.randomUUID())
+                .passengerId(UUID.randomUUID()).amount(new BigDecimal("25.50"))
+                .correlationId(UUID.randomUUID().toString()).build();
+
+        byte[] binary = EventCodec.encode(event);
+        byte[] json = JsonMapper.builder().build().writeValueAsBytes(event);
+
+        // 3 de cabecera + 3x17 UUID + 4 importe + 17 correlationId
+        assertThat(binary).hasSize(75);
+        assertThat(binary.length).isLessThan(json.length / 2);
+    }
+
+    @Test
+    void ignoresTrailingFieldsFromNewerWriters() {
+        ReservationEvents.PaymentFailed event = ReservationEvents.PaymentFailed.builder()
+                .reservationId(UUID.randomUUID()).reason("x").build();
+        byte[] encoded = EventCodec.encode(event);
+        byte[] withExtraField = Arrays.copyOf(encoded, encoded.length + 2);
+
+        assertThat(EventCodec.decode(withExtraField)).isEqualTo(event);
+    }
+
+    @Test
+    void currentReaderDecodesNewerVersionWithAppendedFields() {
+        ReservationEvents.ReservationCancelled event = ReservationEvents.ReservationCancelled.builder()
+                .reservationId(UUID.randomUUID()).tripId(UUID.randomUUID())
+                .passengerId(UUID.randomUUID()).reason("EXPIRED: pago sin respuesta")
+                .correlationId(UUID.randomUUID().toString()).build();
+
+        // Un escritor v2 publica los mismos campos y añade dos más al final
+        BinaryWriter writer = new BinaryWriter(128);
+        for (byte b : EventCodec.encode(event)) {
+            writer.writeByte(b);
+        }
+        writer.writeUuid(UUID.randomUUID());
+        writer.writeString("campo nuevo de v2");
+        byte[] v2 = writer.toByteArray();
+        v2[1] = (byte) (EventCodec.CURRENT_VERSION + 1);
+
+        assertThat(EventCodec.readType(v2)).isEqualTo(EventType.RESERVATION_CANCELLED);
+        assertThat(EventCodec.decode(v2)).isEqualTo(event);
+    }
+
+    @Test
+    void rejectsInvalidVersionAndForeignPayloads() {
+        byte[] encoded = EventCodec.encode(ReservationEvents.TripCompleted.builder().build());
+        encoded[1] = 0;
+
+        assertThatThrownBy(() -> EventCodec.decode(encoded))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Versión");
+        assertThatThrownBy(() -> EventCodec.decode("{\"tripId\":null}".getBytes()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,68 @@
+package org.ecoride.events.kafka;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * El replay exige el token de administración, solo acepta los topics del servicio y
+ * reenvía del DLT al topic de reintento con el sufijo del servicio.
+ */
+class AbstractDeadLetterControllerTest {
+
+    private static final String TOKEN = "s3cret";
+
+    private final List<String> calls = new ArrayList<>();
+    private final DeadLetterReplayer replayer = new DeadLetterReplayer(null, null, Duration.ofSeconds(1)) {
+        @Override
+        public synchronized int replay(String deadLetterTopic, String targetTopic, int maxRecords) {
+            calls.add(deadLetterTopic + " -> " + targetTopic);
+            return maxRecords;
+        }
+    };
+    private final RetryTopics retryTopics = new RetryTopics("-trip-retry", Set.of("payment-failed"),
+            new DefaultKafkaProducerFactory<>(Map.of()), Duration.ofSeconds(1));
+
+    @Test
+    void replaysFromDeadLetterTopicToServiceRetryTopic() {
+        ResponseEntity<AbstractDeadLetterController.ReplayResponse> response =
+                controller(TOKEN).replay(TOKEN, "payment-failed", 20);
+
+        assertThat(response.getBody()).isEqualTo(new AbstractDeadLetterController.ReplayResponse(
+                "payment-failed-trip-retry-dlt", "payment-failed-trip-retry", 20));
+        assertThat(calls).containsExactly("payment-failed-trip-retry-dlt -> payment-failed-trip-retry");
+    }
+
+    @Test
+    void rejectsMissingOrWrongTokenAndUnknownTopics() {
+        assertStatus(() -> controller(TOKEN).replay(null, "payment-failed", 20), HttpStatus.UNAUTHORIZED);
+        assertStatus(() -> controller(TOKEN).replay("otro", "payment-failed", 20), HttpStatus.UNAUTHORIZED);
+        // Sin token configurado el endpoint no se puede usar
+        assertStatus(() -> controller("").replay("", "payment-failed", 20), HttpStatus.FORBIDDEN);
+        assertStatus(() -> controller(TOKEN).replay(TOKEN, "reservation-requested", 20), HttpStatus.NOT_FOUND);
+        assertStatus(() -> controller(TOKEN).replay(TOKEN, "payment-failed", 101), HttpStatus.BAD_REQUEST);
+        assertThat(calls).isEmpty();
+    }
+
+    private AbstractDeadLetterController controller(String adminToken) {
+        return new AbstractDeadLetterController(retryTopics, replayer, 100, adminToken) {
+        };
+    }
+
+    private static void assertStatus(Runnable call, HttpStatus status) {
+        assertThatThrownBy(call::run)
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(status));
+    }
+}
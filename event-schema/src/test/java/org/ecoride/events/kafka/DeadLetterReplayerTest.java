@@ -0,0 +1,73 @@
+package org.ecoride.events.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reenvía como máximo maxRecords, quita las cabeceras del DLT y de reintento y
+ * confirma solo el offset de lo reenviado.
+ */
+class DeadLetterReplayerTest {
+
+    private static final String DLT = "payment-failed-trip-retry-dlt";
+    private static final String TARGET = "payment-failed-trip-retry";
+    private static final TopicPartition PARTITION = new TopicPartition(DLT, 0);
+
+    @Test
+    void replaysUpToMaxRecordsAndCommitsOnlyWhatWasSent() {
+        MockConsumer<byte[], byte[]> consumer = new MockConsumer<>("earliest") {
+            @Override
+            public synchronized void close() {
+                // El test consulta los offsets confirmados después del replay
+            }
+        };
+        consumer.updatePartitions(DLT, List.of(new PartitionInfo(DLT, 0, Node.noNode(), new Node[0], new Node[0])));
+        consumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+        consumer.schedulePollTask(() -> {
+            for (int i = 0; i < 5; i++) {
+                ConsumerRecord<byte[], byte[]> record = new ConsumerRecord<>(DLT, 0, i, bytes("key-" + i), bytes("value-" + i));
+                record.headers().add("kafka_dlt-exception-message", bytes("boom"));
+                record.headers().add("retry_topic-attempts", bytes("4"));
+                record.headers().add("traceparent", bytes("00-abc"));
+                consumer.addRecord(record);
+            }
+        });
+        MockProducer<byte[], byte[]> producer =
+                new MockProducer<>(true, null, new ByteArraySerializer(), new ByteArraySerializer());
+
+        DeadLetterReplayer replayer = new DeadLetterReplayer(() -> consumer, () -> producer, Duration.ofSeconds(5));
+
+        int replayed = replayer.replay(DLT, TARGET, 3);
+
+        assertThat(replayed).isEqualTo(3);
+        List<ProducerRecord<byte[], byte[]>> sent = producer.history();
+        assertThat(sent).hasSize(3);
+        assertThat(sent).allSatisfy(record -> {
+            assertThat(record.topic()).isEqualTo(TARGET);
+            assertThat(record.headers().lastHeader("kafka_dlt-exception-message")).isNull();
+            assertThat(record.headers().lastHeader("retry_topic-attempts")).isNull();
+            assertThat(record.headers().lastHeader("traceparent")).isNotNull();
+        });
+        assertThat(new String(sent.get(2).value(), StandardCharsets.UTF_8)).isEqualTo("value-2");
+        assertThat(consumer.committed(Set.of(PARTITION)).get(PARTITION).offset()).isEqualTo(3);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -2,6 +2,7 @@ package org.ecoride.notificationservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.kafka.annotation.EnableKafka;
@@ -10,6 +11,7 @@ import org.springframework.kafka.annotation.EnableKafka;
 @EnableDiscoveryClient
 @EnableKafka
 @EnableFeignClients
+@EnableCaching
 public class NotificationServiceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,130 @@
+package org.ecoride.notificationservice.config;
+
+import org.ecoride.events.kafka.DeadLetterReplayer;
+import org.ecoride.events.kafka.RetryTopics;
+import org.ecoride.notificationservice.service.NotificationMessages;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+
+import java.time.Duration;
+import java.util.Set;
+
+@Configuration
+public class KafkaConfig {
+
+    /**
+     * Sufijo de los topics de reintento de notification-service; constante porque la usan los
+     * @KafkaListener de los topics de reintento.
+     */
+    public static final String RETRY_SUFFIX = "-notification-retry";
+
+    /**
+     * Topics cuyos eventos fallidos reintenta notification-service (ver {@link RetryTopics}).
+     */
+    public static final Set<String> RETRIED_TOPICS = Set.of(
+            NotificationMessages.TOPIC_PAYMENT_FAILED,
+            NotificationMessages.TOPIC_RESERVATION_CONFIRMED,
+            NotificationMessages.TOPIC_RESERVATION_CANCELLED);
+
+    @Value("${spring.kafka.listener.concurrency:1}")
+    private int listenerConcurrency;
+
+    @Value("${notification.kafka.topic-partitions:6}")
+    private int topicPartitions;
+
+    @Value("${notification.kafka.retry.attempts:4}")
+    private int retryAttempts;
+
+    @Value("${notification.kafka.retry.initial-interval-ms:1000}")
+    private long retryInitialIntervalMs;
+
+    @Value("${notification.kafka.retry.multiplier:4}")
+    private double retryMultiplier;
+
+    @Value("${notification.kafka.retry.max-interval-ms:60000}")
+    private long retryMaxIntervalMs;
+
+    /**
+     * Contenedores de los listeners principales. El envío es asíncrono, así que el
+     * registro se confirma desde NotificationDispatcher al terminar su entrega; con
+     * acks asíncronos el contenedor acepta confirmaciones fuera de orden y solo hace
+     * commit hasta el primer registro todavía pendiente.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> dispatchKafkaListenerContainerFactory(
+            ConsumerFactory<String, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setConcurrency(listenerConcurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
+        return factory;
+    }
+
+    /**
+     * Contenedores registro a registro para los topics de reintento: cada fallo mueve
+     * solo ese registro al siguiente topic -backoff-N.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> retryKafkaListenerContainerFactory(
+            ConsumerFactory<String, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.RECORD);
+        return factory;
+    }
+
+    /**
+     * Reintentos no bloqueantes de las notificaciones: &lt;topic&gt;-notification-retry, luego
+     * -backoff-0..N con espera exponencial y al final -dlt (ver {@link RetryTopics}).
+     * Si el propio DLT falla se registra y se sigue, para no crear un bucle.
+     */
+    @Bean
+    public RetryTopicConfiguration notificationRetryTopics(
+            RetryTopics retryTopics,
+            @Qualifier("retryKafkaListenerContainerFactory")
+            ConcurrentKafkaListenerContainerFactory<String, Object> retryKafkaListenerContainerFactory) {
+        return RetryTopicConfigurationBuilder.newInstance()
+                .includeTopics(retryTopics.retryTopics())
+                .maxAttempts(retryAttempts)
+                .exponentialBackoff(retryInitialIntervalMs, retryMultiplier, retryMaxIntervalMs)
+                .retryTopicSuffix(RetryTopics.BACKOFF_SUFFIX)
+                .dltSuffix(RetryTopics.DLT_SUFFIX)
+                .autoCreateTopicsWith(topicPartitions, (short) -1)
+                .listenerFactory(retryKafkaListenerContainerFactory)
+                .dltHandlerMethod("notificationRetryListener", "handleDeadLetter")
+                .doNotRetryOnDltFailure()
+                .create(retryTopics.template());
+    }
+
+    /**
+     * Reenvío de los listeners principales a los topics de reintento y template de la
+     * cadena -backoff-N / -dlt.
+     */
+    @Bean
+    public RetryTopics retryTopics(ProducerFactory<?, ?> producerFactory,
+                                   @Value("${notification.kafka.send-timeout-ms:10000}") long sendTimeoutMs) {
+        return new RetryTopics(RETRY_SUFFIX, RETRIED_TOPICS, producerFactory, Duration.ofMillis(sendTimeoutMs));
+    }
+
+    /**
+     * Reenvío en bloque de los DLT de notification-service (DeadLetterController).
+     */
+    @Bean
+    public DeadLetterReplayer deadLetterReplayer(
+            @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+            @Value("${notification.kafka.send-timeout-ms:10000}") long sendTimeoutMs) {
+        return DeadLetterReplayer.create(bootstrapServers, "notification-service-dlt-replay",
+                Duration.ofMillis(sendTimeoutMs));
+    }
+}
@@ -0,0 +1,24 @@
+package org.ecoride.notificationservice.controller;
+
+import org.ecoride.events.kafka.AbstractDeadLetterController;
+import org.ecoride.events.kafka.DeadLetterReplayer;
+import org.ecoride.events.kafka.RetryTopics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Administración de los DLT de notification-service (ver {@link AbstractDeadLetterController}).
+ * Exige la cabecera X-Admin-Token con notification.kafka.retry.admin-token.
+ */
+@RestController
+@RequestMapping("/admin/dead-letters")
+public class DeadLetterController extends AbstractDeadLetterController {
+
+    public DeadLetterController(RetryTopics retryTopics,
+                                DeadLetterReplayer deadLetterReplayer,
+                                @Value("${notification.kafka.retry.max-replay:10000}") int maxReplay,
+                                @Value("${notification.kafka.retry.admin-token:}") String adminToken) {
+        super(retryTopics, deadLetterReplayer, maxReplay, adminToken);
+    }
+}
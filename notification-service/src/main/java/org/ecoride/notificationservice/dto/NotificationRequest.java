@@ -0,0 +1,31 @@
+package org.ecoride.notificationservice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+public class NotificationRequest {
+    private UUID passengerId;
+    private String subject;
+    private String content;
+    // Evento de la saga que originó la notificación y su topic, para reenviarlo al reintento
+    private String topic;
+    private String key;
+    private Object event;
+    // Ack del registro de Kafka: se confirma cuando el correo sale o el evento pasa a reintento
+    private Acknowledgment acknowledgment;
+    // Notificaciones fusionadas en esta por la ventana de agrupación; null si es una sola
+    private List<NotificationRequest> merged;
+
+    /**
+     * Notificaciones originales que cubre este mensaje.
+     */
+    public List<NotificationRequest> sources() {
+        return merged != null ? merged : List.of(this);
+    }
+}
@@ -1,64 +1,59 @@
 package org.ecoride.notificationservice.listeners;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.ecoride.notificationservice.events.ReservationEvents;
-import org.ecoride.notificationservice.service.NotificationDomainService;
+import org.ecoride.events.ReservationEvents;
+import org.ecoride.events.kafka.RetryTopics;
+import org.ecoride.notificationservice.dto.NotificationRequest;
+import org.ecoride.notificationservice.service.NotificationDispatcher;
+import org.ecoride.notificationservice.service.NotificationMessages;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+/**
+ * Solo encola: la entrega es asíncrona en {@link NotificationDispatcher}, que reenvía
+ * las notificaciones fallidas a su topic de reintento ({@link RetryTopics}) y confirma
+ * cada registro cuando su correo ha salido o ha pasado a reintento.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationListener {
-    private final NotificationDomainService notificationService;
+    private final NotificationDispatcher notificationDispatcher;
 
     /**
      * CASO 1: Pago Fallido (Viene de PaymentService)
      */
-    @KafkaListener(topics = "payment-failed", groupId = "notification-service-group")
-    public void handlePaymentFailed(ReservationEvents.PaymentFailed event) {
+    @KafkaListener(topics = NotificationMessages.TOPIC_PAYMENT_FAILED, groupId = "notification-service-group",
+            containerFactory = "dispatchKafkaListenerContainerFactory")
+    public void handlePaymentFailed(ReservationEvents.PaymentFailed event, Acknowledgment acknowledgment) {
         log.info("[{}] Procesando PaymentFailed para Pasajero: {}", event.getCorrelationId(), event.getPassengerId());
-
-        String subject = "Problema con el pago de tu reserva";
-        String message = String.format(
-                "Hola, intentamos procesar el pago para tu reserva %s pero falló.\n\nRazón: %s\n\nPor favor intenta nuevamente.",
-                event.getReservationId(),
-                event.getReason()
-        );
-
-        notificationService.sendNotification(event.getPassengerId(), subject, message);
+        NotificationRequest request = NotificationMessages.paymentFailed(event);
+        request.setAcknowledgment(acknowledgment);
+        notificationDispatcher.submit(request);
     }
 
     /**
      * CASO 2: Reserva Confirmada (Viene de TripService tras pago exitoso)
      */
-    @KafkaListener(topics = "reservation-confirmed", groupId = "notification-service-group")
-    public void handleReservationConfirmed(ReservationEvents.ReservationConfirmed event) {
+    @KafkaListener(topics = NotificationMessages.TOPIC_RESERVATION_CONFIRMED, groupId = "notification-service-group",
+            containerFactory = "dispatchKafkaListenerContainerFactory")
+    public void handleReservationConfirmed(ReservationEvents.ReservationConfirmed event, Acknowledgment acknowledgment) {
         log.info("[{}] Procesando ReservationConfirmed para Pasajero: {}", event.getCorrelationId(), event.getPassengerId());
-
-        String subject = "¡Reserva Confirmada en Eco-Ride!";
-        String message = String.format(
-                "¡Buenas noticias! Tu reserva %s ha sido confirmada exitosamente.\nPrepárate para tu viaje.",
-                event.getReservationId()
-        );
-
-        notificationService.sendNotification(event.getPassengerId(), subject, message);
+        NotificationRequest request = NotificationMessages.reservationConfirmed(event);
+        request.setAcknowledgment(acknowledgment);
+        notificationDispatcher.submit(request);
     }
 
     /**
      * CASO 3: Reserva Cancelada (Viene de TripService por compensación o manual)
      */
-    @KafkaListener(topics = "reservation-cancelled", groupId = "notification-service-group")
-    public void handleReservationCancelled(ReservationEvents.ReservationCancelled event) {
+    @KafkaListener(topics = NotificationMessages.TOPIC_RESERVATION_CANCELLED, groupId = "notification-service-group",
+            containerFactory = "dispatchKafkaListenerContainerFactory")
+    public void handleReservationCancelled(ReservationEvents.ReservationCancelled event, Acknowledgment acknowledgment) {
         log.info("[{}] Procesando ReservationCancelled para Pasajero: {}", event.getCorrelationId(), event.getPassengerId());
-
-        String subject = "Tu reserva ha sido cancelada";
-        String message = String.format(
-                "La reserva %s ha sido cancelada.\n\nMotivo: %s\n\nEsperamos verte pronto en otro viaje.",
-                event.getReservationId(),
-                event.getReason()
-        );
-
-        notificationService.sendNotification(event.getPassengerId(), subject, message);
+        NotificationRequest request = NotificationMessages.reservationCancelled(event);
+        request.setAcknowledgment(acknowledgment);
+        notificationDispatcher.submit(request);
     }
 }
@@ -0,0 +1,75 @@
+package org.ecoride.notificationservice.listeners;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.ecoride.events.ReservationEvents;
+import org.ecoride.notificationservice.config.KafkaConfig;
+import org.ecoride.notificationservice.dto.NotificationRequest;
+import org.ecoride.notificationservice.service.NotificationDomainService;
+import org.ecoride.notificationservice.service.NotificationMessages;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Reintenta una a una las notificaciones que no se pudieron entregar. Aquí la entrega
+ * es síncrona: si vuelve a fallar se lanza y el registro pasa al siguiente topic
+ * -backoff-N (ver KafkaConfig#notificationRetryTopics) y, agotados los intentos, al DLT.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationRetryListener {
+
+    private static final String GROUP_ID = "notification-service-group";
+
+    private final NotificationDomainService notificationDomainService;
+
+    @KafkaListener(
+            topics = NotificationMessages.TOPIC_PAYMENT_FAILED + KafkaConfig.RETRY_SUFFIX,
+            groupId = GROUP_ID,
+            containerFactory = "retryKafkaListenerContainerFactory"
+    )
+    public void retryPaymentFailed(@Payload ReservationEvents.PaymentFailed event) {
+        deliver(NotificationMessages.paymentFailed(event), event.getCorrelationId());
+    }
+
+    @KafkaListener(
+            topics = NotificationMessages.TOPIC_RESERVATION_CONFIRMED + KafkaConfig.RETRY_SUFFIX,
+            groupId = GROUP_ID,
+            containerFactory = "retryKafkaListenerContainerFactory"
+    )
+    public void retryReservationConfirmed(@Payload ReservationEvents.ReservationConfirmed event) {
+        deliver(NotificationMessages.reservationConfirmed(event), event.getCorrelationId());
+    }
+
+    @KafkaListener(
+            topics = NotificationMessages.TOPIC_RESERVATION_CANCELLED + KafkaConfig.RETRY_SUFFIX,
+            groupId = GROUP_ID,
+            containerFactory = "retryKafkaListenerContainerFactory"
+    )
+    public void retryReservationCancelled(@Payload ReservationEvents.ReservationCancelled event) {
+        deliver(NotificationMessages.reservationCancelled(event), event.getCorrelationId());
+    }
+
+    /**
+     * Destino final tras agotar los reintentos; el registro queda en el DLT para
+     * reenviarlo con POST /admin/dead-letters/{topic}/replay.
+     */
+    public void handleDeadLetter(@Payload Object event, @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
+        log.error("Evento agotó sus reintentos y quedó en {}: {}", topic, event);
+    }
+
+    private void deliver(NotificationRequest request, String correlationId) {
+        log.info("[{}] Reintentando notificación {} para Pasajero: {}",
+                correlationId, request.getTopic(), request.getPassengerId());
+        if (!notificationDomainService.deliver(List.of(request)).isEmpty()) {
+            throw new IllegalStateException("No se pudo entregar la notificación " + request.getTopic()
+                    + " al pasajero " + request.getPassengerId());
+        }
+    }
+}
@@ -4,10 +4,16 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -23,13 +29,7 @@ public class EmailService {
         try {
             log.info("Enviando correo a: {}", to);
 
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(body);
-
-            javaMailSender.send(message);
+            javaMailSender.send(buildMessage(to, subject, body));
 
             log.info("Correo enviado exitosamente a {}", to);
         } catch (Exception e) {
@@ -37,4 +37,51 @@ public class EmailService {
             throw new RuntimeException("Error al enviar el correo", e);
         }
     }
+
+    public SimpleMailMessage buildMessage(String to, String subject, String body) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(fromEmail);
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setText(body);
+        return message;
+    }
+
+    /**
+     * Envía el lote por una sola conexión SMTP (JavaMailSender reutiliza el
+     * Transport para todos los mensajes de la misma llamada).
+     *
+     * @return los mensajes que fallaron con su causa; vacío si todo salió bien
+     */
+    public Map<SimpleMailMessage, Exception> sendAll(List<SimpleMailMessage> messages) {
+        if (messages.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            javaMailSender.send(messages.toArray(SimpleMailMessage[]::new));
+            log.info("Lote de {} correos enviado", messages.size());
+            return Map.of();
+        } catch (MailSendException e) {
+            Map<SimpleMailMessage, Exception> failed = new HashMap<>();
+            e.getFailedMessages().forEach((message, cause) -> {
+                if (message instanceof SimpleMailMessage simpleMessage) {
+                    failed.put(simpleMessage, cause);
+                }
+            });
+            if (failed.isEmpty()) {
+                return allFailed(messages, e);
+            }
+            log.error("{} de {} correos del lote fallaron", failed.size(), messages.size());
+            return failed;
+        } catch (MailException e) {
+            log.error("Error enviando lote de {} correos: {}", messages.size(), e.getMessage());
+            return allFailed(messages, e);
+        }
+    }
+
+    private static Map<SimpleMailMessage, Exception> allFailed(List<SimpleMailMessage> messages, Exception cause) {
+        Map<SimpleMailMessage, Exception> failed = new HashMap<>();
+        messages.forEach(message -> failed.put(message, cause));
+        return failed;
+    }
 }
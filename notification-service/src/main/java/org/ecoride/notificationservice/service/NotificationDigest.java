@@ -0,0 +1,86 @@
+package org.ecoride.notificationservice.service;
+
+import org.ecoride.notificationservice.dto.NotificationRequest;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Notificaciones de un mismo pasajero acumuladas durante la ventana de agrupación de
+ * {@link NotificationDispatcher}. Se entregan como un solo correo: p. ej. un pago
+ * fallido y la cancelación que provoca llegan con unos cientos de ms de diferencia.
+ * Sus eventos siguen sin confirmar mientras la ventana está abierta; el mensaje
+ * fusionado conserva cada notificación original (sources) y el dispatcher confirma o
+ * reenvía a reintento cada una al terminar la entrega.
+ */
+class NotificationDigest {
+
+    private static final String SEPARATOR = "\n\n----------\n\n";
+
+    private final long openedAt;
+    private final List<NotificationRequest> parts = new ArrayList<>();
+
+    NotificationDigest(long openedAt) {
+        this.openedAt = openedAt;
+    }
+
+    long openedAt() {
+        return openedAt;
+    }
+
+    int size() {
+        return parts.size();
+    }
+
+    /**
+     * Añade la notificación salvo que sea una reentrega del mismo evento (mismo topic y
+     * clave). La deduplicación solo cubre esta ventana abierta: una reentrega que llegue
+     * después de enviarse la ventana genera otro correo. El ack del duplicado se
+     * confirma junto con el de la notificación que ya está en la ventana, cuando se
+     * entregue, nunca antes.
+     */
+    void add(NotificationRequest request) {
+        for (NotificationRequest part : parts) {
+            if (request.getTopic() != null && request.getTopic().equals(part.getTopic())
+                    && Objects.equals(request.getKey(), part.getKey())) {
+                part.setAcknowledgment(both(part.getAcknowledgment(), request.getAcknowledgment()));
+                return;
+            }
+        }
+        parts.add(request);
+    }
+
+    private static Acknowledgment both(Acknowledgment first, Acknowledgment second) {
+        if (first == null || second == null) {
+            return first != null ? first : second;
+        }
+        return () -> {
+            first.acknowledge();
+            second.acknowledge();
+        };
+    }
+
+    /**
+     * Un único mensaje con el asunto de la notificación más reciente (el estado final
+     * de la reserva) y el texto de todas en orden de llegada.
+     */
+    NotificationRequest merge() {
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+        NotificationRequest last = parts.get(parts.size() - 1);
+        String content = parts.stream()
+                .map(NotificationRequest::getContent)
+                .collect(Collectors.joining(SEPARATOR,
+                        "Tienes " + parts.size() + " novedades sobre tus reservas:\n\n", ""));
+        return NotificationRequest.builder()
+                .passengerId(last.getPassengerId())
+                .subject(last.getSubject())
+                .content(content)
+                .merged(List.copyOf(parts))
+                .build();
+    }
+}
@@ -0,0 +1,314 @@
+package org.ecoride.notificationservice.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.ecoride.events.kafka.RetryTopics;
+import org.ecoride.notificationservice.dto.NotificationRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Desacopla el consumo de Kafka del envío SMTP. Los listeners solo encolan; un
+ * grupo fijo de hilos vacía la cola por lotes y los entrega con
+ * {@link NotificationDomainService#deliver}. Si la cola se llena se pausan los
+ * contenedores de Kafka y se reanudan cuando baja a la mitad. Las notificaciones que
+ * no se pudieron entregar se reenvían a su topic de reintento ({@link RetryTopics}).
+ * <p>
+ * El offset de cada evento solo se confirma después de enviar su correo o de dejarlo
+ * en el topic de reintento (acks asíncronos, ver KafkaConfig): lo que siga en memoria
+ * al caerse o apagarse el servicio se vuelve a consumir en lugar de perderse.
+ * <p>
+ * Antes de la cola, las notificaciones de un mismo pasajero se agrupan durante
+ * notification.dispatch.coalesce-window ({@link NotificationDigest}) y salen como un
+ * solo correo: una búsqueda del pasajero y un envío SMTP por ventana en lugar de uno
+ * por evento. Con ventana 0 cada notificación va directa a la cola.
+ */
+@Service
+@Slf4j
+public class NotificationDispatcher {
+
+    private final NotificationDomainService notificationDomainService;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final RetryTopics retryTopics;
+    private final BlockingQueue<NotificationRequest> queue;
+    private final int senders;
+    private final int batchSize;
+    private final int resumeThreshold;
+    private final long drainTimeoutMs;
+    private final int queueCapacity;
+    private final long coalesceWindowNanos;
+    private final int coalesceMaxEvents;
+
+    // Ventanas abiertas por pasajero; protegido por su propio monitor
+    private final Map<UUID, NotificationDigest> digests = new HashMap<>();
+    private final AtomicBoolean paused = new AtomicBoolean();
+    private final List<Thread> workers = new ArrayList<>();
+    private Thread coalescer;
+    private volatile boolean coalescing = true;
+    private volatile boolean running = true;
+
+    public NotificationDispatcher(NotificationDomainService notificationDomainService,
+                                  KafkaListenerEndpointRegistry listenerRegistry,
+                                  RetryTopics retryTopics,
+                                  @Value("${notification.dispatch.queue-capacity:1000}") int queueCapacity,
+                                  @Value("${notification.dispatch.senders:4}") int senders,
+                                  @Value("${notification.dispatch.batch-size:20}") int batchSize,
+                                  @Value("${notification.dispatch.drain-timeout-ms:10000}") long drainTimeoutMs,
+                                  @Value("${notification.dispatch.coalesce-window:3s}") Duration coalesceWindow,
+                                  @Value("${notification.dispatch.coalesce-max-events:10}") int coalesceMaxEvents) {
+        this.notificationDomainService = notificationDomainService;
+        this.listenerRegistry = listenerRegistry;
+        this.retryTopics = retryTopics;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.senders = senders;
+        this.batchSize = batchSize;
+        this.resumeThreshold = queueCapacity / 2;
+        this.drainTimeoutMs = drainTimeoutMs;
+        this.queueCapacity = queueCapacity;
+        this.coalesceWindowNanos = coalesceWindow.toNanos();
+        this.coalesceMaxEvents = coalesceMaxEvents;
+    }
+
+    // Hilos de plataforma: Jakarta Mail sincroniza sobre el Transport y fijaría los hilos virtuales
+    @PostConstruct
+    void start() {
+        for (int i = 0; i < senders; i++) {
+            Thread worker = Thread.ofPlatform()
+                    .name("email-sender-" + i)
+                    .daemon(true)
+                    .start(this::drainLoop);
+            workers.add(worker);
+        }
+        if (coalesceWindowNanos > 0) {
+            coalescer = Thread.ofPlatform()
+                    .name("notification-coalescer")
+                    .daemon(true)
+                    .start(this::coalesceLoop);
+        }
+    }
+
+    public void submit(UUID passengerId, String subject, String content) {
+        submit(NotificationRequest.builder()
+                .passengerId(passengerId)
+                .subject(subject)
+                .content(content)
+                .build());
+    }
+
+    public void submit(NotificationRequest request) {
+        if (coalesceWindowNanos <= 0) {
+            enqueue(request);
+            return;
+        }
+
+        NotificationDigest complete = null;
+        boolean full;
+        synchronized (digests) {
+            NotificationDigest digest = digests.computeIfAbsent(
+                    request.getPassengerId(), passengerId -> new NotificationDigest(System.nanoTime()));
+            digest.add(request);
+            if (digest.size() >= coalesceMaxEvents) {
+                digests.remove(request.getPassengerId());
+                complete = digest;
+            }
+            full = digests.size() + queue.size() >= queueCapacity;
+        }
+
+        if (complete != null) {
+            enqueue(complete.merge());
+        }
+        if (full) {
+            // Demasiados pasajeros con ventana abierta: dejar de consumir hasta que se vacíe
+            pauseListeners();
+        }
+    }
+
+    private void enqueue(NotificationRequest request) {
+        if (queue.offer(request)) {
+            return;
+        }
+
+        // Cola llena: dejar de consumir y esperar hueco para este mensaje
+        pauseListeners();
+        try {
+            queue.put(request);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando espacio en la cola de notificaciones", e);
+        }
+    }
+
+    public int pending() {
+        return queue.size() + coalescing();
+    }
+
+    private int coalescing() {
+        synchronized (digests) {
+            return digests.size();
+        }
+    }
+
+    private void coalesceLoop() {
+        long tickMs = Math.max(10, TimeUnit.NANOSECONDS.toMillis(coalesceWindowNanos) / 4);
+        while (coalescing) {
+            try {
+                Thread.sleep(tickMs);
+                flushDigests(false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error cerrando ventanas de notificaciones: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Pasa a la cola de envío las ventanas que ya cumplieron su plazo (o todas).
+     */
+    private void flushDigests(boolean all) {
+        List<NotificationDigest> ready = new ArrayList<>();
+        long now = System.nanoTime();
+        synchronized (digests) {
+            Iterator<NotificationDigest> it = digests.values().iterator();
+            while (it.hasNext()) {
+                NotificationDigest digest = it.next();
+                if (all || now - digest.openedAt() >= coalesceWindowNanos) {
+                    ready.add(digest);
+                    it.remove();
+                }
+            }
+        }
+        for (NotificationDigest digest : ready) {
+            NotificationRequest merged = digest.merge();
+            if (digest.size() > 1) {
+                log.debug("Agrupadas {} notificaciones del pasajero {} en un correo",
+                        digest.size(), merged.getPassengerId());
+            }
+            enqueue(merged);
+        }
+    }
+
+    private void drainLoop() {
+        List<NotificationRequest> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                NotificationRequest first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                resumeListenersIfDrained();
+
+                complete(batch, notificationDomainService.deliver(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error entregando lote de {} notificaciones: {}", batch.size(), e.getMessage(), e);
+                // No se sabe qué salió: todo el lote pasa a reintento
+                complete(batch, batch);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Confirma los eventos de las notificaciones entregadas y reenvía a reintento los de
+     * las fallidas. Si el reenvío falla el evento queda sin confirmar: los offsets de su
+     * partición no avanzan y se vuelve a consumir tras un reinicio o un rebalanceo.
+     */
+    private void complete(List<NotificationRequest> batch, List<NotificationRequest> failed) {
+        Set<NotificationRequest> failedRequests = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (failed != null) {
+            failedRequests.addAll(failed);
+        }
+        for (NotificationRequest request : batch) {
+            boolean delivered = !failedRequests.contains(request);
+            for (NotificationRequest source : request.sources()) {
+                if (delivered || forwardToRetry(source)) {
+                    acknowledge(source);
+                }
+            }
+        }
+    }
+
+    private boolean forwardToRetry(NotificationRequest request) {
+        if (request.getEvent() == null) {
+            return true;
+        }
+        try {
+            retryTopics.forward(request.getTopic(), request.getKey(), request.getEvent());
+            return true;
+        } catch (RuntimeException e) {
+            log.error("No se pudo reenviar a reintento la notificación {} del pasajero {}: {}",
+                    request.getTopic(), request.getPassengerId(), e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private static void acknowledge(NotificationRequest request) {
+        if (request.getAcknowledgment() != null) {
+            request.getAcknowledgment().acknowledge();
+        }
+    }
+
+    private void pauseListeners() {
+        if (paused.compareAndSet(false, true)) {
+            log.warn("Cola de notificaciones llena ({}), pausando listeners de Kafka", queue.size());
+            listenerRegistry.getListenerContainers().forEach(MessageListenerContainer::pause);
+        }
+    }
+
+    private void resumeListenersIfDrained() {
+        if (paused.get() && queue.size() + coalescing() <= resumeThreshold && paused.compareAndSet(true, false)) {
+            log.info("Cola de notificaciones en {}, reanudando listeners de Kafka", queue.size());
+            listenerRegistry.getListenerContainers().forEach(MessageListenerContainer::resume);
+        }
+    }
+
+    /**
+     * Los contenedores de Kafka se detienen antes que los singletons, así que aquí
+     * ya no entra nada nuevo: se cierran las ventanas abiertas y se da un margen para
+     * vaciar la cola. Lo que no dé tiempo a enviar no está confirmado en Kafka y lo
+     * vuelve a consumir la siguiente instancia del grupo.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        coalescing = false;
+        if (coalescer != null) {
+            coalescer.join(drainTimeoutMs);
+        }
+        flushDigests(true);
+        running = false;
+        long deadline = System.currentTimeMillis() + drainTimeoutMs;
+        for (Thread worker : workers) {
+            worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+        }
+        if (!queue.isEmpty()) {
+            log.warn("{} notificaciones sin enviar al apagar; sus eventos no están confirmados y se reentregarán",
+                    queue.size());
+        }
+        workers.forEach(Thread::interrupt);
+    }
+}
@@ -1,54 +1,97 @@
 package org.ecoride.notificationservice.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.ecoride.notificationservice.client.PassengerClient;
+import org.ecoride.notificationservice.dto.NotificationRequest;
 import org.ecoride.notificationservice.dto.PassengerDTO;
 import org.ecoride.notificationservice.model.entities.NotificationLog;
 import org.ecoride.notificationservice.model.enums.statusNotification;
 import org.ecoride.notificationservice.repository.NotificationRepository;
+import org.springframework.mail.SimpleMailMessage;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationDomainService {
-    private final PassengerClient passengerClient;
+    private final PassengerLookupService passengerLookupService;
     private final EmailService emailService;
     private final NotificationRepository notificationLogRepository;
 
     public void sendNotification(UUID passengerId, String subject, String messageContent) {
-        String recipientEmail = "unknown";
-        statusNotification status = statusNotification.FAILED;
-        String error = null;
+        deliver(List.of(NotificationRequest.builder()
+                .passengerId(passengerId)
+                .subject(subject)
+                .content(messageContent)
+                .build()));
+    }
 
-        try {
-            // 1. Obtener datos del pasajero
-            PassengerDTO passenger = passengerClient.getPassenger(passengerId);
-            recipientEmail = passenger.getEmail();
-
-            // Personalizar mensaje si es necesario
-            String personalizedMessage = String.format("Hola %s,\n\n%s", passenger.getName(), messageContent);
-
-            // 2. Enviar Correo
-            emailService.sendEmail(recipientEmail, subject, personalizedMessage);
-            status = statusNotification.SENT;
-
-        } catch (Exception e) {
-            log.error("Fallo en el proceso de notificación", e);
-            error = e.getMessage();
-        } finally {
-            // 3. Guardar Log (Auditoría)
+    /**
+     * Entrega un lote de notificaciones desde los hilos de {@link NotificationDispatcher}:
+     * resuelve los destinatarios, envía todos los correos por una conexión SMTP y
+     * guarda los logs de auditoría de una vez. Un fallo al guardar los logs no cuenta
+     * como fallo de entrega.
+     *
+     * @return las notificaciones que no se pudieron entregar
+     */
+    public List<NotificationRequest> deliver(List<NotificationRequest> requests) {
+        List<NotificationLog> logEntries = new ArrayList<>(requests.size());
+        List<SimpleMailMessage> messages = new ArrayList<>(requests.size());
+        List<NotificationLog> pendingEntries = new ArrayList<>(requests.size());
+        List<NotificationRequest> pendingRequests = new ArrayList<>(requests.size());
+        List<NotificationRequest> failed = new ArrayList<>();
+
+        for (NotificationRequest request : requests) {
             NotificationLog logEntry = NotificationLog.builder()
-                    .recipient(recipientEmail)
-                    .subject(subject)
-                    .content(messageContent)
-                    .status(status)
-                    .errorMessage(error)
+                    .recipient("unknown")
+                    .subject(request.getSubject())
+                    .content(request.getContent())
+                    .status(statusNotification.FAILED)
                     .build();
+            logEntries.add(logEntry);
 
-            notificationLogRepository.save(logEntry);
+            try {
+                // 1. Obtener datos del pasajero
+                PassengerDTO passenger = passengerLookupService.getPassenger(request.getPassengerId());
+                logEntry.setRecipient(passenger.getEmail());
+
+                // Personalizar mensaje si es necesario
+                String personalizedMessage = String.format("Hola %s,\n\n%s", passenger.getName(), request.getContent());
+                messages.add(emailService.buildMessage(passenger.getEmail(), request.getSubject(), personalizedMessage));
+                pendingEntries.add(logEntry);
+                pendingRequests.add(request);
+            } catch (Exception e) {
+                log.error("Fallo obteniendo el pasajero {} para la notificación", request.getPassengerId(), e);
+                logEntry.setErrorMessage(e.getMessage());
+                failed.add(request);
+            }
+        }
+
+        // 2. Enviar Correos
+        Map<SimpleMailMessage, Exception> failures = emailService.sendAll(messages);
+        for (int i = 0; i < messages.size(); i++) {
+            Exception failure = failures.get(messages.get(i));
+            NotificationLog logEntry = pendingEntries.get(i);
+            if (failure == null) {
+                logEntry.setStatus(statusNotification.SENT);
+            } else {
+                logEntry.setErrorMessage(failure.getMessage());
+                failed.add(pendingRequests.get(i));
+            }
+        }
+
+        // 3. Guardar Logs (Auditoría). Los correos ya salieron: si el log falla no se
+        // reenvía nada a reintento, o cada pasajero del lote recibiría el correo dos veces
+        try {
+            notificationLogRepository.saveAll(logEntries);
+        } catch (RuntimeException e) {
+            log.error("No se pudieron guardar {} logs de notificaciones ya procesadas: {}",
+                    logEntries.size(), e.getMessage(), e);
         }
+        return failed;
     }
 }
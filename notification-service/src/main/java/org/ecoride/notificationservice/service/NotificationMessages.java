@@ -0,0 +1,59 @@
+package org.ecoride.notificationservice.service;
+
+import org.ecoride.events.ReservationEvents;
+import org.ecoride.notificationservice.dto.NotificationRequest;
+
+/**
+ * Textos de las notificaciones de la saga. Los usan tanto los listeners principales
+ * como los de reintento, que reconstruyen la notificación a partir del evento.
+ */
+public final class NotificationMessages {
+
+    public static final String TOPIC_PAYMENT_FAILED = "payment-failed";
+    public static final String TOPIC_RESERVATION_CONFIRMED = "reservation-confirmed";
+    public static final String TOPIC_RESERVATION_CANCELLED = "reservation-cancelled";
+
+    private NotificationMessages() {
+    }
+
+    public static NotificationRequest paymentFailed(ReservationEvents.PaymentFailed event) {
+        return NotificationRequest.builder()
+                .passengerId(event.getPassengerId())
+                .subject("Problema con el pago de tu reserva")
+                .content(String.format(
+                        "Hola, intentamos procesar el pago para tu reserva %s pero falló.\n\nRazón: %s\n\nPor favor intenta nuevamente.",
+                        event.getReservationId(),
+                        event.getReason()))
+                .topic(TOPIC_PAYMENT_FAILED)
+                .key(String.valueOf(event.getReservationId()))
+                .event(event)
+                .build();
+    }
+
+    public static NotificationRequest reservationConfirmed(ReservationEvents.ReservationConfirmed event) {
+        return NotificationRequest.builder()
+                .passengerId(event.getPassengerId())
+                .subject("¡Reserva Confirmada en Eco-Ride!")
+                .content(String.format(
+                        "¡Buenas noticias! Tu reserva %s ha sido confirmada exitosamente.\nPrepárate para tu viaje.",
+                        event.getReservationId()))
+                .topic(TOPIC_RESERVATION_CONFIRMED)
+                .key(String.valueOf(event.getReservationId()))
+                .event(event)
+                .build();
+    }
+
+    public static NotificationRequest reservationCancelled(ReservationEvents.ReservationCancelled event) {
+        return NotificationRequest.builder()
+                .passengerId(event.getPassengerId())
+                .subject("Tu reserva ha sido cancelada")
+                .content(String.format(
+                        "La reserva %s ha sido cancelada.\n\nMotivo: %s\n\nEsperamos verte pronto en otro viaje.",
+                        event.getReservationId(),
+                        event.getReason()))
+                .topic(TOPIC_RESERVATION_CANCELLED)
+                .key(String.valueOf(event.getReservationId()))
+                .event(event)
+                .build();
+    }
+}
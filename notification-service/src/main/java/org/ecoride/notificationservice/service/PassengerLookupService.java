@@ -0,0 +1,30 @@
+package org.ecoride.notificationservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.ecoride.notificationservice.client.PassengerClient;
+import org.ecoride.notificationservice.dto.PassengerDTO;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Caché local delante de passenger-service. Un mismo pasajero suele recibir varias
+ * notificaciones seguidas (pago, confirmación, cancelación); el TTL corto de
+ * spring.cache.caffeine.spec acota cuánto tarda en verse un cambio de email.
+ */
+@Service
+@RequiredArgsConstructor
+public class PassengerLookupService {
+
+    public static final String CACHE_NAME = "passengers";
+
+    private final PassengerClient passengerClient;
+
+    // sync: varios remitentes con el mismo pasajero hacen una sola llamada.
+    // Las excepciones de Feign no se cachean: el siguiente intento vuelve a consultar
+    @Cacheable(cacheNames = CACHE_NAME, sync = true)
+    public PassengerDTO getPassenger(UUID passengerId) {
+        return passengerClient.getPassenger(passengerId);
+    }
+}
@@ -0,0 +1,201 @@
+package org.ecoride.notificationservice.service;
+
+import org.apache.kafka.common.KafkaException;
+import org.ecoride.events.ReservationEvents;
+import org.ecoride.events.kafka.RetryTopics;
+import org.ecoride.notificationservice.dto.NotificationRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationDispatcherTest {
+
+    private final NotificationDomainService domainService = mock(NotificationDomainService.class);
+    private final KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+    private final MessageListenerContainer container = mock(MessageListenerContainer.class);
+    private final RetryTopics retryTopics = mock(RetryTopics.class);
+    private final CountDownLatch smtpBlocked = new CountDownLatch(1);
+    private final CountDownLatch firstDeliveryStarted = new CountDownLatch(1);
+
+    private NotificationDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        smtpBlocked.countDown();
+        dispatcher.stop();
+    }
+
+    @Test
+    void pausesListenersWhenQueueIsFullAndResumesOnceDrained() throws Exception {
+        when(registry.getListenerContainers()).thenReturn(List.of(container));
+        doAnswer(invocation -> {
+            firstDeliveryStarted.countDown();
+            smtpBlocked.await();
+            return List.of();
+        }).when(domainService).deliver(anyList());
+
+        dispatcher = new NotificationDispatcher(domainService, registry, retryTopics, 2, 1, 1, 5_000, Duration.ZERO, 10);
+        dispatcher.start();
+
+        // El remitente se queda bloqueado con el primero; los dos siguientes llenan la cola
+        dispatcher.submit(UUID.randomUUID(), "s", "c");
+        assertThat(firstDeliveryStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        dispatcher.submit(UUID.randomUUID(), "s", "c");
+        dispatcher.submit(UUID.randomUUID(), "s", "c");
+        verify(container, never()).pause();
+
+        Thread listenerThread = Thread.ofPlatform().start(() -> dispatcher.submit(UUID.randomUUID(), "s", "c"));
+        verify(container, timeout(5_000)).pause();
+        assertThat(listenerThread.isAlive()).isTrue();
+
+        smtpBlocked.countDown();
+        listenerThread.join(5_000);
+        verify(container, timeout(5_000)).resume();
+        verify(domainService, timeout(5_000).times(4)).deliver(anyList());
+        assertThat(dispatcher.pending()).isZero();
+    }
+
+    @Test
+    void forwardsUndeliveredNotificationsToTheirRetryTopic() {
+        ReservationEvents.PaymentFailed event = ReservationEvents.PaymentFailed.builder()
+                .reservationId(UUID.randomUUID())
+                .passengerId(UUID.randomUUID())
+                .reason("Fondos insuficientes")
+                .correlationId(UUID.randomUUID().toString())
+                .build();
+        NotificationRequest request = NotificationMessages.paymentFailed(event);
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+        request.setAcknowledgment(acknowledgment);
+        when(domainService.deliver(anyList())).thenReturn(List.of(request));
+
+        dispatcher = new NotificationDispatcher(domainService, registry, retryTopics, 10, 1, 5, 5_000, Duration.ZERO, 10);
+        dispatcher.start();
+        dispatcher.submit(request);
+
+        verify(retryTopics, timeout(5_000))
+                .forward("payment-failed", event.getReservationId().toString(), event);
+        // Ya está a salvo en el topic de reintento: se confirma
+        verify(acknowledgment, timeout(5_000)).acknowledge();
+    }
+
+    @Test
+    void acknowledgesOnlyAfterDeliveryAndKeepsUnforwardedEventsUnacked() throws Exception {
+        CountDownLatch delivering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        NotificationRequest sent = NotificationMessages.reservationConfirmed(
+                ReservationEvents.ReservationConfirmed.builder()
+                        .reservationId(UUID.randomUUID()).tripId(UUID.randomUUID())
+                        .passengerId(UUID.randomUUID()).correlationId("corr-ok").build());
+        NotificationRequest lost = NotificationMessages.paymentFailed(
+                ReservationEvents.PaymentFailed.builder()
+                        .reservationId(UUID.randomUUID()).passengerId(UUID.randomUUID())
+                        .reason("Fondos insuficientes").correlationId("corr-ko").build());
+        Acknowledgment sentAck = mock(Acknowledgment.class);
+        Acknowledgment lostAck = mock(Acknowledgment.class);
+        sent.setAcknowledgment(sentAck);
+        lost.setAcknowledgment(lostAck);
+        doAnswer(invocation -> {
+            delivering.countDown();
+            release.await();
+            return List.of(lost);
+        }).when(domainService).deliver(anyList());
+        doThrow(new KafkaException("broker caído"))
+                .when(retryTopics).forward(anyString(), anyString(), any());
+
+        dispatcher = new NotificationDispatcher(domainService, registry, retryTopics, 10, 1, 5, 5_000, Duration.ZERO, 10);
+        dispatcher.submit(sent);
+        dispatcher.submit(lost);
+        dispatcher.start();
+
+        assertThat(delivering.await(5, TimeUnit.SECONDS)).isTrue();
+        // Encolado pero sin enviar: nada confirmado todavía
+        verify(sentAck, never()).acknowledge();
+
+        release.countDown();
+        verify(sentAck, timeout(5_000)).acknowledge();
+        verify(retryTopics, timeout(5_000)).forward(anyString(), anyString(), any());
+        verify(lostAck, never()).acknowledge();
+    }
+
+    @Test
+    void coalescesEventsOfTheSamePassengerIntoOneMessage() throws Exception {
+        List<NotificationRequest> delivered = new CopyOnWriteArrayList<>();
+        CountDownLatch twoDelivered = new CountDownLatch(2);
+        doAnswer(invocation -> {
+            List<NotificationRequest> batch = invocation.getArgument(0);
+            delivered.addAll(batch);
+            batch.forEach(request -> twoDelivered.countDown());
+            return List.of();
+        }).when(domainService).deliver(anyList());
+
+        UUID passengerId = UUID.randomUUID();
+        UUID reservationId = UUID.randomUUID();
+        ReservationEvents.PaymentFailed paymentFailed = ReservationEvents.PaymentFailed.builder()
+                .reservationId(reservationId).passengerId(passengerId)
+                .reason("Fondos insuficientes").correlationId("corr-1").build();
+        ReservationEvents.ReservationCancelled cancelled = ReservationEvents.ReservationCancelled.builder()
+                .reservationId(reservationId).tripId(UUID.randomUUID()).passengerId(passengerId)
+                .reason("PAYMENT_FAILED: Fondos insuficientes").correlationId("corr-1").build();
+        ReservationEvents.ReservationConfirmed otherPassenger = ReservationEvents.ReservationConfirmed.builder()
+                .reservationId(UUID.randomUUID()).tripId(UUID.randomUUID())
+                .passengerId(UUID.randomUUID()).correlationId("corr-2").build();
+
+        dispatcher = new NotificationDispatcher(domainService, registry, retryTopics, 10, 1, 20, 5_000,
+                Duration.ofMillis(300), 10);
+        dispatcher.start();
+        Acknowledgment failedAck = mock(Acknowledgment.class);
+        Acknowledgment redeliveredAck = mock(Acknowledgment.class);
+        Acknowledgment cancelledAck = mock(Acknowledgment.class);
+        dispatcher.submit(withAck(NotificationMessages.paymentFailed(paymentFailed), failedAck));
+        // Reentrega del mismo evento: no se repite en el correo
+        dispatcher.submit(withAck(NotificationMessages.paymentFailed(paymentFailed), redeliveredAck));
+        dispatcher.submit(withAck(NotificationMessages.reservationCancelled(cancelled), cancelledAck));
+        dispatcher.submit(NotificationMessages.reservationConfirmed(otherPassenger));
+        // La ventana sigue abierta: ningún evento confirmado
+        verify(failedAck, never()).acknowledge();
+        verify(redeliveredAck, never()).acknowledge();
+        verify(cancelledAck, never()).acknowledge();
+
+        assertThat(twoDelivered.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(delivered).hasSize(2);
+        NotificationRequest merged = delivered.stream()
+                .filter(request -> passengerId.equals(request.getPassengerId()))
+                .findFirst()
+                .orElseThrow();
+        assertThat(merged.sources()).hasSize(2);
+        assertThat(merged.getSubject()).isEqualTo("Tu reserva ha sido cancelada");
+        assertThat(merged.getContent())
+                .contains("intentamos procesar el pago")
+                .contains("ha sido cancelada");
+        assertThat(dispatcher.pending()).isZero();
+        verify(failedAck, timeout(5_000)).acknowledge();
+        verify(redeliveredAck, timeout(5_000)).acknowledge();
+        verify(cancelledAck, timeout(5_000)).acknowledge();
+    }
+
+    private static NotificationRequest withAck(NotificationRequest request, Acknowledgment acknowledgment) {
+        request.setAcknowledgment(acknowledgment);
+        return request;
+    }
+}
@@ -0,0 +1,71 @@
+package org.ecoride.notificationservice.service;
+
+import org.ecoride.notificationservice.dto.NotificationRequest;
+import org.ecoride.notificationservice.dto.PassengerDTO;
+import org.ecoride.notificationservice.repository.NotificationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Solo las notificaciones sin entregar vuelven como fallidas, aunque no se pueda
+ * guardar el log de auditoría.
+ */
+class NotificationDomainServiceTest {
+
+    private final PassengerLookupService passengerLookupService = mock(PassengerLookupService.class);
+    private final EmailService emailService = mock(EmailService.class);
+    private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+    private final NotificationDomainService domainService =
+            new NotificationDomainService(passengerLookupService, emailService, notificationRepository);
+
+    @Test
+    void logFailureDoesNotSendDeliveredNotificationsToRetry() {
+        NotificationRequest delivered = request();
+        NotificationRequest undelivered = request();
+        passenger(delivered, "ana@ecoride.org");
+        passenger(undelivered, "luis@ecoride.org");
+        when(emailService.buildMessage(anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(invocation.<String>getArgument(0));
+            return message;
+        });
+        when(emailService.sendAll(anyList())).thenAnswer(invocation -> {
+            List<SimpleMailMessage> messages = invocation.getArgument(0);
+            return Map.of(messages.get(1), new MailSendException("buzón lleno"));
+        });
+        when(notificationRepository.saveAll(any())).thenThrow(new DataAccessResourceFailureException("sin conexión"));
+
+        List<NotificationRequest> failed = domainService.deliver(List.of(delivered, undelivered));
+
+        assertThat(failed).containsExactly(undelivered);
+    }
+
+    private void passenger(NotificationRequest request, String email) {
+        when(passengerLookupService.getPassenger(request.getPassengerId())).thenReturn(PassengerDTO.builder()
+                .id(request.getPassengerId())
+                .name("Pasajero")
+                .email(email)
+                .build());
+    }
+
+    private static NotificationRequest request() {
+        return NotificationRequest.builder()
+                .passengerId(UUID.randomUUID())
+                .subject("Reserva confirmada")
+                .content("Tu reserva está confirmada")
+                .build();
+    }
+}
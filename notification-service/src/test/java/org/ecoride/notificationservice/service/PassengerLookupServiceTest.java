@@ -0,0 +1,103 @@
+package org.ecoride.notificationservice.service;
+
+import org.ecoride.notificationservice.client.PassengerClient;
+import org.ecoride.notificationservice.dto.PassengerDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * La caché de pasajeros hace una sola llamada Feign por pasajero, también con varios
+ * remitentes pidiendo a la vez el mismo pasajero que aún no está cacheado.
+ */
+@SpringJUnitConfig(PassengerLookupServiceTest.CacheConfig.class)
+class PassengerLookupServiceTest {
+
+    private static final int SENDERS = 8;
+
+    @MockitoBean
+    private PassengerClient passengerClient;
+
+    @Autowired
+    private PassengerLookupService passengerLookupService;
+
+    @Test
+    void repeatedLookupsOfTheSamePassengerCallPassengerServiceOnce() {
+        UUID passengerId = UUID.randomUUID();
+        when(passengerClient.getPassenger(passengerId)).thenReturn(passenger(passengerId));
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(passengerLookupService.getPassenger(passengerId).getEmail()).isEqualTo("ana@ecoride.org");
+        }
+
+        verify(passengerClient, times(1)).getPassenger(passengerId);
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        UUID passengerId = UUID.randomUUID();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(passengerClient.getPassenger(passengerId)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return passenger(passengerId);
+        });
+
+        List<Future<PassengerDTO>> lookups = new ArrayList<>();
+        try (ExecutorService senders = Executors.newFixedThreadPool(SENDERS)) {
+            for (int i = 0; i < SENDERS; i++) {
+                lookups.add(senders.submit(() -> passengerLookupService.getPassenger(passengerId)));
+            }
+            // La primera carga sigue en curso mientras llegan el resto de remitentes
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<PassengerDTO> lookup : lookups) {
+                assertThat(lookup.get(5, TimeUnit.SECONDS).getId()).isEqualTo(passengerId);
+            }
+        }
+
+        verify(passengerClient, times(1)).getPassenger(passengerId);
+    }
+
+    private static PassengerDTO passenger(UUID passengerId) {
+        return PassengerDTO.builder()
+                .id(passengerId)
+                .name("Ana")
+                .email("ana@ecoride.org")
+                .build();
+    }
+
+    @Configuration
+    @EnableCaching
+    @Import(PassengerLookupService.class)
+    static class CacheConfig {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(PassengerLookupService.CACHE_NAME);
+        }
+    }
+}
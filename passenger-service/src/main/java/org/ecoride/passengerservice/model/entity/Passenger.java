@@ -30,9 +30,17 @@ public class Passenger {
     @Column(nullable = false, unique = true, length = 255)
     private String email;
 
-    @Column(name = "rating_avg", columnDefinition = "DECIMAL(3,2)")
+    // Los agregados de calificación solo los escribe PassengerRepository.applyRating:
+    // updatable = false evita que un save() del perfil pise una calificación concurrente
+    @Column(name = "rating_avg", columnDefinition = "DECIMAL(3,2)", updatable = false)
     private Double ratingAvg;
 
+    @Column(name = "rating_count", nullable = false, updatable = false)
+    private Integer ratingCount;
+
+    @Column(name = "rating_sum", nullable = false, updatable = false)
+    private Long ratingSum;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
@@ -44,6 +52,12 @@ public class Passenger {
         if (ratingAvg == null) {
             ratingAvg = 0.0;
         }
+        if (ratingCount == null) {
+            ratingCount = 0;
+        }
+        if (ratingSum == null) {
+            ratingSum = 0L;
+        }
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package org.ecoride.passengerservice.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "ratable_trip")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RatableTrip {
+
+    @Id
+    @Column(name = "trip_id", columnDefinition = "uuid", updatable = false, nullable = false)
+    private UUID tripId;
+
+    @Column(name = "driver_id")
+    private UUID driverId;
+
+    @Column(name = "passenger_id")
+    private UUID passengerId;
+
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
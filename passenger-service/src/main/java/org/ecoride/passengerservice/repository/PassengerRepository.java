@@ -2,10 +2,27 @@ package org.ecoride.passengerservice.repository;
 
 import org.ecoride.passengerservice.model.entity.Passenger;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 import java.util.UUID;
 
 public interface PassengerRepository extends JpaRepository<Passenger, UUID> {
     Optional<Passenger> findByKeycloakSub(String keycloakSub);
+
+    /**
+     * Suma una calificación a los agregados del pasajero en un único UPDATE atómico.
+     * Las expresiones del SET leen los valores previos de la fila.
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE passenger
+            SET rating_count = rating_count + 1,
+                rating_sum = rating_sum + :score,
+                rating_avg = ROUND(CAST(rating_sum + :score AS numeric) / (rating_count + 1), 2)
+            WHERE id = :passengerId
+            """, nativeQuery = true)
+    int applyRating(@Param("passengerId") UUID passengerId, @Param("score") int score);
 }
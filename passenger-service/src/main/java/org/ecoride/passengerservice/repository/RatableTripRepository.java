@@ -0,0 +1,41 @@
+package org.ecoride.passengerservice.repository;
+
+import org.ecoride.passengerservice.model.entity.RatableTrip;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RatableTripRepository extends JpaRepository<RatableTrip, UUID> {
+
+    // Los TripCompleted redelivered no deben fallar por clave duplicada
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO ratable_trip (trip_id, driver_id, passenger_id, completed_at, expires_at)
+            VALUES (:tripId, :driverId, :passengerId, :completedAt, :expiresAt)
+            ON CONFLICT (trip_id) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("tripId") UUID tripId,
+                       @Param("driverId") UUID driverId,
+                       @Param("passengerId") UUID passengerId,
+                       @Param("completedAt") LocalDateTime completedAt,
+                       @Param("expiresAt") LocalDateTime expiresAt);
+
+    Optional<RatableTrip> findByTripIdAndExpiresAtAfter(UUID tripId, LocalDateTime now);
+
+    // Los más recientes primero: son los que tienen más probabilidad de recibir ratings
+    List<RatableTrip> findByExpiresAtAfterOrderByCompletedAtDesc(LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RatableTrip r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
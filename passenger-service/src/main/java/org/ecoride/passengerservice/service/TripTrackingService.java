@@ -1,35 +1,124 @@
 package org.ecoride.passengerservice.service;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import lombok.extern.slf4j.Slf4j;
 import org.ecoride.passengerservice.event.TripCompletedEvent;
+import org.ecoride.passengerservice.model.entity.RatableTrip;
+import org.ecoride.passengerservice.repository.RatableTripRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.Map;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
-// Servicio que trackea viajes completados para habilitar ratings
+// Servicio que trackea viajes completados para habilitar ratings.
+// La tabla ratable_trip es la fuente de verdad (sobrevive a reinicios y se comparte
+// entre réplicas); delante hay una caché acotada que expira con la ventana de rating.
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class TripTrackingService {
 
-    private final Map<UUID, TripCompletedEvent> completedTrips = new ConcurrentHashMap<>();
+    private final RatableTripRepository ratableTripRepository;
+    private final Duration ratingWindow;
+    private final int warmupSize;
+    private final Cache<UUID, TripCompletedEvent> completedTrips;
+
+    public TripTrackingService(RatableTripRepository ratableTripRepository,
+                               @Value("${passenger.ratable-trips.rating-window:7d}") Duration ratingWindow,
+                               @Value("${passenger.ratable-trips.cache-max-size:100000}") long cacheMaxSize,
+                               @Value("${passenger.ratable-trips.warmup-size:20000}") int warmupSize) {
+        this.ratableTripRepository = ratableTripRepository;
+        this.ratingWindow = ratingWindow;
+        this.warmupSize = (int) Math.min(warmupSize, cacheMaxSize);
+        this.completedTrips = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new RatingWindowExpiry())
+                .build();
+    }
 
     // Marca un viaje como completado y elegible para rating
     public void markTripAsRatable(TripCompletedEvent event) {
-        completedTrips.put(event.getTripId(), event);
+        LocalDateTime completedAt = event.getCompletedAt() != null ? event.getCompletedAt() : LocalDateTime.now();
+        LocalDateTime expiresAt = completedAt.plus(ratingWindow);
+        if (!expiresAt.isAfter(LocalDateTime.now())) {
+            log.info("Trip {} completed at {} is outside the rating window, ignored", event.getTripId(), completedAt);
+            return;
+        }
+
+        ratableTripRepository.insertIfAbsent(
+                event.getTripId(), event.getDriverId(), event.getPassengerId(), completedAt, expiresAt);
+        completedTrips.put(event.getTripId(),
+                new TripCompletedEvent(event.getTripId(), event.getDriverId(), event.getPassengerId(), completedAt));
         log.info("Trip {} marked as ratable", event.getTripId());
     }
 
     //Verifica si un viaje está completado y es elegible para rating
     public boolean isTripRatable(UUID tripId) {
-        return completedTrips.containsKey(tripId);
+        return getCompletedTrip(tripId) != null;
     }
 
-    // Obtiene información de un viaje completado
+    // Obtiene información de un viaje completado; si no está en caché se consulta la tabla
     public TripCompletedEvent getCompletedTrip(UUID tripId) {
-        return completedTrips.get(tripId);
+        TripCompletedEvent cached = completedTrips.getIfPresent(tripId);
+        if (cached != null) {
+            return cached;
+        }
+
+        return ratableTripRepository.findByTripIdAndExpiresAtAfter(tripId, LocalDateTime.now())
+                .map(this::toEvent)
+                .map(event -> {
+                    completedTrips.put(tripId, event);
+                    return event;
+                })
+                .orElse(null);
+    }
+
+    // Precarga los viajes más recientes para que los primeros ratings tras un reinicio no vayan a BD
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<RatableTrip> recent = ratableTripRepository.findByExpiresAtAfterOrderByCompletedAtDesc(
+                LocalDateTime.now(), PageRequest.of(0, warmupSize));
+        recent.forEach(trip -> completedTrips.put(trip.getTripId(), toEvent(trip)));
+        log.info("Ratable trips cache warmed with {} trips", recent.size());
+    }
+
+    @Scheduled(fixedDelayString = "${passenger.ratable-trips.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int deleted = ratableTripRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Purged {} ratable trips outside the rating window", deleted);
+        }
+    }
+
+    private TripCompletedEvent toEvent(RatableTrip trip) {
+        return new TripCompletedEvent(trip.getTripId(), trip.getDriverId(), trip.getPassengerId(), trip.getCompletedAt());
+    }
+
+    // Cada entrada vive hasta completedAt + ventana de rating
+    private class RatingWindowExpiry implements Expiry<UUID, TripCompletedEvent> {
+
+        @Override
+        public long expireAfterCreate(UUID tripId, TripCompletedEvent event, long currentTime) {
+            Duration remaining = Duration.between(LocalDateTime.now(), event.getCompletedAt().plus(ratingWindow));
+            return Math.max(0, remaining.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(UUID tripId, TripCompletedEvent event, long currentTime, long currentDuration) {
+            return expireAfterCreate(tripId, event, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(UUID tripId, TripCompletedEvent event, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-}
\ No newline at end of file
+}
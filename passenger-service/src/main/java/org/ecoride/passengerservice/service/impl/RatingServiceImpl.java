@@ -19,7 +19,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -78,7 +77,7 @@ public class RatingServiceImpl implements RatingService {
         log.info("Rating saved successfully: id={}, score={}", savedRating.getId(), savedRating.getScore());
 
         // Actualizar el promedio de rating
-        updatePassengerRatingAverage(toPassenger.getId());
+        updatePassengerRatingAverage(toPassenger.getId(), savedRating.getScore());
 
         // Emitir evento PassengerRated
         PassengerRatedEvent event = PassengerRatedEvent.builder()
@@ -98,28 +97,12 @@ public class RatingServiceImpl implements RatingService {
 
     /**
      * Actualiza el promedio de calificación de un pasajero
-     * Calcula el promedio de todas las calificaciones recibidas
+     * Suma la nueva calificación a rating_count/rating_sum en SQL y deriva el promedio
      */
-    private void updatePassengerRatingAverage(UUID passengerId) {
-        List<Rating> ratings = ratingRepository.findAllByToPassengerId(passengerId);
-
-        if (!ratings.isEmpty()) {
-            double avg = ratings.stream()
-                    .mapToInt(Rating::getScore)
-                    .average()
-                    .orElse(0.0);
-
-            // Redondear a 2 decimales
-            avg = Math.round(avg * 100.0) / 100.0;
-
-            Passenger passenger = passengerRepository.findById(passengerId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Passenger not found"));
-
-            passenger.setRatingAvg(avg);
-            passengerRepository.save(passenger);
-
-            log.info("Updated rating average for passenger {}: {} (from {} ratings)",
-                    passengerId, avg, ratings.size());
+    private void updatePassengerRatingAverage(UUID passengerId, int score) {
+        if (passengerRepository.applyRating(passengerId, score) == 0) {
+            throw new ResourceNotFoundException("Passenger not found");
         }
+        log.info("Updated rating aggregates for passenger {} with score {}", passengerId, score);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,19 @@
+-- Agregados de calificación: rating_avg se deriva en O(1) de rating_count y rating_sum
+ALTER TABLE passenger
+    ADD COLUMN IF NOT EXISTS rating_count INTEGER NOT NULL DEFAULT 0 CHECK (rating_count >= 0),
+    ADD COLUMN IF NOT EXISTS rating_sum BIGINT NOT NULL DEFAULT 0 CHECK (rating_sum >= 0);
+
+-- Backfill de las calificaciones existentes en una sola pasada
+UPDATE passenger p
+SET rating_count = agg.total,
+    rating_sum = agg.score_sum,
+    rating_avg = ROUND(agg.score_sum::numeric / agg.total, 2)
+FROM (
+    SELECT to_id, COUNT(*) AS total, SUM(score) AS score_sum
+    FROM rating
+    GROUP BY to_id
+) agg
+WHERE p.id = agg.to_id;
+
+COMMENT ON COLUMN passenger.rating_count IS 'Número de calificaciones recibidas';
+COMMENT ON COLUMN passenger.rating_sum IS 'Suma de las calificaciones recibidas';
@@ -0,0 +1,14 @@
+-- Tabla: ratable_trip(trip_id, driver_id, passenger_id, completed_at, expires_at)
+-- Viajes completados que aún se pueden calificar; sobrevive a reinicios y se comparte entre réplicas
+CREATE TABLE IF NOT EXISTS ratable_trip (
+    trip_id UUID PRIMARY KEY,
+    driver_id UUID,
+    passenger_id UUID,
+    completed_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_ratable_trip_expires_at ON ratable_trip(expires_at);
+
+COMMENT ON TABLE ratable_trip IS 'Viajes completados dentro de la ventana de calificación';
+COMMENT ON COLUMN ratable_trip.expires_at IS 'Fin de la ventana de calificación (completed_at + ventana)';
@@ -0,0 +1,178 @@
+package org.ecoride.passengerservice.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba los agregados de calificación (rating_count, rating_sum, rating_avg) contra
+ * PostgreSQL: que los incrementos atómicos de {@link PassengerRepository#applyRating}
+ * no pierden calificaciones bajo concurrencia y que el backfill de V4 coincide con la
+ * tabla rating que ya existía.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false",
+        "spring.kafka.listener.auto-startup=false"
+})
+class PassengerRatingAggregatesTest {
+
+    private static final String BACKFILL_SCHEMA = "backfill";
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private PassengerRepository passengerRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void concurrentRatingsKeepCountSumAndAverageConsistent() throws Exception {
+        UUID passengerId = insertPassenger("passenger");
+        int ratings = 200;
+        int threads = 16;
+        int expectedSum = 0;
+        for (int i = 0; i < ratings; i++) {
+            expectedSum += scoreFor(i);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < ratings; i++) {
+                int score = scoreFor(i);
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return transactionTemplate.execute(status -> passengerRepository.applyRating(passengerId, score));
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> result : results) {
+                assertThat(result.get()).isEqualTo(1);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT rating_count, rating_sum, rating_avg FROM passenger WHERE id = ?", passengerId);
+        assertThat(((Number) row.get("rating_count")).intValue()).isEqualTo(ratings);
+        assertThat(((Number) row.get("rating_sum")).longValue()).isEqualTo(expectedSum);
+        assertThat((BigDecimal) row.get("rating_avg")).isEqualByComparingTo(average(expectedSum, ratings));
+    }
+
+    @Test
+    void backfillMatchesExistingRatings() {
+        // Esquema aparte para aplicar V4 sobre datos cargados con el esquema de V3
+        migrateBackfillSchemaTo("3");
+        String passenger = BACKFILL_SCHEMA + ".passenger";
+        String rating = BACKFILL_SCHEMA + ".rating";
+
+        UUID driver = insertPassenger(passenger, "driver");
+        UUID rider = insertPassenger(passenger, "rider");
+        UUID unrated = insertPassenger(passenger, "unrated");
+        List<UUID> raters = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            raters.add(insertPassenger(passenger, "rater-" + i));
+        }
+
+        int driverSum = 0;
+        for (int i = 0; i < raters.size(); i++) {
+            int score = scoreFor(i);
+            insertRating(rating, raters.get(i), driver, score);
+            driverSum += score;
+        }
+        insertRating(rating, driver, rider, 4);
+        insertRating(rating, raters.get(0), rider, 3);
+
+        migrateBackfillSchemaTo("4");
+
+        assertAggregates(passenger, driver, raters.size(), driverSum);
+        assertAggregates(passenger, rider, 2, 7);
+        assertAggregates(passenger, unrated, 0, 0);
+        for (UUID rater : raters) {
+            assertAggregates(passenger, rater, 0, 0);
+        }
+    }
+
+    private void migrateBackfillSchemaTo(String version) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .schemas(BACKFILL_SCHEMA)
+                .target(version)
+                .load()
+                .migrate();
+    }
+
+    private void assertAggregates(String table, UUID passengerId, int count, int sum) {
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT rating_count, rating_sum, rating_avg FROM " + table + " WHERE id = ?", passengerId);
+        assertThat(((Number) row.get("rating_count")).intValue()).isEqualTo(count);
+        assertThat(((Number) row.get("rating_sum")).longValue()).isEqualTo(sum);
+        BigDecimal expectedAvg = count == 0 ? BigDecimal.ZERO : average(sum, count);
+        assertThat((BigDecimal) row.get("rating_avg")).isEqualByComparingTo(expectedAvg);
+    }
+
+    private UUID insertPassenger(String name) {
+        return insertPassenger("passenger", name);
+    }
+
+    private UUID insertPassenger(String table, String name) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO " + table + " (id, keycloak_sub, name, email) VALUES (?, ?, ?, ?)",
+                id, id.toString(), name, id + "@ecoride.test");
+        return id;
+    }
+
+    private void insertRating(String table, UUID fromId, UUID toId, int score) {
+        jdbcTemplate.update("INSERT INTO " + table + " (trip_id, from_id, to_id, score) VALUES (?, ?, ?, ?)",
+                UUID.randomUUID(), fromId, toId, score);
+    }
+
+    private static int scoreFor(int i) {
+        return i % 5 + 1;
+    }
+
+    private static BigDecimal average(long sum, int count) {
+        return BigDecimal.valueOf(sum).divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,63 @@
+package org.ecoride.passengerservice.service;
+
+import org.ecoride.passengerservice.event.TripCompletedEvent;
+import org.ecoride.passengerservice.model.entity.RatableTrip;
+import org.ecoride.passengerservice.repository.RatableTripRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TripTrackingServiceTest {
+
+    private final RatableTripRepository repository = mock(RatableTripRepository.class);
+    private final TripTrackingService service = new TripTrackingService(repository, Duration.ofDays(7), 1_000, 100);
+
+    @Test
+    void completedTripIsPersistedAndServedFromCache() {
+        UUID tripId = UUID.randomUUID();
+
+        service.markTripAsRatable(new TripCompletedEvent(tripId, UUID.randomUUID(), UUID.randomUUID(), LocalDateTime.now()));
+
+        verify(repository).insertIfAbsent(eq(tripId), any(), any(), any(), any());
+        assertThat(service.isTripRatable(tripId)).isTrue();
+        verify(repository, never()).findByTripIdAndExpiresAtAfter(any(), any());
+    }
+
+    @Test
+    void cacheMissFallsBackToTableOnce() {
+        UUID tripId = UUID.randomUUID();
+        LocalDateTime completedAt = LocalDateTime.now().minusDays(1);
+        when(repository.findByTripIdAndExpiresAtAfter(eq(tripId), any())).thenReturn(Optional.of(RatableTrip.builder()
+                .tripId(tripId)
+                .completedAt(completedAt)
+                .expiresAt(completedAt.plusDays(7))
+                .build()));
+
+        assertThat(service.isTripRatable(tripId)).isTrue();
+        assertThat(service.isTripRatable(tripId)).isTrue();
+
+        verify(repository, times(1)).findByTripIdAndExpiresAtAfter(eq(tripId), any());
+    }
+
+    @Test
+    void tripOutsideRatingWindowIsNotRatable() {
+        UUID tripId = UUID.randomUUID();
+
+        service.markTripAsRatable(new TripCompletedEvent(tripId, null, null, LocalDateTime.now().minusDays(8)));
+
+        verify(repository, never()).insertIfAbsent(any(), any(), any(), any(), any());
+        assertThat(service.isTripRatable(tripId)).isFalse();
+    }
+}
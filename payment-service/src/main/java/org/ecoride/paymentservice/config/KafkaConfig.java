@@ -0,0 +1,152 @@
+package org.ecoride.paymentservice.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.ecoride.events.kafka.DeadLetterReplayer;
+import org.ecoride.events.kafka.RetryTopics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
+
+import java.time.Duration;
+import java.util.Set;
+
+@Configuration
+public class KafkaConfig {
+
+    /**
+     * Sufijo de los topics de reintento de payment-service; constante porque la usan los
+     * @KafkaListener de los topics de reintento.
+     */
+    public static final String RETRY_SUFFIX = "-payment-retry";
+
+    /**
+     * Topics cuyos eventos fallidos reintenta payment-service (ver {@link RetryTopics}).
+     */
+    public static final Set<String> RETRIED_TOPICS = Set.of("reservation-requested", "payment-void-requested");
+
+    @Value("${spring.kafka.listener.concurrency:1}")
+    private int listenerConcurrency;
+
+    @Value("${payment.kafka.topic-partitions:6}")
+    private int topicPartitions;
+
+    @Value("${payment.kafka.retry.attempts:4}")
+    private int retryAttempts;
+
+    @Value("${payment.kafka.retry.initial-interval-ms:1000}")
+    private long retryInitialIntervalMs;
+
+    @Value("${payment.kafka.retry.multiplier:4}")
+    private double retryMultiplier;
+
+    @Value("${payment.kafka.retry.max-interval-ms:60000}")
+    private long retryMaxIntervalMs;
+
+    /**
+     * Entrega a los listeners todos los registros de un poll (hasta max-poll-records)
+     * para procesarlos en una sola transacción.
+     * <p>
+     * En modo exactly-once cada lote corre además dentro de una transacción Kafka: los
+     * resultados publicados y los offsets del poll se confirman juntos, y un consumidor
+     * zombi (sin la generación actual del grupo) no puede hacer commit.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> batchKafkaListenerContainerFactory(
+            ConsumerFactory<String, Object> consumerFactory,
+            ObjectProvider<KafkaTransactionManager<String, Object>> kafkaTransactionManager) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        // Los eventos van con clave reservationId: el orden por reserva se mantiene con varios hilos
+        factory.setConcurrency(listenerConcurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        kafkaTransactionManager.ifAvailable(
+                transactionManager -> factory.getContainerProperties().setKafkaAwareTransactionManager(transactionManager));
+        return factory;
+    }
+
+    /**
+     * Contenedores registro a registro para los topics de reintento y para
+     * payment-void-requested: cada fallo mueve solo ese registro al siguiente topic
+     * -backoff-N. Los listeners de anulaciones devuelven un CompletableFuture, y para
+     * ellos spring-kafka pasa a acks manuales asíncronos. No son transaccionales; los
+     * resultados repetidos se publican en su propia transacción (PaymentResultPublisher).
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> retryKafkaListenerContainerFactory(
+            ConsumerFactory<String, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.RECORD);
+        return factory;
+    }
+
+    /**
+     * Reintentos no bloqueantes de los topics de RETRIED_TOPICS: p. ej.
+     * reservation-requested-payment-retry, luego -backoff-0..N con espera exponencial y al final -dlt (ver {@link RetryTopics}).
+     * Si el propio DLT falla se registra y se sigue, para no crear un bucle.
+     */
+    @Bean
+    public RetryTopicConfiguration reservationRetryTopics(
+            RetryTopics retryTopics,
+            @Qualifier("retryKafkaListenerContainerFactory")
+            ConcurrentKafkaListenerContainerFactory<String, Object> retryKafkaListenerContainerFactory) {
+        return RetryTopicConfigurationBuilder.newInstance()
+                .includeTopics(retryTopics.retryTopics())
+                .maxAttempts(retryAttempts)
+                .exponentialBackoff(retryInitialIntervalMs, retryMultiplier, retryMaxIntervalMs)
+                .retryTopicSuffix(RetryTopics.BACKOFF_SUFFIX)
+                .dltSuffix(RetryTopics.DLT_SUFFIX)
+                .autoCreateTopicsWith(topicPartitions, (short) -1)
+                .listenerFactory(retryKafkaListenerContainerFactory)
+                .dltHandlerMethod("reservationRetryListener", "handleDeadLetter")
+                .doNotRetryOnDltFailure()
+                .create(retryTopics.template());
+    }
+
+    /**
+     * Reenvío de los listeners principales a los topics de reintento y template de la
+     * cadena -backoff-N / -dlt.
+     */
+    @Bean
+    public RetryTopics retryTopics(ProducerFactory<?, ?> producerFactory,
+                                   @Value("${payment.kafka.send-timeout-ms:10000}") long sendTimeoutMs) {
+        return new RetryTopics(RETRY_SUFFIX, RETRIED_TOPICS, producerFactory, Duration.ofMillis(sendTimeoutMs));
+    }
+
+    /**
+     * Reenvío en bloque de los DLT de payment-service (DeadLetterController).
+     */
+    @Bean
+    public DeadLetterReplayer deadLetterReplayer(
+            @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+            @Value("${payment.kafka.send-timeout-ms:10000}") long sendTimeoutMs) {
+        return DeadLetterReplayer.create(bootstrapServers, "payment-service-dlt-replay",
+                Duration.ofMillis(sendTimeoutMs));
+    }
+
+    // Mismo número de particiones que los tópicos de reserva: la clave reservationId
+    // cae en la misma partición a lo largo de toda la saga
+
+    @Bean
+    public NewTopic paymentAuthorizedTopic() {
+        return TopicBuilder.name("payment-authorized").partitions(topicPartitions).build();
+    }
+
+    @Bean
+    public NewTopic paymentFailedTopic() {
+        return TopicBuilder.name("payment-failed").partitions(topicPartitions).build();
+    }
+}
@@ -0,0 +1,30 @@
+package org.ecoride.paymentservice.config;
+
+import org.ecoride.paymentservice.model.enums.Providers;
+import org.ecoride.paymentservice.provider.StubPaymentProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+@Configuration
+public class PaymentProviderConfig {
+
+    /**
+     * MOCK_BANK es la pasarela simulada; las reales se registran como beans PaymentProvider
+     * y se activan añadiéndolas a payment.provider.order.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "payment.provider.stub.enabled", havingValue = "true", matchIfMissing = true)
+    public StubPaymentProvider mockBankProvider(
+            @Value("${payment.provider.stub.latency-distribution:LOG_NORMAL}") StubPaymentProvider.LatencyDistribution distribution,
+            @Value("${payment.provider.stub.latency-median:80ms}") Duration median,
+            @Value("${payment.provider.stub.latency-p99:400ms}") Duration p99,
+            @Value("${payment.provider.stub.error-rate:0.0}") double errorRate,
+            @Value("${payment.provider.stub.decline-above:100000}") BigDecimal declineAbove) {
+        return new StubPaymentProvider(Providers.MOCK_BANK, distribution, median, p99, errorRate, declineAbove);
+    }
+}
@@ -0,0 +1,36 @@
+package org.ecoride.paymentservice.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+@Configuration
+public class TransactionConfig {
+
+    /**
+     * Se declara a mano porque con el KafkaTransactionManager en el contexto Spring Boot
+     * ya no crea el de JPA. Es el que usan los @Transactional sin calificar.
+     */
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+
+    /**
+     * Solo en modo exactly-once (spring.kafka.producer.transaction-id-prefix definido):
+     * lo usan los contenedores de listeners para abrir una transacción Kafka por lote
+     * y enviar en ella los offsets consumidos.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "spring.kafka.producer.transaction-id-prefix")
+    public KafkaTransactionManager<String, Object> kafkaTransactionManager(
+            ProducerFactory<String, Object> producerFactory) {
+        return new KafkaTransactionManager<>(producerFactory);
+    }
+}
@@ -0,0 +1,26 @@
+package org.ecoride.paymentservice.controller;
+
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.ecoride.events.kafka.AbstractDeadLetterController;
+import org.ecoride.events.kafka.DeadLetterReplayer;
+import org.ecoride.events.kafka.RetryTopics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Administración de los DLT de payment-service (ver {@link AbstractDeadLetterController}).
+ * Exige la cabecera X-Admin-Token con payment.kafka.retry.admin-token.
+ */
+@RestController
+@RequestMapping("/admin/dead-letters")
+@Tag(name = "Dead letters", description = "Replay of exhausted saga events")
+public class DeadLetterController extends AbstractDeadLetterController {
+
+    public DeadLetterController(RetryTopics retryTopics,
+                                DeadLetterReplayer deadLetterReplayer,
+                                @Value("${payment.kafka.retry.max-replay:10000}") int maxReplay,
+                                @Value("${payment.kafka.retry.admin-token:}") String adminToken) {
+        super(retryTopics, deadLetterReplayer, maxReplay, adminToken);
+    }
+}
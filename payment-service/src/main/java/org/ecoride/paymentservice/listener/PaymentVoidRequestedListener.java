@@ -0,0 +1,53 @@
+package org.ecoride.paymentservice.listener;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.ecoride.events.ReservationEvents;
+import org.ecoride.events.kafka.RetryTopics;
+import org.ecoride.paymentservice.service.PaymentVoider;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Consume payment-void-requested, que trip-service emite cuando llega un pago
+ * autorizado para una reserva ya cancelada. El listener no espera a la pasarela:
+ * devuelve el future de la anulación y el contenedor confirma el offset cuando se
+ * completa (acks asíncronos, los activa spring-kafka al ver el tipo de retorno). Si la
+ * anulación falla (pasarela caída, lenta o saturada) el evento se reenvía a su topic
+ * de reintento ({@link RetryTopics}) sin frenar la partición.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentVoidRequestedListener {
+
+    private static final String TOPIC_PAYMENT_VOID_REQUESTED = "payment-void-requested";
+
+    private final PaymentVoider paymentVoider;
+    private final RetryTopics retryTopics;
+
+    @KafkaListener(
+            topics = TOPIC_PAYMENT_VOID_REQUESTED,
+            groupId = "payment-service-group",
+            containerFactory = "retryKafkaListenerContainerFactory"
+    )
+    public CompletableFuture<Void> handlePaymentVoidRequested(
+            @Payload(required = false) ReservationEvents.PaymentVoidRequested event) {
+        if (event == null) {
+            log.error("Evento PaymentVoidRequested inválido, se descarta");
+            return CompletableFuture.completedFuture(null);
+        }
+        log.info("[{}] Recibido PaymentVoidRequested de la reserva {}",
+                event.getCorrelationId(), event.getReservationId());
+
+        return paymentVoider.voidPayment(event).exceptionally(error -> {
+            log.error("[{}] Error anulando el pago de la reserva {}: {}",
+                    event.getCorrelationId(), event.getReservationId(), error.getMessage(), error);
+            retryTopics.forward(TOPIC_PAYMENT_VOID_REQUESTED, event.getReservationId().toString(), event);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,83 @@
+package org.ecoride.paymentservice.listener;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.ecoride.events.ReservationEvents;
+import org.ecoride.events.kafka.RetryTopics;
+import org.ecoride.paymentservice.service.PaymentAuthorizer;
+import org.ecoride.paymentservice.service.PaymentResultPublisher;
+import org.ecoride.paymentservice.service.PaymentService;
+import org.ecoride.paymentservice.service.RegisteredPayments;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Consume reservation-requested por lotes: el poll completo se registra en una
+ * transacción, las autorizaciones se lanzan después del commit sin esperar a las
+ * pasarelas y el offset se confirma en cuanto el lote está registrado. Si algo falla
+ * antes, el lote se reentrega y PaymentService lo reconoce como ya registrado sin
+ * cobrar dos veces. Si el lote completo falla se reprocesa registro a registro y los
+ * que vuelven a fallar se reenvían a su topic de reintento ({@link RetryTopics}), de
+ * modo que un mensaje problemático no bloquea la partición. Los registros que no se
+ * pudieron decodificar llegan como null (ErrorHandlingDeserializer) y se descartan.
+ * <p>
+ * En modo exactly-once el método corre dentro de la transacción Kafka del contenedor:
+ * los resultados repetidos y los offsets del poll se confirman juntos, justo después
+ * del commit de base de datos de registerPayments.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReservationRequestedListener {
+
+    private static final String TOPIC_RESERVATION_REQUESTED = "reservation-requested";
+
+    private final PaymentService paymentService;
+    private final PaymentAuthorizer paymentAuthorizer;
+    private final PaymentResultPublisher paymentResultPublisher;
+    private final RetryTopics retryTopics;
+
+    @KafkaListener(
+            topics = TOPIC_RESERVATION_REQUESTED,
+            groupId = "payment-service-group",
+            containerFactory = "batchKafkaListenerContainerFactory"
+    )
+    public void handleReservationRequested(
+            @Payload List<ReservationEvents.ReservationRequested> polled,
+            Acknowledgment acknowledgment) {
+
+        List<ReservationEvents.ReservationRequested> events = polled.stream().filter(Objects::nonNull).toList();
+        if (events.size() < polled.size()) {
+            log.error("{} eventos ReservationRequested inválidos en el lote, se descartan", polled.size() - events.size());
+        }
+        log.info("Recibido lote de {} eventos ReservationRequested", events.size());
+
+        try {
+            process(events);
+        } catch (Exception e) {
+            log.error("Falló el lote ReservationRequested, reprocesando uno a uno: {}", e.getMessage(), e);
+            for (ReservationEvents.ReservationRequested event : events) {
+                try {
+                    process(List.of(event));
+                } catch (Exception recordError) {
+                    log.error("[{}] Error procesando evento ReservationRequested: {}",
+                            event.getCorrelationId(), recordError.getMessage(), recordError);
+                    retryTopics.forward(TOPIC_RESERVATION_REQUESTED, event.getReservationId().toString(), event);
+                }
+            }
+        }
+
+        acknowledgment.acknowledge();
+    }
+
+    private void process(List<ReservationEvents.ReservationRequested> events) {
+        RegisteredPayments registered = paymentService.registerPayments(events);
+        paymentAuthorizer.submit(registered.accepted());
+        paymentResultPublisher.publishAll(registered.replayed());
+    }
+}
@@ -0,0 +1,74 @@
+package org.ecoride.paymentservice.listener;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.ecoride.events.ReservationEvents;
+import org.ecoride.paymentservice.config.KafkaConfig;
+import org.ecoride.paymentservice.service.PaymentAuthorizer;
+import org.ecoride.paymentservice.service.PaymentResultPublisher;
+import org.ecoride.paymentservice.service.PaymentService;
+import org.ecoride.paymentservice.service.PaymentVoider;
+import org.ecoride.paymentservice.service.RegisteredPayments;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reintenta uno a uno los ReservationRequested que {@link ReservationRequestedListener}
+ * no pudo registrar y los PaymentVoidRequested que {@link PaymentVoidRequestedListener}
+ * no pudo anular. Si el reintento lanza, el registro pasa al siguiente topic
+ * -backoff-N (ver KafkaConfig#reservationRetryTopics) y, agotados los intentos, al DLT.
+ * registerPayments es idempotente por reservation_id: reintentar no cobra dos veces;
+ * anular también lo es, porque solo se anula un intento que sigue AUTHORIZED.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReservationRetryListener {
+
+    private final PaymentService paymentService;
+    private final PaymentAuthorizer paymentAuthorizer;
+    private final PaymentResultPublisher paymentResultPublisher;
+    private final PaymentVoider paymentVoider;
+
+    @KafkaListener(
+            topics = "reservation-requested" + KafkaConfig.RETRY_SUFFIX,
+            groupId = "payment-service-group",
+            containerFactory = "retryKafkaListenerContainerFactory"
+    )
+    public void retryReservationRequested(@Payload ReservationEvents.ReservationRequested event) {
+        log.info("[{}] Reintentando ReservationRequested de la reserva {}",
+                event.getCorrelationId(), event.getReservationId());
+        RegisteredPayments registered = paymentService.registerPayments(List.of(event));
+        paymentAuthorizer.submit(registered.accepted());
+        paymentResultPublisher.publishAll(registered.replayed());
+    }
+
+    @KafkaListener(
+            topics = "payment-void-requested" + KafkaConfig.RETRY_SUFFIX,
+            groupId = "payment-service-group",
+            containerFactory = "retryKafkaListenerContainerFactory"
+    )
+    /**
+     * Devuelve el future sin esperar a la pasarela; si falla, el contenedor mueve el
+     * registro al siguiente topic -backoff-N igual que si el método hubiera lanzado.
+     */
+    public CompletableFuture<Void> retryPaymentVoidRequested(@Payload ReservationEvents.PaymentVoidRequested event) {
+        log.info("[{}] Reintentando la anulación del pago de la reserva {}",
+                event.getCorrelationId(), event.getReservationId());
+        return paymentVoider.voidPayment(event);
+    }
+
+    /**
+     * Destino final tras agotar los reintentos; el registro queda en el DLT para
+     * reenviarlo con POST /admin/dead-letters/{topic}/replay.
+     */
+    public void handleDeadLetter(@Payload Object event, @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
+        log.error("Evento agotó sus reintentos y quedó en {}: {}", topic, event);
+    }
+}
@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.ecoride.paymentservice.model.enums.PaymentStatus;
+import org.ecoride.paymentservice.model.enums.Providers;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -27,9 +28,21 @@ public class PaymentIntent {
     @Column(name = "reservation_id", nullable = false, unique = true)
     private UUID reservationId;
 
+    // Para volver a publicar el resultado de un intento que quedó sin respuesta
+    @Column(name = "passenger_id")
+    private UUID passengerId;
+
+    @Column(name = "correlation_id")
+    private String correlationId;
+
     @Column(name = "amount", nullable = false)
     private BigDecimal amount;
 
+    // Única pasarela a la que se pide autorizar el intento, también al reanudarlo
+    @Enumerated(EnumType.STRING)
+    @Column(name = "provider")
+    private Providers provider;
+
     @Column(name="currency", nullable = false)
     private String currency="COP";
 
@@ -37,6 +50,14 @@ public class PaymentIntent {
     @Column(name = "status", nullable = false  )
     private PaymentStatus status;
 
+    // Motivo publicado en payment-failed, para repetir el mismo resultado
+    @Column(name = "failure_reason")
+    private String failureReason;
+
+    // null mientras el resultado guardado no se ha confirmado en Kafka
+    @Column(name = "result_published_at")
+    private LocalDateTime resultPublishedAt;
+
     @CreationTimestamp
     @Column(name = "created_at")
     private LocalDateTime createdAt;
@@ -0,0 +1,18 @@
+package org.ecoride.paymentservice.provider;
+
+import org.ecoride.paymentservice.model.enums.Providers;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Petición de autorización a una pasarela; paymentIntentId es la clave de idempotencia.
+ * provider es la pasarela fijada al registrar el intento (null: la primera con hueco).
+ */
+public record AuthorizationRequest(
+        UUID paymentIntentId,
+        UUID reservationId,
+        BigDecimal amount,
+        String currency,
+        Providers provider) {
+}
@@ -0,0 +1,145 @@
+package org.ecoride.paymentservice.provider;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Limita las llamadas en curso a una pasarela sin bloquear hilos: las que no caben
+ * esperan en una cola acotada y arrancan cuando termina otra. Cuando la cola también
+ * está llena la llamada se rechaza.
+ * <p>
+ * Las llamadas encoladas se arrancan en bucle, no por recursión: una pasarela que
+ * falla en el acto (failedFuture) libera su permiso dentro de la propia llamada, y con
+ * miles de llamadas en cola eso encadenaría release -> drain -> start hasta desbordar
+ * la pila. Solo drena un hilo a la vez; el resto deja la petición y vuelve.
+ */
+class Bulkhead {
+
+    private final int maxConcurrentCalls;
+    private final int queueCapacity;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+
+    Bulkhead(int maxConcurrentCalls, int queueCapacity) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.queueCapacity = queueCapacity;
+    }
+
+    int active() {
+        return active.get();
+    }
+
+    int queued() {
+        return queued.get();
+    }
+
+    boolean hasCapacity() {
+        return active.get() < maxConcurrentCalls || queued.get() < queueCapacity;
+    }
+
+    /**
+     * Llamadas que caben ahora mismo, en curso más en cola.
+     */
+    int free() {
+        return Math.max(0, maxConcurrentCalls - active.get()) + Math.max(0, queueCapacity - queued.get());
+    }
+
+    /**
+     * Arranca la llamada si hay hueco o la encola.
+     *
+     * @return null si el bulkhead y la cola están llenos
+     */
+    <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable task = () -> start(call, result);
+        if (tryAcquire()) {
+            task.run();
+            return result;
+        }
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            return null;
+        }
+        waiting.add(task);
+        // Puede que una llamada haya terminado entre el tryAcquire y el add
+        drain();
+        return result;
+    }
+
+    /**
+     * Arranca la llamada solo si hay un permiso libre en este momento, sin encolarla.
+     *
+     * @return null si no hay permisos libres
+     */
+    <T> CompletableFuture<T> submitIfIdle(Supplier<CompletableFuture<T>> call) {
+        if (!tryAcquire()) {
+            return null;
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        start(call, result);
+        return result;
+    }
+
+    private <T> void start(Supplier<CompletableFuture<T>> call, CompletableFuture<T> result) {
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            release();
+            result.completeExceptionally(e);
+            return;
+        }
+        future.whenComplete((value, error) -> {
+            release();
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        });
+    }
+
+    private boolean tryAcquire() {
+        int current;
+        do {
+            current = active.get();
+            if (current >= maxConcurrentCalls) {
+                return false;
+            }
+        } while (!active.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void release() {
+        active.decrementAndGet();
+        drain();
+    }
+
+    private void drain() {
+        drainRequested.set(true);
+        // Si otro hilo (o esta misma pila, más arriba) está drenando, verá la petición al terminar
+        while (drainRequested.get() && draining.compareAndSet(false, true)) {
+            try {
+                drainRequested.set(false);
+                while (!waiting.isEmpty() && tryAcquire()) {
+                    Runnable task = waiting.poll();
+                    if (task == null) {
+                        active.decrementAndGet();
+                        break;
+                    }
+                    queued.decrementAndGet();
+                    task.run();
+                }
+            } finally {
+                draining.set(false);
+            }
+        }
+    }
+}
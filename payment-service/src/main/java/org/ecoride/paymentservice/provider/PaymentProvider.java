@@ -0,0 +1,28 @@
+package org.ecoride.paymentservice.provider;
+
+import org.ecoride.paymentservice.model.enums.Providers;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Pasarela de pagos externa. Las implementaciones deben ser no bloqueantes (devolver
+ * el future sin esperar a la respuesta) e idempotentes por
+ * {@link AuthorizationRequest#paymentIntentId()}: el gateway puede repetir una
+ * autorización (hedging o recuperación de intentos colgados) y la pasarela debe
+ * devolver el mismo resultado sin cobrar dos veces. Lo mismo vale para
+ * {@link #voidAuthorization}: anular otra vez una autorización ya anulada no falla.
+ */
+public interface PaymentProvider {
+
+    Providers id();
+
+    CompletableFuture<ProviderResponse> authorize(AuthorizationRequest request);
+
+    /**
+     * Anula una autorización que no se llegó a capturar y libera el importe retenido.
+     *
+     * @param providerRef referencia que devolvió la pasarela al autorizar
+     */
+    CompletableFuture<Void> voidAuthorization(UUID paymentIntentId, String providerRef);
+}
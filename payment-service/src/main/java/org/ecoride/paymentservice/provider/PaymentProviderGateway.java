@@ -0,0 +1,233 @@
+package org.ecoride.paymentservice.provider;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.ecoride.paymentservice.model.enums.Providers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Punto único de acceso a las pasarelas de pago. Cada pasarela tiene su propio
+ * bulkhead (llamadas en curso + cola acotada), así que una pasarela lenta solo
+ * retiene sus propias llamadas: {@link #assign} reparte los intentos nuevos según el
+ * hueco de cada una, en el orden de payment.provider.order.
+ * <p>
+ * La pasarela asignada se guarda con el intento y es la única a la que se le pide
+ * autorizarlo, también al reanudarlo o recuperarlo: la idempotencia por intento es
+ * de cada pasarela, y probar con otra podría cobrar el mismo intento dos veces.
+ * <p>
+ * Cada intento tiene un timeout. Con payment.provider.hedge-after &gt; 0, si la
+ * pasarela no respondió pasado ese tiempo se lanza una segunda petición idéntica a
+ * la misma pasarela (misma clave de idempotencia, nunca a otra: eso sí cobraría dos
+ * veces) y gana la primera respuesta. El hedge solo sale si hay un permiso libre,
+ * para no cargar más a una pasarela que ya va lenta.
+ */
+@Component
+public class PaymentProviderGateway {
+
+    private final Map<Providers, PaymentProvider> providers = new EnumMap<>(Providers.class);
+    private final Map<Providers, Bulkhead> bulkheads = new EnumMap<>(Providers.class);
+    private final Map<Providers, Bulkhead> voidBulkheads = new EnumMap<>(Providers.class);
+    private final List<Providers> order;
+    private final Duration timeout;
+    private final Duration hedgeAfter;
+    private final MeterRegistry meterRegistry;
+    private final Counter hedges;
+
+    public PaymentProviderGateway(List<PaymentProvider> providers,
+                                  @Value("${payment.provider.order:MOCK_BANK}") List<Providers> order,
+                                  @Value("${payment.provider.max-concurrent-calls:200}") int maxConcurrentCalls,
+                                  @Value("${payment.provider.queue-capacity:5000}") int queueCapacity,
+                                  @Value("${payment.provider.timeout:3s}") Duration timeout,
+                                  @Value("${payment.provider.hedge-after:0ms}") Duration hedgeAfter,
+                                  @Value("${payment.provider.void.max-concurrent-calls:10}") int maxConcurrentVoids,
+                                  @Value("${payment.provider.void.queue-capacity:1000}") int voidQueueCapacity,
+                                  MeterRegistry meterRegistry) {
+        for (PaymentProvider provider : providers) {
+            this.providers.put(provider.id(), provider);
+        }
+        for (Providers id : order) {
+            if (!this.providers.containsKey(id)) {
+                throw new IllegalStateException("No hay implementación de PaymentProvider para " + id);
+            }
+            Bulkhead bulkhead = new Bulkhead(maxConcurrentCalls, queueCapacity);
+            bulkheads.put(id, bulkhead);
+            Gauge.builder("payment.provider.active", bulkhead, Bulkhead::active)
+                    .tag("provider", id.name())
+                    .register(meterRegistry);
+            Gauge.builder("payment.provider.queued", bulkhead, Bulkhead::queued)
+                    .tag("provider", id.name())
+                    .register(meterRegistry);
+            voidBulkheads.put(id, new Bulkhead(maxConcurrentVoids, voidQueueCapacity));
+        }
+        this.order = List.copyOf(order);
+        this.timeout = timeout;
+        this.hedgeAfter = hedgeAfter;
+        this.meterRegistry = meterRegistry;
+        this.hedges = Counter.builder("payment.provider.hedges").register(meterRegistry);
+    }
+
+    /**
+     * Pasarela para cada uno de count intentos nuevos: se llena el hueco libre de cada
+     * pasarela en orden de preferencia y lo que no cabe en ninguna va a la primera,
+     * donde se rechazará como saturada.
+     */
+    public List<Providers> assign(int count) {
+        List<Providers> assigned = new ArrayList<>(count);
+        for (Providers id : order) {
+            int free = bulkheads.get(id).free();
+            for (int i = 0; i < free && assigned.size() < count; i++) {
+                assigned.add(id);
+            }
+        }
+        while (assigned.size() < count) {
+            assigned.add(order.get(0));
+        }
+        return assigned;
+    }
+
+    /**
+     * Nunca bloquea: devuelve un future que se completa con la respuesta, con
+     * TimeoutException si la pasarela no contestó a tiempo, o con
+     * ProviderUnavailableException si la pasarela del intento no tenía hueco (o
+     * ninguna, si el intento no tenía pasarela asignada).
+     */
+    public CompletableFuture<ProviderResponse> authorize(AuthorizationRequest request) {
+        if (request.provider() != null) {
+            CompletableFuture<ProviderResponse> pinned = bulkheads.containsKey(request.provider())
+                    ? attempt(request.provider(), request)
+                    : null;
+            return pinned != null ? pinned : CompletableFuture.failedFuture(new ProviderUnavailableException(
+                    "La pasarela " + request.provider() + " del intento está saturada o no está configurada"));
+        }
+        for (Providers id : order) {
+            CompletableFuture<ProviderResponse> call = attempt(id, request);
+            if (call != null) {
+                return call;
+            }
+        }
+        return CompletableFuture.failedFuture(
+                new ProviderUnavailableException("Todas las pasarelas de pago están saturadas"));
+    }
+
+    /**
+     * Anula la autorización de un intento en la pasarela que la concedió, con el mismo
+     * timeout que las autorizaciones. Nunca bloquea. Las anulaciones tienen su propio
+     * bulkhead por pasarela (payment.provider.void.*), pequeño y aparte del de las
+     * autorizaciones: no esperan detrás de su cola, y una avalancha de anulaciones (p.
+     * ej. tras un atasco del barrido de reservas) no ocupa la pasarela sin límite. Sin
+     * hueco el future falla con ProviderUnavailableException.
+     */
+    public CompletableFuture<Void> voidAuthorization(Providers id, UUID paymentIntentId, String providerRef) {
+        Bulkhead bulkhead = voidBulkheads.get(id);
+        CompletableFuture<Void> call = bulkhead != null
+                ? bulkhead.submit(() -> timedVoid(id, paymentIntentId, providerRef))
+                : null;
+        return call != null ? call : CompletableFuture.failedFuture(new ProviderUnavailableException(
+                "Anulaciones de la pasarela " + id + " saturadas o pasarela no configurada"));
+    }
+
+    private CompletableFuture<Void> timedVoid(Providers id, UUID paymentIntentId, String providerRef) {
+        long start = System.nanoTime();
+        return providers.get(id).voidAuthorization(paymentIntentId, providerRef)
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((ignored, error) -> Timer.builder("payment.provider.voids")
+                        .tag("provider", id.name())
+                        .tag("outcome", error == null ? "voided" : outcome(null, error))
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * @return null si la pasarela no tiene hueco en el bulkhead ni en la cola
+     */
+    private CompletableFuture<ProviderResponse> attempt(Providers id, AuthorizationRequest request) {
+        Bulkhead bulkhead = bulkheads.get(id);
+        if (!bulkhead.hasCapacity()) {
+            return null;
+        }
+        Supplier<CompletableFuture<ProviderResponse>> call = () -> timedCall(id, request);
+        CompletableFuture<ProviderResponse> first = bulkhead.submit(call);
+        if (first == null) {
+            return null;
+        }
+        return hedgeAfter.isZero() ? first : hedged(first, bulkhead, call);
+    }
+
+    private CompletableFuture<ProviderResponse> hedged(CompletableFuture<ProviderResponse> first,
+                                                       Bulkhead bulkhead,
+                                                       Supplier<CompletableFuture<ProviderResponse>> call) {
+        CompletableFuture<ProviderResponse> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        // Gana la primera respuesta; solo se falla cuando fallaron todos los intentos
+        BiConsumer<ProviderResponse, Throwable> onAttempt = (response, error) -> {
+            if (error == null) {
+                result.complete(response);
+                return;
+            }
+            failure.compareAndSet(null, unwrap(error));
+            if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(failure.get());
+            }
+        };
+        first.whenComplete(onAttempt);
+
+        CompletableFuture.delayedExecutor(hedgeAfter.toMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            pending.incrementAndGet();
+            CompletableFuture<ProviderResponse> hedge = bulkhead.submitIfIdle(call);
+            if (hedge == null) {
+                if (pending.decrementAndGet() == 0) {
+                    result.completeExceptionally(failure.get());
+                }
+                return;
+            }
+            hedges.increment();
+            hedge.whenComplete(onAttempt);
+        });
+        return result;
+    }
+
+    private CompletableFuture<ProviderResponse> timedCall(Providers id, AuthorizationRequest request) {
+        long start = System.nanoTime();
+        return providers.get(id).authorize(request)
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((response, error) -> Timer.builder("payment.provider.calls")
+                        .tag("provider", id.name())
+                        .tag("outcome", outcome(response, error))
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    private static String outcome(ProviderResponse response, Throwable error) {
+        if (error != null) {
+            return unwrap(error) instanceof TimeoutException ? "timeout" : "error";
+        }
+        return response.approved() ? "approved" : "declined";
+    }
+
+    static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
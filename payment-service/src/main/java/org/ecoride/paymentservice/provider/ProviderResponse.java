@@ -0,0 +1,21 @@
+package org.ecoride.paymentservice.provider;
+
+import org.ecoride.paymentservice.model.enums.Providers;
+
+/**
+ * Respuesta de una pasarela: aprobada con su referencia, o rechazada con el motivo.
+ */
+public record ProviderResponse(
+        Providers provider,
+        boolean approved,
+        String providerRef,
+        String declineReason) {
+
+    public static ProviderResponse approved(Providers provider, String providerRef) {
+        return new ProviderResponse(provider, true, providerRef, null);
+    }
+
+    public static ProviderResponse declined(Providers provider, String reason) {
+        return new ProviderResponse(provider, false, null, reason);
+    }
+}
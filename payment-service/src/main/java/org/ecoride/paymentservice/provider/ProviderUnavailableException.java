@@ -0,0 +1,11 @@
+package org.ecoride.paymentservice.provider;
+
+/**
+ * Ninguna pasarela admitió la autorización: todas tienen el bulkhead y la cola llenos.
+ */
+public class ProviderUnavailableException extends RuntimeException {
+
+    public ProviderUnavailableException(String message) {
+        super(message);
+    }
+}
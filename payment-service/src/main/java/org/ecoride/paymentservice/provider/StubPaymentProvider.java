@@ -0,0 +1,98 @@
+package org.ecoride.paymentservice.provider;
+
+import org.ecoride.paymentservice.model.enums.Providers;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pasarela simulada para desarrollo y pruebas de carga. Responde tras una latencia
+ * aleatoria sin ocupar ningún hilo mientras tanto, rechaza los importes por encima
+ * de declineAbove y falla con probabilidad errorRate.
+ * <ul>
+ *   <li>FIXED: siempre la mediana.</li>
+ *   <li>UNIFORM: uniforme entre 0 y dos veces la mediana.</li>
+ *   <li>LOG_NORMAL: log-normal con la mediana y el p99 indicados (cola larga, como una pasarela real).</li>
+ * </ul>
+ */
+public class StubPaymentProvider implements PaymentProvider {
+
+    // Cuantil 0.99 de la normal estándar
+    private static final double Z_99 = 2.3263;
+
+    public enum LatencyDistribution {
+        FIXED,
+        UNIFORM,
+        LOG_NORMAL
+    }
+
+    private final Providers id;
+    private final LatencyDistribution distribution;
+    private final long medianMicros;
+    private final double sigma;
+    private final double errorRate;
+    private final BigDecimal declineAbove;
+
+    public StubPaymentProvider(Providers id,
+                               LatencyDistribution distribution,
+                               Duration median,
+                               Duration p99,
+                               double errorRate,
+                               BigDecimal declineAbove) {
+        this.id = id;
+        this.distribution = distribution;
+        this.medianMicros = TimeUnit.NANOSECONDS.toMicros(median.toNanos());
+        this.sigma = median.isZero() || p99.compareTo(median) <= 0
+                ? 0
+                : Math.log((double) p99.toNanos() / median.toNanos()) / Z_99;
+        this.errorRate = errorRate;
+        this.declineAbove = declineAbove;
+    }
+
+    @Override
+    public Providers id() {
+        return id;
+    }
+
+    @Override
+    public CompletableFuture<ProviderResponse> authorize(AuthorizationRequest request) {
+        return CompletableFuture.supplyAsync(() -> respond(request),
+                CompletableFuture.delayedExecutor(sampleLatencyMicros(), TimeUnit.MICROSECONDS));
+    }
+
+    @Override
+    public CompletableFuture<Void> voidAuthorization(UUID paymentIntentId, String providerRef) {
+        return CompletableFuture.runAsync(this::failRandomly,
+                CompletableFuture.delayedExecutor(sampleLatencyMicros(), TimeUnit.MICROSECONDS));
+    }
+
+    private void failRandomly() {
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            throw new IllegalStateException("Error simulado de la pasarela " + id);
+        }
+    }
+
+    private ProviderResponse respond(AuthorizationRequest request) {
+        failRandomly();
+        if (request.amount().compareTo(declineAbove) > 0) {
+            return ProviderResponse.declined(id, "Fondos insuficientes (Simulado: monto > " + declineAbove.toPlainString() + ")");
+        }
+        // Referencia derivada del intento: repetir la petición devuelve la misma
+        return ProviderResponse.approved(id,
+                UUID.nameUUIDFromBytes((id + ":" + request.paymentIntentId()).getBytes(StandardCharsets.UTF_8)).toString());
+    }
+
+    long sampleLatencyMicros() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (distribution) {
+            case FIXED -> medianMicros;
+            case UNIFORM -> medianMicros == 0 ? 0 : random.nextLong(2 * medianMicros + 1);
+            case LOG_NORMAL -> Math.round(medianMicros * Math.exp(sigma * random.nextGaussian()));
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package org.ecoride.paymentservice.repository;
+
+import org.ecoride.paymentservice.model.entity.Charge;
+import org.ecoride.paymentservice.model.entity.PaymentIntent;
+
+import java.util.List;
+
+/**
+ * Inserciones y actualizaciones por lotes JDBC para el procesamiento de pagos.
+ */
+public interface PaymentBatchRepository {
+
+    /**
+     * Inserta los intentos con ON CONFLICT (reservation_id) DO NOTHING.
+     *
+     * @return por cada intento, true si se insertó y false si la reserva ya tenía uno
+     */
+    boolean[] insertIntentsIfAbsent(List<PaymentIntent> intents);
+
+    /**
+     * Pasa cada intento al estado indicado (con su motivo de fallo), solo si sigue PENDING.
+     *
+     * @return por cada intento, true si se actualizó y false si otro ya lo había cerrado
+     */
+    boolean[] completePending(List<PaymentIntent> intents);
+
+    void insertCharges(List<Charge> charges);
+}
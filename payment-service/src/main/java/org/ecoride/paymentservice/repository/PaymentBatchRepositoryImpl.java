@@ -0,0 +1,107 @@
+package org.ecoride.paymentservice.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.ecoride.paymentservice.model.entity.Charge;
+import org.ecoride.paymentservice.model.entity.PaymentIntent;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+
+/**
+ * Va directo a JDBC: Hibernate no sabe expresar ON CONFLICT y, además, con
+ * persist() un duplicado abortaría la transacción de todo el lote. Los ids se
+ * generan en memoria, así que no hace falta leer nada de vuelta.
+ * <p>
+ * No se activa reWriteBatchedInserts en este servicio: el driver devolvería
+ * SUCCESS_NO_INFO en lugar del número de filas de cada INSERT, y ese número es el
+ * que indica qué reservas ya tenían intento y qué intentos seguían PENDING.
+ */
+public class PaymentBatchRepositoryImpl implements PaymentBatchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public boolean[] insertIntentsIfAbsent(List<PaymentIntent> intents) {
+        if (intents.isEmpty()) {
+            return new boolean[0];
+        }
+        int[] counts = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("""
+                    INSERT INTO payment_intents
+                        (id, reservation_id, passenger_id, correlation_id, amount, currency, status, provider)
+                    VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+                    ON CONFLICT (reservation_id) DO NOTHING
+                    """)) {
+                for (PaymentIntent intent : intents) {
+                    statement.setObject(1, intent.getId());
+                    statement.setObject(2, intent.getReservationId());
+                    statement.setObject(3, intent.getPassengerId());
+                    statement.setString(4, intent.getCorrelationId());
+                    statement.setBigDecimal(5, intent.getAmount());
+                    statement.setString(6, intent.getCurrency());
+                    statement.setString(7, intent.getStatus().name());
+                    statement.setString(8, intent.getProvider() != null ? intent.getProvider().name() : null);
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            }
+        });
+        return affected(counts);
+    }
+
+    @Override
+    public boolean[] completePending(List<PaymentIntent> intents) {
+        if (intents.isEmpty()) {
+            return new boolean[0];
+        }
+        int[] counts = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("""
+                    UPDATE payment_intents SET status = ?, failure_reason = ?, updated_at = now()
+                    WHERE id = ? AND status = 'PENDING'
+                    """)) {
+                for (PaymentIntent intent : intents) {
+                    statement.setString(1, intent.getStatus().name());
+                    statement.setString(2, intent.getFailureReason());
+                    statement.setObject(3, intent.getId());
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            }
+        });
+        return affected(counts);
+    }
+
+    @Override
+    public void insertCharges(List<Charge> charges) {
+        if (charges.isEmpty()) {
+            return;
+        }
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("""
+                    INSERT INTO charges (id, amount, provider, provider_ref, payment_intent_id)
+                    VALUES (?, ?, ?, ?, ?)
+                    """)) {
+                for (Charge charge : charges) {
+                    statement.setObject(1, charge.getId());
+                    statement.setBigDecimal(2, charge.getAmount());
+                    statement.setString(3, charge.getProvider().name());
+                    statement.setString(4, charge.getProviderRef());
+                    statement.setObject(5, charge.getPaymentIntent().getId());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    private static boolean[] affected(int[] counts) {
+        boolean[] affected = new boolean[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            affected[i] = counts[i] > 0;
+        }
+        return affected;
+    }
+}
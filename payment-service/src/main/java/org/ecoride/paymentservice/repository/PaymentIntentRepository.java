@@ -1,14 +1,125 @@
 package org.ecoride.paymentservice.repository;
 
 import org.ecoride.paymentservice.model.entity.PaymentIntent;
+import org.ecoride.paymentservice.model.enums.PaymentStatus;
+import org.ecoride.paymentservice.model.enums.Providers;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface PaymentIntentRepository extends JpaRepository<PaymentIntent, UUID> {
-    Optional<PaymentIntent> findByReservationId(UUID reservationId);
+public interface PaymentIntentRepository extends JpaRepository<PaymentIntent, UUID>, PaymentBatchRepository {
+    /**
+     * Intentos ya registrados para las reservas de un poll que chocaron con la
+     * restricción única, con su cargo si lo hay. Una sola consulta IN por lote.
+     */
+    @Query("""
+            SELECT i.reservationId AS reservationId, i.id AS id, i.status AS status, c.id AS chargeId,
+                   i.passengerId AS passengerId, i.correlationId AS correlationId,
+                   i.amount AS amount, i.currency AS currency, i.failureReason AS failureReason,
+                   i.provider AS provider
+            FROM PaymentIntent i LEFT JOIN i.charge c
+            WHERE i.reservationId IN :reservationIds
+            """)
+    List<ProcessedIntent> findProcessed(@Param("reservationIds") Collection<UUID> reservationIds);
 
+    /**
+     * Intentos que siguen PENDING desde antes de cutoff: la instancia que los
+     * autorizaba cayó antes de guardar la respuesta de la pasarela.
+     */
+    @Query("""
+            SELECT i.reservationId AS reservationId, i.id AS id, i.status AS status, c.id AS chargeId,
+                   i.passengerId AS passengerId, i.correlationId AS correlationId,
+                   i.amount AS amount, i.currency AS currency, i.failureReason AS failureReason,
+                   i.provider AS provider
+            FROM PaymentIntent i LEFT JOIN i.charge c
+            WHERE i.status = org.ecoride.paymentservice.model.enums.PaymentStatus.PENDING
+              AND i.createdAt < :cutoff
+            ORDER BY i.createdAt
+            """)
+    List<ProcessedIntent> findStalePending(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * Intentos cerrados antes de cutoff cuyo resultado no consta como publicado: la
+     * instancia cayó o Kafka falló entre el commit de base de datos y la publicación.
+     */
+    @Query("""
+            SELECT i.reservationId AS reservationId, i.id AS id, i.status AS status, c.id AS chargeId,
+                   i.passengerId AS passengerId, i.correlationId AS correlationId,
+                   i.amount AS amount, i.currency AS currency, i.failureReason AS failureReason,
+                   i.provider AS provider
+            FROM PaymentIntent i LEFT JOIN i.charge c
+            WHERE i.status <> org.ecoride.paymentservice.model.enums.PaymentStatus.PENDING
+              AND i.resultPublishedAt IS NULL
+              AND i.updatedAt < :cutoff
+            ORDER BY i.updatedAt
+            """)
+    List<ProcessedIntent> findUnpublished(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * Intento AUTHORIZED de una reserva con el cargo que hay que anular en la pasarela.
+     */
+    @Query("""
+            SELECT i.id AS id, c.provider AS provider, c.providerRef AS providerRef
+            FROM PaymentIntent i JOIN i.charge c
+            WHERE i.reservationId = :reservationId
+              AND i.status = org.ecoride.paymentservice.model.enums.PaymentStatus.AUTHORIZED
+            """)
+    Optional<AuthorizedCharge> findAuthorizedCharge(@Param("reservationId") UUID reservationId);
+
+    /**
+     * Condicionado a AUTHORIZED: si dos entregas anulan a la vez solo una cambia la fila.
+     */
+    @Modifying
+    @Query("""
+            UPDATE PaymentIntent i
+            SET i.status = org.ecoride.paymentservice.model.enums.PaymentStatus.CANCELLED,
+                i.failureReason = :reason, i.updatedAt = CURRENT_TIMESTAMP
+            WHERE i.id = :id AND i.status = org.ecoride.paymentservice.model.enums.PaymentStatus.AUTHORIZED
+            """)
+    int cancelAuthorized(@Param("id") UUID id, @Param("reason") String reason);
+
+    @Modifying
+    @Query("UPDATE PaymentIntent i SET i.resultPublishedAt = CURRENT_TIMESTAMP WHERE i.id IN :ids")
+    int markPublished(@Param("ids") Collection<UUID> ids);
+
+    interface AuthorizedCharge {
+        UUID getId();
+
+        Providers getProvider();
+
+        String getProviderRef();
+    }
+
+    interface ProcessedIntent {
+        UUID getReservationId();
+
+        UUID getId();
+
+        PaymentStatus getStatus();
+
+        UUID getChargeId();
+
+        UUID getPassengerId();
+
+        String getCorrelationId();
+
+        BigDecimal getAmount();
+
+        String getCurrency();
+
+        String getFailureReason();
+
+        Providers getProvider();
+    }
 }
@@ -0,0 +1,18 @@
+package org.ecoride.paymentservice.service;
+
+import org.ecoride.paymentservice.model.enums.Providers;
+
+/**
+ * Respuesta de la pasarela para un intento: aprobado (failureReason == null) con la
+ * referencia del cobro, o fallido con el motivo.
+ */
+public record AuthorizationOutcome(
+        PendingPayment payment,
+        Providers provider,
+        String providerRef,
+        String failureReason) {
+
+    public boolean approved() {
+        return failureReason == null;
+    }
+}
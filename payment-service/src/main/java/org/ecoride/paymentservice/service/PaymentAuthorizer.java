@@ -0,0 +1,175 @@
+package org.ecoride.paymentservice.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.ecoride.paymentservice.provider.AuthorizationRequest;
+import org.ecoride.paymentservice.provider.PaymentProviderGateway;
+import org.ecoride.paymentservice.provider.ProviderResponse;
+import org.ecoride.paymentservice.provider.ProviderUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Autoriza los intentos PENDING contra las pasarelas sin bloquear a quien los envía:
+ * {@link #submit} lanza las llamadas y vuelve enseguida. Las respuestas se acumulan
+ * en una cola y {@link #flush} las guarda y publica por lotes desde el hilo del
+ * scheduler.
+ * <p>
+ * Cada lote de respuestas se guarda primero y se publica después del commit de base
+ * de datos, tal como quedó guardado; al confirmarlo Kafka se marca como publicado. Un
+ * resultado que no llegó a publicarse (fallo de Kafka o caída de la instancia) se
+ * vuelve a publicar desde la base de datos, nunca con una autorización nueva: trip-service
+ * recibe siempre el mismo desenlace, como mucho repetido.
+ * <p>
+ * Un intento se considera en curso hasta que su respuesta está guardada, de modo que
+ * una reentrega del mismo evento no lanza otra autorización en esta instancia. Los
+ * intentos que se quedaron PENDING porque la instancia cayó a mitad no publicaron
+ * nada todavía y se vuelven a autorizar pasado payment.authorization.stale-after.
+ */
+@Component
+@Slf4j
+public class PaymentAuthorizer {
+
+    private final PaymentProviderGateway providerGateway;
+    private final PaymentService paymentService;
+    private final PaymentResultPublisher resultPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration staleAfter;
+
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+    private final Queue<AuthorizationOutcome> completed = new ConcurrentLinkedQueue<>();
+    // Solo los toca el hilo del scheduler
+    private final List<AuthorizationOutcome> unsaved = new ArrayList<>();
+    private final List<PaymentResult> unpublished = new ArrayList<>();
+
+    public PaymentAuthorizer(PaymentProviderGateway providerGateway,
+                             PaymentService paymentService,
+                             PaymentResultPublisher resultPublisher,
+                             TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${payment.authorization.batch-size:500}") int batchSize,
+                             @Value("${payment.authorization.stale-after:2m}") Duration staleAfter) {
+        this.providerGateway = providerGateway;
+        this.paymentService = paymentService;
+        this.resultPublisher = resultPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.staleAfter = staleAfter;
+        Gauge.builder("payment.authorization.in-flight", inFlight, Set::size).register(meterRegistry);
+    }
+
+    public void submit(List<PendingPayment> payments) {
+        for (PendingPayment payment : payments) {
+            if (!inFlight.add(payment.paymentIntentId())) {
+                continue;
+            }
+            AuthorizationRequest request = new AuthorizationRequest(payment.paymentIntentId(),
+                    payment.reservationId(), payment.amount(), payment.currency(), payment.provider());
+            providerGateway.authorize(request)
+                    .whenComplete((response, error) -> completed.add(toOutcome(payment, response, error)));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.authorization.flush-interval-ms:50}")
+    public void flush() {
+        try {
+            // Mientras Kafka no confirme lo ya guardado no se guarda nada más
+            publishSaved();
+            while (true) {
+                while (unsaved.size() < batchSize) {
+                    AuthorizationOutcome outcome = completed.poll();
+                    if (outcome == null) {
+                        break;
+                    }
+                    unsaved.add(outcome);
+                }
+                if (unsaved.isEmpty()) {
+                    return;
+                }
+
+                // Si falla el commit los intentos siguen PENDING sin nada publicado y el lote
+                // se reintenta en la siguiente pasada
+                List<PaymentResult> results = transactionTemplate.execute(status ->
+                        paymentService.completePayments(unsaved));
+                unsaved.forEach(outcome -> inFlight.remove(outcome.payment().paymentIntentId()));
+                unsaved.clear();
+                unpublished.addAll(results);
+                publishSaved();
+            }
+        } catch (RuntimeException e) {
+            log.error("Error guardando o publicando respuestas de pasarela ({} sin guardar, {} sin publicar): {}",
+                    unsaved.size(), unpublished.size(), e.getMessage(), e);
+        }
+    }
+
+    private void publishSaved() {
+        if (unpublished.isEmpty()) {
+            return;
+        }
+        resultPublisher.publishAll(unpublished);
+        // Si falla la marca, la recuperación lo publica otra vez con el mismo resultado
+        paymentService.markPublished(unpublished);
+        unpublished.clear();
+    }
+
+    @Scheduled(fixedDelayString = "${payment.authorization.recovery-interval-ms:60000}")
+    public void recoverStale() {
+        try {
+            List<PendingPayment> stale = paymentService.findStalePending(
+                    LocalDateTime.now().minus(staleAfter), batchSize);
+            List<PendingPayment> orphaned = stale.stream()
+                    .filter(payment -> !inFlight.contains(payment.paymentIntentId()))
+                    .toList();
+            if (!orphaned.isEmpty()) {
+                log.warn("{} intentos de pago PENDING sin respuesta, se vuelven a autorizar", orphaned.size());
+                submit(orphaned);
+            }
+
+            List<PaymentResult> saved = paymentService.findUnpublished(
+                    LocalDateTime.now().minus(staleAfter), batchSize);
+            if (!saved.isEmpty()) {
+                log.warn("{} resultados de pago guardados sin publicar, se publican de nuevo", saved.size());
+                resultPublisher.publishAll(saved);
+                paymentService.markPublished(saved);
+            }
+        } catch (RuntimeException e) {
+            log.error("Error recuperando intentos de pago pendientes: {}", e.getMessage(), e);
+        }
+    }
+
+    private static AuthorizationOutcome toOutcome(PendingPayment payment, ProviderResponse response, Throwable error) {
+        if (error == null) {
+            return response.approved()
+                    ? new AuthorizationOutcome(payment, response.provider(), response.providerRef(), null)
+                    : new AuthorizationOutcome(payment, response.provider(), null, response.declineReason());
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String reason;
+        if (cause instanceof TimeoutException) {
+            reason = "Pasarela de pagos sin respuesta";
+        } else if (cause instanceof ProviderUnavailableException) {
+            reason = "Pasarelas de pago saturadas";
+        } else {
+            reason = "Error en la pasarela de pagos";
+        }
+        log.warn("[{}] Autorización fallida para la reserva {}: {}",
+                payment.correlationId(), payment.reservationId(), cause.toString());
+        return new AuthorizationOutcome(payment, null, null, reason);
+    }
+}
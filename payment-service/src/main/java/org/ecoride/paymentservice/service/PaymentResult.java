@@ -0,0 +1,46 @@
+package org.ecoride.paymentservice.service;
+
+import org.ecoride.events.ReservationEvents;
+
+import java.util.UUID;
+
+/**
+ * Resultado del pago de una reserva, listo para publicarse en payment-authorized
+ * o payment-failed (failureReason != null).
+ */
+public record PaymentResult(
+        UUID reservationId,
+        UUID passengerId,
+        String correlationId,
+        UUID paymentIntentId,
+        UUID chargeId,
+        String failureReason) {
+
+    public static final String TOPIC_PAYMENT_AUTHORIZED = "payment-authorized";
+    public static final String TOPIC_PAYMENT_FAILED = "payment-failed";
+
+    public boolean authorized() {
+        return failureReason == null;
+    }
+
+    public String topic() {
+        return authorized() ? TOPIC_PAYMENT_AUTHORIZED : TOPIC_PAYMENT_FAILED;
+    }
+
+    public Object toEvent() {
+        if (authorized()) {
+            return ReservationEvents.PaymentAuthorized.builder()
+                    .reservationId(reservationId)
+                    .paymentIntentId(paymentIntentId)
+                    .chargeId(chargeId)
+                    .correlationId(correlationId)
+                    .build();
+        }
+        return ReservationEvents.PaymentFailed.builder()
+                .reservationId(reservationId)
+                .passengerId(passengerId)
+                .reason(failureReason)
+                .correlationId(correlationId)
+                .build();
+    }
+}
@@ -0,0 +1,73 @@
+package org.ecoride.paymentservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publica los resultados de un lote de una vez: todos los envíos se entregan al
+ * productor sin esperar (que los agrupa por partición con linger.ms y batch-size)
+ * y solo al final se espera a que Kafka los confirme.
+ * <p>
+ * Con el productor transaccional, dentro de un listener los envíos se unen a la
+ * transacción del contenedor (y se confirman con los offsets del poll); fuera de él
+ * el lote va en una transacción propia que se confirma antes de volver.
+ */
+@Component
+@Slf4j
+public class PaymentResultPublisher {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final long sendTimeoutMs;
+
+    public PaymentResultPublisher(KafkaTemplate<String, Object> kafkaTemplate,
+                                  @Value("${payment.kafka.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.sendTimeoutMs = sendTimeoutMs;
+    }
+
+    public void publishAll(List<PaymentResult> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+
+        if (kafkaTemplate.isTransactional() && !inContainerTransaction()) {
+            // commitTransaction espera a todos los envíos y falla si alguno falló
+            kafkaTemplate.executeInTransaction(operations -> sendAll(operations, results));
+        } else {
+            await(sendAll(kafkaTemplate, results));
+        }
+
+        log.debug("{} resultados de pago publicados", results.size());
+    }
+
+    private boolean inContainerTransaction() {
+        return TransactionSynchronizationManager.getResource(kafkaTemplate.getProducerFactory()) != null;
+    }
+
+    private static CompletableFuture<?>[] sendAll(KafkaOperations<String, Object> operations, List<PaymentResult> results) {
+        return results.stream()
+                .map(result -> operations.send(result.topic(), result.reservationId().toString(), result.toEvent()))
+                .toArray(CompletableFuture[]::new);
+    }
+
+    private void await(CompletableFuture<?>[] sends) {
+        try {
+            CompletableFuture.allOf(sends).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Publicación de resultados de pago interrumpida", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Kafka no confirmó el lote de resultados de pago", e);
+        }
+    }
+}
@@ -2,151 +2,248 @@ package org.ecoride.paymentservice.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.ecoride.paymentservice.events.ReservationEvents;
+import org.ecoride.events.ReservationEvents;
 import org.ecoride.paymentservice.model.entity.Charge;
 import org.ecoride.paymentservice.model.entity.PaymentIntent;
 import org.ecoride.paymentservice.model.enums.PaymentStatus;
 import org.ecoride.paymentservice.model.enums.Providers;
-import org.ecoride.paymentservice.repository.ChargeRepository;
+import org.ecoride.paymentservice.provider.PaymentProviderGateway;
 import org.ecoride.paymentservice.repository.PaymentIntentRepository;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.messaging.handler.annotation.Payload;
+import org.ecoride.paymentservice.repository.PaymentIntentRepository.AuthorizedCharge;
+import org.ecoride.paymentservice.repository.PaymentIntentRepository.ProcessedIntent;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import tools.jackson.databind.ObjectMapper;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Procesa los pagos en dos fases, ambas por lotes:
+ * <ol>
+ *   <li>{@link #registerPayments}: un poll completo de reservation-requested se registra
+ *   en una transacción con un INSERT por lotes de intentos PENDING (ON CONFLICT DO
+ *   NOTHING sobre reservation_id); solo las reservas en conflicto se consultan.</li>
+ *   <li>{@link #completePayments}: las respuestas de las pasarelas se guardan por
+ *   lotes, con un UPDATE condicionado a PENDING y un INSERT de cargos.</li>
+ * </ol>
+ * Entre ambas la autorización corre de forma asíncrona en {@link PaymentAuthorizer},
+ * sin ocupar los hilos del listener.
+ * <p>
+ * Las reservas que ya tenían un intento cerrado (reentregas tras un fallo al publicar
+ * o al hacer commit del offset) no se vuelven a cobrar, pero su resultado se devuelve
+ * otra vez para que trip-service lo reciba aunque el primer envío se hubiera perdido.
+ */
 @RequiredArgsConstructor
 @Service
 @Slf4j
 public class PaymentService {
-    private final PaymentIntentRepository paymentIntentRepository;
-    private final ChargeRepository chargeRepository;
-
-    private final KafkaTemplate<String,String> kafkaTemplate;
-    private final ObjectMapper objectMapper;
 
+    private static final String CURRENCY = "COP";
 
-    // Constantes para los tópicos de salida
-    private static final String TOPIC_PAYMENT_AUTHORIZED = "payment-authorized";
-    private static final String TOPIC_PAYMENT_FAILED = "payment-failed";
-
+    private final PaymentIntentRepository paymentIntentRepository;
+    private final PaymentProviderGateway providerGateway;
 
-    @KafkaListener(topics = "reservation-requested", groupId = "payment-service-group")
     @Transactional
-    public void processPayment(String rawJson) {
-        String correlationId = null;
+    public RegisteredPayments registerPayments(List<ReservationEvents.ReservationRequested> events) {
+        // Deduplicar el lote: una reserva repetida en el mismo poll se cobra una vez
+        Map<UUID, ReservationEvents.ReservationRequested> byReservation = new LinkedHashMap<>();
+        for (ReservationEvents.ReservationRequested event : events) {
+            if (event.getReservationId() == null || event.getAmount() == null) {
+                log.error("[{}] Evento reservation-requested incompleto, se descarta: {}",
+                        event.getCorrelationId(), event);
+                continue;
+            }
+            byReservation.putIfAbsent(event.getReservationId(), event);
+        }
 
-        try {
-            // Deserializar manualmente (porque lo envías como String JSON)
-            ReservationEvents.ReservationRequested event =
-                    objectMapper.readValue(rawJson, ReservationEvents.ReservationRequested.class);
+        List<PendingPayment> accepted = new ArrayList<>();
+        List<PaymentResult> replayed = new ArrayList<>();
 
-            correlationId = event.getCorrelationId();
+        List<PaymentIntent> intents = new ArrayList<>(byReservation.size());
+        for (ReservationEvents.ReservationRequested event : byReservation.values()) {
+            intents.add(PaymentIntent.builder()
+                    .id(UUID.randomUUID())
+                    .reservationId(event.getReservationId())
+                    .passengerId(event.getPassengerId())
+                    .correlationId(event.getCorrelationId())
+                    .amount(event.getAmount())
+                    .currency(CURRENCY)
+                    .status(PaymentStatus.PENDING)
+                    .build());
+        }
 
-            log.info("[{}] Received reservation-requested event: {}", correlationId, event);
+        // Orden fijo: dos réplicas con reservas en común no se bloquean en cruz esperando el conflicto
+        intents.sort(Comparator.comparing(PaymentIntent::getReservationId));
 
-            //Idempotencia: evitar procesar dos veces la misma reserva
-            Optional<PaymentIntent> existingIntent =
-                    paymentIntentRepository.findByReservationId(event.getReservationId());
+        // La pasarela se fija antes de la primera llamada y se guarda con el intento
+        List<Providers> providers = providerGateway.assign(intents.size());
+        for (int i = 0; i < intents.size(); i++) {
+            intents.get(i).setProvider(providers.get(i));
+        }
 
-            if (existingIntent.isPresent()) {
-                log.warn("[{}] Idempotencia: Ya existe un intento de pago para la reserva {}. Estado actual: {}",
-                        correlationId,
-                        event.getReservationId(),
-                        existingIntent.get().getStatus());
-                return;
+        // La restricción única decide qué reservas son nuevas, sin consultarlas antes: con
+        // el productor transaccional solo se repite un lote si la transacción Kafka abortó
+        // después del commit de base de datos, así que los conflictos son raros
+        boolean[] inserted = paymentIntentRepository.insertIntentsIfAbsent(intents);
+        List<UUID> known = new ArrayList<>();
+        for (int i = 0; i < inserted.length; i++) {
+            PaymentIntent intent = intents.get(i);
+            if (inserted[i]) {
+                accepted.add(toPending(intent));
+            } else {
+                known.add(intent.getReservationId());
+            }
+        }
+        if (!known.isEmpty()) {
+            log.warn("Idempotencia: {} reservas del lote ya tenían intento de pago", known.size());
+            Map<UUID, ProcessedIntent> existing = findProcessed(known);
+            for (UUID reservationId : known) {
+                ProcessedIntent intent = existing.get(reservationId);
+                if (intent != null) {
+                    resume(byReservation.get(reservationId), intent, accepted, replayed);
+                }
             }
+        }
 
-            // Crear PaymentIntent en estado PENDING
-            PaymentIntent intent = PaymentIntent.builder()
-                    .reservationId(event.getReservationId())
-                    .amount(event.getAmount())
-                    .currency("COP")
-                    .status(PaymentStatus.PENDING)
-                    .build();
+        log.info("Lote de pagos: {} eventos, {} intentos a autorizar, {} resultados repetidos",
+                events.size(), accepted.size(), replayed.size());
+        return new RegisteredPayments(accepted, replayed);
+    }
+
+    /**
+     * @return los resultados a publicar; los intentos que otro ya había cerrado no generan resultado
+     */
+    @Transactional
+    public List<PaymentResult> completePayments(List<AuthorizationOutcome> outcomes) {
+        List<PaymentIntent> intents = new ArrayList<>(outcomes.size());
+        for (AuthorizationOutcome outcome : outcomes) {
+            intents.add(PaymentIntent.builder()
+                    .id(outcome.payment().paymentIntentId())
+                    .amount(outcome.payment().amount())
+                    .status(outcome.approved() ? PaymentStatus.AUTHORIZED : PaymentStatus.FAILED)
+                    .failureReason(outcome.failureReason())
+                    .build());
+        }
 
-            intent = paymentIntentRepository.save(intent);
+        boolean[] completed = paymentIntentRepository.completePending(intents);
+        List<Charge> charges = new ArrayList<>();
+        List<PaymentResult> results = new ArrayList<>();
+        for (int i = 0; i < completed.length; i++) {
+            if (!completed[i]) {
+                continue;
+            }
+            AuthorizationOutcome outcome = outcomes.get(i);
+            PendingPayment payment = outcome.payment();
+            UUID chargeId = null;
+            if (outcome.approved()) {
+                Charge charge = Charge.builder()
+                        .id(UUID.randomUUID())
+                        .paymentIntent(intents.get(i))
+                        .amount(payment.amount())
+                        .provider(outcome.provider())
+                        .providerRef(outcome.providerRef())
+                        .build();
+                charges.add(charge);
+                chargeId = charge.getId();
+            }
+            results.add(new PaymentResult(payment.reservationId(), payment.passengerId(),
+                    payment.correlationId(), payment.paymentIntentId(), chargeId, outcome.failureReason()));
+        }
+        paymentIntentRepository.insertCharges(charges);
 
-            log.debug("[{}] PaymentIntent creado con ID: {}", correlationId, intent.getId());
+        log.debug("Respuestas de pasarela guardadas: {} de {}", results.size(), outcomes.size());
+        return results;
+    }
 
-            // Simulación de pasarela de pagos
-            boolean success = event.getAmount().compareTo(new BigDecimal("100000")) <= 0;
+    @Transactional(readOnly = true)
+    public List<PendingPayment> findStalePending(LocalDateTime cutoff, int limit) {
+        return paymentIntentRepository.findStalePending(cutoff, PageRequest.of(0, limit)).stream()
+                .map(intent -> new PendingPayment(intent.getId(), intent.getReservationId(),
+                        intent.getPassengerId(), intent.getCorrelationId(), intent.getAmount(), intent.getCurrency(),
+                        intent.getProvider()))
+                .toList();
+    }
 
-            if (success) {
-                handleSuccess(
-                        intent,
-                        correlationId,
-                        event.getReservationId()
-                );
-            } else {
-                handleFailure(
-                        intent,
-                        "Fondos insuficientes (Simulado: monto > 100000)",
-                        correlationId,
-                        event.getReservationId(),
-                        event.getPassengerId()
-                );
-            }
+    /**
+     * Resultados guardados antes de cutoff que no constan como publicados, tal como se
+     * guardaron: se vuelven a publicar sin pasar otra vez por la pasarela.
+     */
+    @Transactional(readOnly = true)
+    public List<PaymentResult> findUnpublished(LocalDateTime cutoff, int limit) {
+        return paymentIntentRepository.findUnpublished(cutoff, PageRequest.of(0, limit)).stream()
+                .map(intent -> new PaymentResult(intent.getReservationId(), intent.getPassengerId(),
+                        intent.getCorrelationId(), intent.getId(), intent.getChargeId(), failureReason(intent)))
+                .toList();
+    }
 
-        } catch (Exception e) {
-            log.error("[{}] Error deserializando o procesando evento: {}",
-                    correlationId != null ? correlationId : "NO-CORRELATION",
-                    e.getMessage(), e);
+    @Transactional
+    public void markPublished(List<PaymentResult> results) {
+        if (!results.isEmpty()) {
+            paymentIntentRepository.markPublished(results.stream().map(PaymentResult::paymentIntentId).toList());
         }
     }
 
+    @Transactional(readOnly = true)
+    public Optional<AuthorizedCharge> findAuthorizedCharge(UUID reservationId) {
+        return paymentIntentRepository.findAuthorizedCharge(reservationId);
+    }
+
+    /**
+     * @return false si el intento ya no estaba AUTHORIZED (otra entrega lo anuló antes)
+     */
+    @Transactional
+    public boolean cancelAuthorized(UUID paymentIntentId, String reason) {
+        return paymentIntentRepository.cancelAuthorized(paymentIntentId, reason) == 1;
+    }
+
+    private Map<UUID, ProcessedIntent> findProcessed(Collection<UUID> reservationIds) {
+        return paymentIntentRepository.findProcessed(reservationIds).stream()
+                .collect(Collectors.toMap(ProcessedIntent::getReservationId, Function.identity()));
+    }
 
     /**
-     * Exito crea el Charge, actualiza Intent y notifica.
+     * Reserva que ya tenía intento: si está cerrado se vuelve a emitir su resultado y
+     * si sigue PENDING se vuelve a autorizar en su misma pasarela (idempotente por intento).
      */
-    private void handleSuccess(PaymentIntent intent, String correlationId, UUID reservationId) {
-        intent.setStatus(PaymentStatus.AUTHORIZED);
-
-        // crear el registro de Cobro cCharge()
-        Charge charge = Charge.builder()
-                .paymentIntent(intent)
-                .amount(intent.getAmount())
-                .provider(Providers.MOCK_BANK) // Usamos el Enum que ya tienes
-                .providerRef(UUID.randomUUID().toString()) // Simulación de ID de transacción bancaria
-                .build();
-
-        chargeRepository.save(charge);
-        paymentIntentRepository.save(intent); // Guardar el cambio de estado
-
-        // publicar evento de exito
-        ReservationEvents.PaymentAuthorized successEvent = ReservationEvents.PaymentAuthorized.builder()
-                .reservationId(reservationId)
-                .paymentIntentId(intent.getId())
-                .chargeId(charge.getId())
-                .correlationId(correlationId)
-                .build();
-        kafkaTemplate.send(TOPIC_PAYMENT_AUTHORIZED, objectMapper.writeValueAsString(successEvent));
-        log.info("[{}] PAGO EXITOSO. ChargeId: {}. Evento enviado a {}", correlationId, charge.getId(), TOPIC_PAYMENT_AUTHORIZED);
+    private void resume(ReservationEvents.ReservationRequested event,
+                        ProcessedIntent existing,
+                        List<PendingPayment> accepted,
+                        List<PaymentResult> replayed) {
+        switch (existing.getStatus()) {
+            case PENDING -> accepted.add(new PendingPayment(existing.getId(), event.getReservationId(),
+                    event.getPassengerId(), event.getCorrelationId(), existing.getAmount(), existing.getCurrency(),
+                    existing.getProvider()));
+            case AUTHORIZED -> replayed.add(new PaymentResult(event.getReservationId(), event.getPassengerId(),
+                    event.getCorrelationId(), existing.getId(), existing.getChargeId(), null));
+            case FAILED -> replayed.add(new PaymentResult(event.getReservationId(), event.getPassengerId(),
+                    event.getCorrelationId(), existing.getId(), null, failureReason(existing)));
+            default -> log.warn("[{}] Intento {} de la reserva {} en estado {}, no se publica nada",
+                    event.getCorrelationId(), existing.getId(), event.getReservationId(), existing.getStatus());
+        }
     }
 
     /**
-     * fallo actualiza Intent a FAILED y notifica para compensación.
+     * Motivo guardado con el intento; los cerrados antes de guardarlo no lo tienen.
      */
-    private void handleFailure(PaymentIntent intent, String reason, String correlationId, UUID reservationId, UUID passengerId) {
-        // actualizar estado
-        intent.setStatus(PaymentStatus.FAILED);
-        paymentIntentRepository.save(intent);
-
-        // publicar evento de Fallo (Compensación)
-        ReservationEvents.PaymentFailed failedEvent = ReservationEvents.PaymentFailed.builder()
-                .reservationId(reservationId)
-                .passengerId(passengerId)
-                .reason(reason)
-                .correlationId(correlationId)
-                .build();
-
-        kafkaTemplate.send(TOPIC_PAYMENT_FAILED, objectMapper.writeValueAsString(failedEvent));
-        log.warn("[{}] PAGO FALLIDO. Razón: {}. Evento enviado a {}", correlationId, reason, TOPIC_PAYMENT_FAILED);
+    private static String failureReason(ProcessedIntent intent) {
+        if (intent.getStatus() != PaymentStatus.FAILED) {
+            return null;
+        }
+        return intent.getFailureReason() != null ? intent.getFailureReason() : "Pago rechazado previamente";
+    }
+
+    private static PendingPayment toPending(PaymentIntent intent) {
+        return new PendingPayment(intent.getId(), intent.getReservationId(), intent.getPassengerId(),
+                intent.getCorrelationId(), intent.getAmount(), intent.getCurrency(), intent.getProvider());
     }
 }
@@ -0,0 +1,67 @@
+package org.ecoride.paymentservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ecoride.events.ReservationEvents;
+import org.ecoride.paymentservice.provider.PaymentProviderGateway;
+import org.ecoride.paymentservice.repository.PaymentIntentRepository.AuthorizedCharge;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Anula el pago de una reserva que trip-service canceló antes de recibir la
+ * autorización (p. ej. expiró esperándola). Primero se anula en la pasarela que la
+ * concedió y después el intento pasa a CANCELLED: si algo falla entre medias el
+ * intento sigue AUTHORIZED y la reentrega lo vuelve a anular, lo que la pasarela
+ * acepta sin error (idempotente por intento).
+ * <p>
+ * Como las autorizaciones, no bloquea a quien lo llama: la llamada a la pasarela pasa
+ * por su bulkhead de anulaciones y el UPDATE se hace en el executor de la aplicación,
+ * no en el hilo que completa la respuesta de la pasarela.
+ */
+@Service
+@Slf4j
+public class PaymentVoider {
+
+    private final PaymentService paymentService;
+    private final PaymentProviderGateway providerGateway;
+    private final Executor executor;
+
+    public PaymentVoider(PaymentService paymentService,
+                         PaymentProviderGateway providerGateway,
+                         @Qualifier("applicationTaskExecutor") Executor executor) {
+        this.paymentService = paymentService;
+        this.providerGateway = providerGateway;
+        this.executor = executor;
+    }
+
+    /**
+     * @return future que falla si no se pudo anular, para que el evento pase a reintento
+     */
+    public CompletableFuture<Void> voidPayment(ReservationEvents.PaymentVoidRequested event) {
+        Optional<AuthorizedCharge> authorized;
+        try {
+            authorized = paymentService.findAuthorizedCharge(event.getReservationId());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (authorized.isEmpty()) {
+            // Pago rechazado o ya anulado por una entrega anterior
+            log.info("[{}] La reserva {} no tiene pago autorizado que anular",
+                    event.getCorrelationId(), event.getReservationId());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        AuthorizedCharge charge = authorized.get();
+        return providerGateway.voidAuthorization(charge.getProvider(), charge.getId(), charge.getProviderRef())
+                .thenRunAsync(() -> {
+                    if (paymentService.cancelAuthorized(charge.getId(), event.getReason())) {
+                        log.warn("[{}] Autorización del intento {} anulada en {}: {}",
+                                event.getCorrelationId(), charge.getId(), charge.getProvider(), event.getReason());
+                    }
+                }, executor);
+    }
+}
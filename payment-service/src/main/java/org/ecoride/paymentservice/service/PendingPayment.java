@@ -0,0 +1,20 @@
+package org.ecoride.paymentservice.service;
+
+import org.ecoride.paymentservice.model.enums.Providers;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Intento registrado como PENDING que espera la respuesta de la pasarela que tiene
+ * asignada (provider).
+ */
+public record PendingPayment(
+        UUID paymentIntentId,
+        UUID reservationId,
+        UUID passengerId,
+        String correlationId,
+        BigDecimal amount,
+        String currency,
+        Providers provider) {
+}
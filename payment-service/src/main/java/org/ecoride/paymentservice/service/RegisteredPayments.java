@@ -0,0 +1,12 @@
+package org.ecoride.paymentservice.service;
+
+import java.util.List;
+
+/**
+ * Resultado de registrar un poll: los intentos que hay que autorizar y los resultados
+ * de reservas ya cerradas en un lote anterior, que se vuelven a publicar.
+ */
+public record RegisteredPayments(
+        List<PendingPayment> accepted,
+        List<PaymentResult> replayed) {
+}
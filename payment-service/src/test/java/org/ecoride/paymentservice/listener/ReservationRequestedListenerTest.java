@@ -0,0 +1,64 @@
+package org.ecoride.paymentservice.listener;
+
+import org.ecoride.events.ReservationEvents;
+import org.ecoride.events.kafka.RetryTopics;
+import org.ecoride.paymentservice.service.PaymentAuthorizer;
+import org.ecoride.paymentservice.service.PaymentResultPublisher;
+import org.ecoride.paymentservice.service.PaymentService;
+import org.ecoride.paymentservice.service.RegisteredPayments;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReservationRequestedListenerTest {
+
+    private final PaymentService paymentService = mock(PaymentService.class);
+    private final PaymentAuthorizer paymentAuthorizer = mock(PaymentAuthorizer.class);
+    private final PaymentResultPublisher paymentResultPublisher = mock(PaymentResultPublisher.class);
+    private final RetryTopics retryTopics = mock(RetryTopics.class);
+    private final Acknowledgment acknowledgment = mock(Acknowledgment.class);
+    private final ReservationRequestedListener listener = new ReservationRequestedListener(
+            paymentService, paymentAuthorizer, paymentResultPublisher, retryTopics);
+
+    @Test
+    void forwardsPoisonRecordToRetryTopicAndAcksTheRest() {
+        ReservationEvents.ReservationRequested ok = requested();
+        ReservationEvents.ReservationRequested poison = requested();
+        RegisteredPayments empty = new RegisteredPayments(List.of(), List.of());
+        when(paymentService.registerPayments(argThat(events -> events != null && events.size() == 2)))
+                .thenThrow(new QueryTimeoutException("statement timeout"));
+        when(paymentService.registerPayments(List.of(poison)))
+                .thenThrow(new QueryTimeoutException("statement timeout"));
+        when(paymentService.registerPayments(List.of(ok))).thenReturn(empty);
+
+        listener.handleReservationRequested(List.of(poison, ok), acknowledgment);
+
+        verify(paymentService).registerPayments(List.of(ok));
+        verify(retryTopics).forward("reservation-requested", poison.getReservationId().toString(), poison);
+        verify(retryTopics, never()).forward(anyString(), eq(ok.getReservationId().toString()), any());
+        verify(acknowledgment).acknowledge();
+    }
+
+    private static ReservationEvents.ReservationRequested requested() {
+        return ReservationEvents.ReservationRequested.builder()
+                .reservationId(UUID.randomUUID())
+                .tripId(UUID.randomUUID())
+                .passengerId(UUID.randomUUID())
+                .amount(new BigDecimal("45000"))
+                .correlationId(UUID.randomUUID().toString())
+                .build();
+    }
+}
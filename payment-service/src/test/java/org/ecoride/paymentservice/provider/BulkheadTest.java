@@ -0,0 +1,39 @@
+package org.ecoride.paymentservice.provider;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Una pasarela que falla en el acto con la cola llena vacía la cola sin recursión.
+ */
+class BulkheadTest {
+
+    private static final int QUEUE_CAPACITY = 20_000;
+
+    @Test
+    void drainsAFullQueueOfImmediateFailuresWithoutRecursion() {
+        Bulkhead bulkhead = new Bulkhead(1, QUEUE_CAPACITY);
+        CompletableFuture<String> blocker = new CompletableFuture<>();
+        CompletableFuture<String> first = bulkhead.submit(() -> blocker);
+
+        List<CompletableFuture<String>> queued = new ArrayList<>();
+        for (int i = 0; i < QUEUE_CAPACITY; i++) {
+            queued.add(bulkhead.submit(() -> CompletableFuture.failedFuture(new IllegalStateException("caída"))));
+        }
+        assertThat(bulkhead.queued()).isEqualTo(QUEUE_CAPACITY);
+        assertThat(bulkhead.submit(() -> blocker)).isNull();
+
+        // Al liberar el permiso cada llamada encolada falla y libera el suyo dentro de la misma pila
+        blocker.complete("ok");
+
+        assertThat(first).isCompletedWithValue("ok");
+        assertThat(queued).allMatch(CompletableFuture::isCompletedExceptionally);
+        assertThat(bulkhead.active()).isZero();
+        assertThat(bulkhead.queued()).isZero();
+    }
+}
@@ -0,0 +1,216 @@
+package org.ecoride.paymentservice.provider;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.ecoride.paymentservice.model.enums.Providers;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Bulkhead por pasarela, reparto y pasarela fijada por intento, timeout y hedging con
+ * pasarelas simuladas.
+ */
+class PaymentProviderGatewayTest {
+
+    private static final BigDecimal DECLINE_ABOVE = new BigDecimal("100000");
+
+    @Test
+    void slowProviderDoesNotLimitThroughput() throws Exception {
+        PaymentProvider slow = stub(Providers.STRIPE, Duration.ofSeconds(2));
+        PaymentProvider fast = stub(Providers.MOCK_BANK, Duration.ofMillis(5));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PaymentProviderGateway gateway = new PaymentProviderGateway(List.of(slow, fast),
+                List.of(Providers.STRIPE, Providers.MOCK_BANK), 10, 0,
+                Duration.ofSeconds(5), Duration.ZERO, 4, 100, registry);
+
+        // Diez llamadas ocupan la pasarela lenta
+        long start = System.nanoTime();
+        List<CompletableFuture<ProviderResponse>> slowCalls = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            slowCalls.add(gateway.authorize(request(new BigDecimal("45000"))));
+        }
+        // authorize nunca espera a la pasarela
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(200));
+
+        // Mientras tanto el resto de pagos sale por la rápida, diez a la vez
+        List<ProviderResponse> fastResponses = new ArrayList<>();
+        for (int round = 0; round < 20; round++) {
+            List<CompletableFuture<ProviderResponse>> calls = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                calls.add(gateway.authorize(request(new BigDecimal("45000"))));
+            }
+            for (CompletableFuture<ProviderResponse> call : calls) {
+                fastResponses.add(call.get(1, TimeUnit.SECONDS));
+            }
+        }
+        assertThat(fastResponses).hasSize(200)
+                .allMatch(response -> response.provider() == Providers.MOCK_BANK && response.approved());
+        assertThat(slowCalls).noneMatch(CompletableFuture::isDone);
+        assertThat(slowCalls.get(0).get(5, TimeUnit.SECONDS).provider()).isEqualTo(Providers.STRIPE);
+    }
+
+    @Test
+    void declinesAboveTheStubLimit() throws Exception {
+        PaymentProviderGateway gateway = new PaymentProviderGateway(
+                List.of(stub(Providers.MOCK_BANK, Duration.ZERO)), List.of(Providers.MOCK_BANK), 10, 10,
+                Duration.ofSeconds(1), Duration.ZERO, 4, 100, new SimpleMeterRegistry());
+
+        ProviderResponse response = gateway.authorize(request(new BigDecimal("150000"))).get(1, TimeUnit.SECONDS);
+
+        assertThat(response.approved()).isFalse();
+        assertThat(response.declineReason()).contains("Fondos insuficientes");
+    }
+
+    @Test
+    void timesOutAProviderThatNeverAnswers() {
+        PaymentProvider silent = new PaymentProvider() {
+            @Override
+            public Providers id() {
+                return Providers.PAYPAL;
+            }
+
+            @Override
+            public CompletableFuture<ProviderResponse> authorize(AuthorizationRequest request) {
+                return new CompletableFuture<>();
+            }
+
+            @Override
+            public CompletableFuture<Void> voidAuthorization(UUID paymentIntentId, String providerRef) {
+                return new CompletableFuture<>();
+            }
+        };
+        PaymentProviderGateway gateway = new PaymentProviderGateway(List.of(silent), List.of(Providers.PAYPAL),
+                1, 0, Duration.ofMillis(100), Duration.ZERO, 4, 100, new SimpleMeterRegistry());
+
+        CompletableFuture<ProviderResponse> call = gateway.authorize(request(BigDecimal.TEN));
+
+        assertThatThrownBy(() -> call.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        // El permiso se libera con el timeout: la siguiente llamada no se rechaza
+        assertThat(gateway.authorize(request(BigDecimal.TEN))).isNotCompletedExceptionally();
+    }
+
+    @Test
+    void hedgesASlowFirstAttempt() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        PaymentProvider flaky = new PaymentProvider() {
+            @Override
+            public Providers id() {
+                return Providers.MOCK_BANK;
+            }
+
+            @Override
+            public CompletableFuture<ProviderResponse> authorize(AuthorizationRequest request) {
+                // El primer intento se queda atascado, el hedge contesta enseguida
+                long delayMs = attempts.incrementAndGet() == 1 ? 2_000 : 5;
+                return CompletableFuture.supplyAsync(
+                        () -> ProviderResponse.approved(Providers.MOCK_BANK, "ref"),
+                        CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS));
+            }
+
+            @Override
+            public CompletableFuture<Void> voidAuthorization(UUID paymentIntentId, String providerRef) {
+                return CompletableFuture.completedFuture(null);
+            }
+        };
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PaymentProviderGateway gateway = new PaymentProviderGateway(List.of(flaky), List.of(Providers.MOCK_BANK),
+                10, 10, Duration.ofSeconds(5), Duration.ofMillis(50), 4, 100, registry);
+
+        long start = System.nanoTime();
+        ProviderResponse response = gateway.authorize(request(BigDecimal.TEN)).get(1, TimeUnit.SECONDS);
+
+        assertThat(response.approved()).isTrue();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(500));
+        assertThat(attempts.get()).isEqualTo(2);
+        assertThat(registry.counter("payment.provider.hedges").count()).isEqualTo(1);
+    }
+
+    @Test
+    void pinnedIntentNeverFailsOverToAnotherProvider() throws Exception {
+        PaymentProvider slow = stub(Providers.STRIPE, Duration.ofSeconds(2));
+        PaymentProvider fast = stub(Providers.MOCK_BANK, Duration.ofMillis(5));
+        PaymentProviderGateway gateway = new PaymentProviderGateway(List.of(slow, fast),
+                List.of(Providers.STRIPE, Providers.MOCK_BANK), 2, 1,
+                Duration.ofSeconds(5), Duration.ZERO, 4, 100, new SimpleMeterRegistry());
+
+        // Tres huecos en STRIPE (2 en curso + 1 en cola), el resto a MOCK_BANK
+        assertThat(gateway.assign(5)).containsExactly(
+                Providers.STRIPE, Providers.STRIPE, Providers.STRIPE, Providers.MOCK_BANK, Providers.MOCK_BANK);
+
+        for (int i = 0; i < 3; i++) {
+            gateway.authorize(request(BigDecimal.TEN, Providers.STRIPE));
+        }
+        // STRIPE está llena: el intento fijado a ella se rechaza en lugar de cobrarse en MOCK_BANK
+        CompletableFuture<ProviderResponse> pinned = gateway.authorize(request(BigDecimal.TEN, Providers.STRIPE));
+        assertThatThrownBy(() -> pinned.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(ProviderUnavailableException.class);
+        assertThat(gateway.authorize(request(BigDecimal.TEN, Providers.MOCK_BANK)).get(1, TimeUnit.SECONDS).provider())
+                .isEqualTo(Providers.MOCK_BANK);
+        assertThat(gateway.assign(1)).containsExactly(Providers.MOCK_BANK);
+    }
+
+    @Test
+    void voidsHaveTheirOwnSmallBulkhead() {
+        PaymentProvider silent = new PaymentProvider() {
+            @Override
+            public Providers id() {
+                return Providers.MOCK_BANK;
+            }
+
+            @Override
+            public CompletableFuture<ProviderResponse> authorize(AuthorizationRequest request) {
+                return new CompletableFuture<>();
+            }
+
+            @Override
+            public CompletableFuture<Void> voidAuthorization(UUID paymentIntentId, String providerRef) {
+                return new CompletableFuture<>();
+            }
+        };
+        PaymentProviderGateway gateway = new PaymentProviderGateway(List.of(silent), List.of(Providers.MOCK_BANK),
+                1, 0, Duration.ofSeconds(5), Duration.ZERO, 2, 1, new SimpleMeterRegistry());
+
+        // Las autorizaciones llenan su bulkhead, pero las anulaciones no esperan detrás
+        gateway.authorize(request(BigDecimal.TEN, Providers.MOCK_BANK));
+        assertThat(gateway.authorize(request(BigDecimal.TEN, Providers.MOCK_BANK))).isCompletedExceptionally();
+        List<CompletableFuture<Void>> voids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            voids.add(gateway.voidAuthorization(Providers.MOCK_BANK, UUID.randomUUID(), "ref"));
+        }
+        assertThat(voids).noneMatch(CompletableFuture::isDone);
+
+        // Dos en curso y una en cola: la cuarta se rechaza en lugar de llegar a la pasarela
+        CompletableFuture<Void> rejected = gateway.voidAuthorization(Providers.MOCK_BANK, UUID.randomUUID(), "ref");
+        assertThatThrownBy(() -> rejected.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(ProviderUnavailableException.class);
+    }
+
+    private static StubPaymentProvider stub(Providers id, Duration latency) {
+        return new StubPaymentProvider(id, StubPaymentProvider.LatencyDistribution.FIXED,
+                latency, latency, 0.0, DECLINE_ABOVE);
+    }
+
+    private static AuthorizationRequest request(BigDecimal amount) {
+        return request(amount, null);
+    }
+
+    private static AuthorizationRequest request(BigDecimal amount, Providers provider) {
+        return new AuthorizationRequest(UUID.randomUUID(), UUID.randomUUID(), amount, "COP", provider);
+    }
+}
@@ -0,0 +1,158 @@
+package org.ecoride.paymentservice.service;
+
+import org.ecoride.events.ReservationEvents;
+import org.ecoride.paymentservice.model.enums.Providers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Un lote con reservas repetidas se registra una vez por reserva; las respuestas de
+ * la pasarela se guardan una sola vez y, al reentregar el lote o recuperar lo no
+ * publicado, no se crean filas nuevas pero se repiten los mismos resultados. Un pago
+ * autorizado para una reserva ya cancelada se anula una sola vez.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false",
+        "spring.kafka.listener.auto-startup=false",
+        "payment.authorization.recovery-interval-ms=600000"
+})
+class PaymentServiceTest {
+
+    private static final int RESERVATIONS = 1_000;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @MockitoBean
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentVoider paymentVoider;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void processesAPollOncePerReservation() {
+        List<ReservationEvents.ReservationRequested> events = new ArrayList<>();
+        for (int i = 0; i < RESERVATIONS; i++) {
+            events.add(ReservationEvents.ReservationRequested.builder()
+                    .reservationId(UUID.randomUUID())
+                    .tripId(UUID.randomUUID())
+                    .passengerId(UUID.randomUUID())
+                    .amount(new BigDecimal("45000"))
+                    .correlationId(UUID.randomUUID().toString())
+                    .build());
+        }
+        // El mismo evento dos veces en el poll
+        events.add(events.get(1));
+
+        RegisteredPayments registered = paymentService.registerPayments(events);
+
+        assertThat(registered.accepted()).hasSize(RESERVATIONS);
+        assertThat(registered.replayed()).isEmpty();
+        assertThat(count("SELECT COUNT(*) FROM payment_intents WHERE status = 'PENDING'")).isEqualTo(RESERVATIONS);
+        // Cada intento queda fijado a su pasarela antes de la primera llamada
+        assertThat(registered.accepted()).allMatch(payment -> payment.provider() == Providers.MOCK_BANK);
+        assertThat(count("SELECT COUNT(*) FROM payment_intents WHERE provider = 'MOCK_BANK'")).isEqualTo(RESERVATIONS);
+
+        // Cada 10 intentos uno rechazado por la pasarela
+        List<AuthorizationOutcome> outcomes = new ArrayList<>();
+        for (int i = 0; i < RESERVATIONS; i++) {
+            PendingPayment payment = registered.accepted().get(i);
+            outcomes.add(i % 10 == 0
+                    ? new AuthorizationOutcome(payment, Providers.MOCK_BANK, null, "Fondos insuficientes")
+                    : new AuthorizationOutcome(payment, Providers.MOCK_BANK, "ref-" + i, null));
+        }
+        List<PaymentResult> results = paymentService.completePayments(outcomes);
+
+        assertThat(results).hasSize(RESERVATIONS);
+        assertThat(results.stream().filter(PaymentResult::authorized).count())
+                .isEqualTo(RESERVATIONS - RESERVATIONS / 10);
+        assertThat(count("SELECT COUNT(*) FROM payment_intents WHERE status = 'FAILED'")).isEqualTo(RESERVATIONS / 10);
+        assertThat(count("SELECT COUNT(*) FROM charges")).isEqualTo(RESERVATIONS - RESERVATIONS / 10);
+
+        // Una respuesta repetida (hedge o recuperación) no se guarda ni se publica otra vez
+        assertThat(paymentService.completePayments(outcomes.subList(0, 10))).isEmpty();
+
+        // Guardados pero sin publicar: la recuperación devuelve el mismo resultado, no uno nuevo
+        List<PaymentResult> unpublished = paymentService.findUnpublished(
+                LocalDateTime.now().plusMinutes(1), RESERVATIONS * 2);
+        assertThat(unpublished).containsExactlyInAnyOrderElementsOf(results);
+        paymentService.markPublished(results.subList(0, RESERVATIONS / 2));
+        assertThat(paymentService.findUnpublished(LocalDateTime.now().plusMinutes(1), RESERVATIONS * 2))
+                .hasSize(RESERVATIONS - RESERVATIONS / 2);
+
+        // Reentrega del lote completo: nada nuevo en base de datos, mismos resultados
+        RegisteredPayments redelivered = paymentService.registerPayments(events);
+
+        assertThat(redelivered.accepted()).isEmpty();
+        assertThat(redelivered.replayed()).hasSize(RESERVATIONS);
+        assertThat(redelivered.replayed().stream().filter(PaymentResult::authorized).count())
+                .isEqualTo(RESERVATIONS - RESERVATIONS / 10);
+        assertThat(redelivered.replayed().get(1).chargeId()).isEqualTo(results.get(1).chargeId());
+        assertThat(redelivered.replayed().get(0).failureReason()).isEqualTo("Fondos insuficientes");
+        assertThat(count("SELECT COUNT(*) FROM payment_intents")).isEqualTo(RESERVATIONS);
+        assertThat(count("SELECT COUNT(*) FROM charges")).isEqualTo(RESERVATIONS - RESERVATIONS / 10);
+    }
+
+    @Test
+    void voidsALateAuthorizationOnce() {
+        ReservationEvents.ReservationRequested event = ReservationEvents.ReservationRequested.builder()
+                .reservationId(UUID.randomUUID())
+                .tripId(UUID.randomUUID())
+                .passengerId(UUID.randomUUID())
+                .amount(new BigDecimal("45000"))
+                .correlationId(UUID.randomUUID().toString())
+                .build();
+        PendingPayment payment = paymentService.registerPayments(List.of(event)).accepted().get(0);
+        paymentService.completePayments(List.of(new AuthorizationOutcome(payment, Providers.MOCK_BANK, "ref", null)));
+
+        // trip-service ya había expirado la reserva: pide anular el pago, y el evento llega dos veces
+        ReservationEvents.PaymentVoidRequested voidRequested = ReservationEvents.PaymentVoidRequested.builder()
+                .reservationId(event.getReservationId())
+                .reason("Reserva cancelada antes de recibir el pago")
+                .correlationId(event.getCorrelationId())
+                .build();
+        paymentVoider.voidPayment(voidRequested).join();
+        paymentVoider.voidPayment(voidRequested).join();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM payment_intents WHERE id = ?",
+                String.class, payment.paymentIntentId())).isEqualTo("CANCELLED");
+        assertThat(paymentService.findAuthorizedCharge(event.getReservationId())).isEmpty();
+    }
+
+    private int count(String sql) {
+        Integer value = jdbcTemplate.queryForObject(sql, Integer.class);
+        return value != null ? value : 0;
+    }
+}
@@ -0,0 +1,149 @@
+package org.ecoride.tripservice.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.ecoride.events.kafka.DeadLetterReplayer;
+import org.ecoride.events.kafka.RetryTopics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+
+import java.time.Duration;
+import java.util.Set;
+
+@Configuration
+public class KafkaConfig {
+
+    /**
+     * Sufijo de los topics de reintento de trip-service; constante porque la usan los
+     * @KafkaListener de los topics de reintento.
+     */
+    public static final String RETRY_SUFFIX = "-trip-retry";
+
+    /**
+     * Topics cuyos eventos fallidos reintenta trip-service (ver {@link RetryTopics}).
+     */
+    public static final Set<String> RETRIED_TOPICS = Set.of("payment-authorized", "payment-failed");
+
+    @Value("${spring.kafka.listener.concurrency:1}")
+    private int listenerConcurrency;
+
+    @Value("${trip.kafka.topic-partitions:6}")
+    private int topicPartitions;
+
+    @Value("${trip.kafka.retry.attempts:4}")
+    private int retryAttempts;
+
+    @Value("${trip.kafka.retry.initial-interval-ms:1000}")
+    private long retryInitialIntervalMs;
+
+    @Value("${trip.kafka.retry.multiplier:4}")
+    private double retryMultiplier;
+
+    @Value("${trip.kafka.retry.max-interval-ms:60000}")
+    private long retryMaxIntervalMs;
+
+    /**
+     * Entrega a los listeners todos los registros de un poll (hasta max-poll-records)
+     * para procesarlos en una sola transacción.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> batchKafkaListenerContainerFactory(
+            ConsumerFactory<String, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        // Los eventos van con clave reservationId: el orden por reserva se mantiene con varios hilos
+        factory.setConcurrency(listenerConcurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+
+    /**
+     * Contenedores registro a registro para los topics de reintento: cada fallo mueve
+     * solo ese registro al siguiente topic -backoff-N.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> retryKafkaListenerContainerFactory(
+            ConsumerFactory<String, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.RECORD);
+        return factory;
+    }
+
+    /**
+     * Reintentos no bloqueantes de los resultados de pago: payment-*-trip-retry, luego
+     * -backoff-0..N con espera exponencial y al final -dlt (ver {@link RetryTopics}).
+     * Si el propio DLT falla se registra y se sigue, para no crear un bucle.
+     */
+    @Bean
+    public RetryTopicConfiguration paymentRetryTopics(
+            RetryTopics retryTopics,
+            @Qualifier("retryKafkaListenerContainerFactory")
+            ConcurrentKafkaListenerContainerFactory<String, Object> retryKafkaListenerContainerFactory) {
+        return RetryTopicConfigurationBuilder.newInstance()
+                .includeTopics(retryTopics.retryTopics())
+                .maxAttempts(retryAttempts)
+                .exponentialBackoff(retryInitialIntervalMs, retryMultiplier, retryMaxIntervalMs)
+                .retryTopicSuffix(RetryTopics.BACKOFF_SUFFIX)
+                .dltSuffix(RetryTopics.DLT_SUFFIX)
+                .autoCreateTopicsWith(topicPartitions, (short) -1)
+                .listenerFactory(retryKafkaListenerContainerFactory)
+                .dltHandlerMethod("paymentRetryListener", "handleDeadLetter")
+                .doNotRetryOnDltFailure()
+                .create(retryTopics.template());
+    }
+
+    /**
+     * Reenvío de los listeners principales a los topics de reintento y template de la
+     * cadena -backoff-N / -dlt.
+     */
+    @Bean
+    public RetryTopics retryTopics(ProducerFactory<?, ?> producerFactory,
+                                   @Value("${trip.kafka.send-timeout-ms:10000}") long sendTimeoutMs) {
+        return new RetryTopics(RETRY_SUFFIX, RETRIED_TOPICS, producerFactory, Duration.ofMillis(sendTimeoutMs));
+    }
+
+    /**
+     * Reenvío en bloque de los DLT de trip-service (DeadLetterController).
+     */
+    @Bean
+    public DeadLetterReplayer deadLetterReplayer(
+            @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+            @Value("${trip.kafka.send-timeout-ms:10000}") long sendTimeoutMs) {
+        return DeadLetterReplayer.create(bootstrapServers, "trip-service-dlt-replay",
+                Duration.ofMillis(sendTimeoutMs));
+    }
+
+    //TOPICS PUBLICADOS POR TRIP-SERVICE
+
+    @Bean
+    public NewTopic reservationRequestedTopic() {
+        return TopicBuilder.name("reservation-requested").partitions(topicPartitions).build();
+    }
+
+    @Bean
+    public NewTopic reservationConfirmedTopic() {
+        return TopicBuilder.name("reservation-confirmed").partitions(topicPartitions).build();
+    }
+
+    @Bean
+    public NewTopic reservationCancelledTopic() {
+        return TopicBuilder.name("reservation-cancelled").partitions(topicPartitions).build();
+    }
+
+    @Bean
+    public NewTopic paymentVoidRequestedTopic() {
+        return TopicBuilder.name("payment-void-requested").partitions(topicPartitions).build();
+    }
+}
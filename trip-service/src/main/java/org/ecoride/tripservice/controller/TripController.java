@@ -5,17 +5,25 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.ecoride.tripservice.dto.BulkCreateTripsRequest;
+import org.ecoride.tripservice.dto.BulkCreateTripsResponse;
 import org.ecoride.tripservice.dto.CreateTripRequest;
 import org.ecoride.tripservice.dto.ReservationResponse;
+import org.ecoride.tripservice.dto.TripPageResponse;
 import org.ecoride.tripservice.dto.TripResponse;
+import org.ecoride.tripservice.service.TripImportService;
 import org.ecoride.tripservice.service.TripService;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -26,6 +34,8 @@ import java.util.UUID;
 public class TripController {
 
     private final TripService tripService;
+    private final TripImportService tripImportService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @Operation(summary = "Create a new trip (ROLE_DRIVER required)")
@@ -38,17 +48,52 @@ public class TripController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping("/bulk")
+    @Operation(summary = "Create many trips at once with per-item results (ROLE_DRIVER required)")
+    public ResponseEntity<BulkCreateTripsResponse> createTrips(
+            @Valid @RequestBody BulkCreateTripsRequest request,
+            @RequestHeader("X-User-Id") UUID driverId) {
+
+        log.info("POST /trips/bulk - Creating {} trips for driver: {}", request.getTrips().size(), driverId);
+        BulkCreateTripsResponse response = tripImportService.createTrips(request.getTrips(), driverId);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping
-    @Operation(summary = "Search trips")
-    public ResponseEntity<List<TripResponse>> searchTrips(
+    @Operation(summary = "Search trips (keyset pagination)")
+    public ResponseEntity<TripPageResponse> searchTrips(
             @RequestParam(required = false) String origin,
             @RequestParam(required = false) String destination,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
 
         log.info("GET /trips - Searching trips");
-        List<TripResponse> trips = tripService.searchTrips(origin, destination, from, to);
-        return ResponseEntity.ok(trips);
+        TripPageResponse page = tripService.searchTrips(origin, destination, from, to, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all matching trips as NDJSON")
+    public ResponseEntity<StreamingResponseBody> streamTrips(
+            @RequestParam(required = false) String origin,
+            @RequestParam(required = false) String destination,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+
+        log.info("GET /trips/stream - Streaming trips");
+        StreamingResponseBody body = out -> tripService.streamTrips(origin, destination, from, to, trip -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(trip));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @GetMapping("/{tripId}")
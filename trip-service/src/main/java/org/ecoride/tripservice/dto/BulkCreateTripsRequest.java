@@ -0,0 +1,23 @@
+package org.ecoride.tripservice.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Los viajes se validan uno a uno en el servicio: un viaje inválido no
+ * rechaza el resto del lote.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkCreateTripsRequest {
+
+    @NotEmpty(message = "Debe incluir al menos un viaje")
+    private List<CreateTripRequest> trips;
+}
@@ -0,0 +1,19 @@
+package org.ecoride.tripservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkCreateTripsResponse {
+
+    private int created;
+    private int rejected;
+    private List<BulkTripResult> results;
+}
@@ -0,0 +1,25 @@
+package org.ecoride.tripservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkTripResult {
+
+    public enum Status { CREATED, REJECTED }
+
+    // Posición del viaje en la petición
+    private int index;
+    private Status status;
+    private UUID tripId;
+    // campo -> mensaje, como en los errores de validación de un alta individual
+    private Map<String, String> errors;
+}
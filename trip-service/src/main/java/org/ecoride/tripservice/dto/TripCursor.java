@@ -0,0 +1,47 @@
+package org.ecoride.tripservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.ecoride.tripservice.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Cursor opaco para la paginación keyset de viajes: último (startTime, id) devuelto.
+ */
+@Getter
+@AllArgsConstructor
+public class TripCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime startTime;
+    private final UUID id;
+
+    public static TripCursor after(TripResponse trip) {
+        return new TripCursor(trip.getStartTime(), trip.getId());
+    }
+
+    public String encode() {
+        String raw = startTime + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TripCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new TripCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BusinessException("Cursor de paginación inválido");
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.ecoride.tripservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TripPageResponse {
+
+    private List<TripResponse> items;
+    private int size;
+    // null cuando no hay más resultados
+    private String nextCursor;
+}
@@ -2,79 +2,115 @@ package org.ecoride.tripservice.listener;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.ecoride.tripservice.events.ReservationEvents;
+import org.ecoride.events.ReservationEvents;
+import org.ecoride.events.kafka.RetryTopics;
+import org.ecoride.tripservice.exception.ResourceNotFoundException;
 import org.ecoride.tripservice.service.TripService;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
-import tools.jackson.databind.ObjectMapper;
 
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Consume los resultados de pago por lotes: cada poll se aplica en una sola
+ * transacción. Si el lote completo falla al hacer commit se reprocesa registro a
+ * registro, de modo que un mensaje problemático no arrastra al resto; los que vuelven
+ * a fallar por un error transitorio se reenvían a su topic de reintento
+ * ({@link RetryTopics}) y el lote se confirma igualmente. Los registros que no se
+ * pudieron decodificar llegan como null (ErrorHandlingDeserializer) y se descartan.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class PaymentEventListener {
 
+    private static final String TOPIC_PAYMENT_AUTHORIZED = "payment-authorized";
+    private static final String TOPIC_PAYMENT_FAILED = "payment-failed";
+
     private final TripService tripService;
-    private final ObjectMapper objectMapper;
+    private final RetryTopics retryTopics;
 
     @KafkaListener(
-            topics = "payment-authorized",
+            topics = TOPIC_PAYMENT_AUTHORIZED,
             groupId = "trip-service-group",
-            containerFactory = "kafkaListenerContainerFactory"
+            containerFactory = "batchKafkaListenerContainerFactory"
     )
     public void handlePaymentAuthorized(
-            @Payload String rawEvent,
+            @Payload List<ReservationEvents.PaymentAuthorized> polled,
             Acknowledgment acknowledgment) {
 
-        try {
-            // Deserializar el string al objeto real
-            ReservationEvents.PaymentAuthorized event =
-                    objectMapper.readValue(rawEvent, ReservationEvents.PaymentAuthorized.class);
-
-            log.info("[{}] Recibido PaymentAuthorized", event.getCorrelationId());
-
-            tripService.confirmReservation(
-                    event.getReservationId(),
-                    event.getCorrelationId()
-            );
-
-            acknowledgment.acknowledge();
+        List<ReservationEvents.PaymentAuthorized> events = decoded(polled, "PaymentAuthorized");
+        log.info("Recibido lote de {} eventos PaymentAuthorized", events.size());
 
+        try {
+            tripService.confirmReservations(events);
         } catch (Exception e) {
-            log.error("Error procesando evento PaymentAuthorized: {}", e.getMessage(), e);
+            log.error("Falló el lote PaymentAuthorized, reprocesando uno a uno: {}", e.getMessage(), e);
+            for (ReservationEvents.PaymentAuthorized event : events) {
+                try {
+                    tripService.confirmReservation(event.getReservationId(), event.getCorrelationId());
+                } catch (ResourceNotFoundException | IllegalStateException recordError) {
+                    log.warn("[{}] Evento PaymentAuthorized omitido: {}",
+                            event.getCorrelationId(), recordError.getMessage());
+                } catch (Exception recordError) {
+                    log.error("[{}] Error procesando evento PaymentAuthorized: {}",
+                            event.getCorrelationId(), recordError.getMessage(), recordError);
+                    retryTopics.forward(TOPIC_PAYMENT_AUTHORIZED, event.getReservationId().toString(), event);
+                }
+            }
         }
+
+        acknowledgment.acknowledge();
     }
 
 
     @KafkaListener(
-            topics = "payment-failed",
+            topics = TOPIC_PAYMENT_FAILED,
             groupId = "trip-service-group",
-            containerFactory = "kafkaListenerContainerFactory"
+            containerFactory = "batchKafkaListenerContainerFactory"
     )
-    public void handlePaymentFailed(String rawEvent, Acknowledgment acknowledgment) {
-
-        try {
-            // Convertir JSON → Evento
-            ReservationEvents.PaymentFailed event =
-                    objectMapper.readValue(rawEvent, ReservationEvents.PaymentFailed.class);
+    public void handlePaymentFailed(
+            @Payload List<ReservationEvents.PaymentFailed> polled,
+            Acknowledgment acknowledgment) {
 
-            log.warn("[{}] Recibido evento PaymentFailed para reserva: {}, reason: {}",
-                    event.getCorrelationId(), event.getReservationId(), event.getReason());
+        List<ReservationEvents.PaymentFailed> events = decoded(polled, "PaymentFailed");
+        log.warn("Recibido lote de {} eventos PaymentFailed", events.size());
 
-            // Ejecutar compensación
-            tripService.cancelReservation(
-                    event.getReservationId(),
-                    "PAYMENT_FAILED: " + event.getReason(),
-                    event.getCorrelationId()
-            );
+        // Ejecutar compensación
+        try {
+            tripService.cancelReservations(events);
+        } catch (Exception e) {
+            log.error("Falló el lote PaymentFailed, reprocesando uno a uno: {}", e.getMessage(), e);
+            for (ReservationEvents.PaymentFailed event : events) {
+                try {
+                    tripService.cancelReservation(
+                            event.getReservationId(),
+                            "PAYMENT_FAILED: " + event.getReason(),
+                            event.getCorrelationId()
+                    );
+                } catch (ResourceNotFoundException | IllegalStateException recordError) {
+                    log.warn("[{}] Evento PaymentFailed omitido: {}",
+                            event.getCorrelationId(), recordError.getMessage());
+                } catch (Exception recordError) {
+                    log.error("[{}] Error procesando evento PaymentFailed: {}",
+                            event.getCorrelationId(), recordError.getMessage(), recordError);
+                    retryTopics.forward(TOPIC_PAYMENT_FAILED, event.getReservationId().toString(), event);
+                }
+            }
+        }
 
-            acknowledgment.acknowledge();
-            log.info("[{}] Compensación completada: reserva cancelada y asiento liberado",
-                    event.getCorrelationId());
+        acknowledgment.acknowledge();
+        log.info("Compensación del lote completada: reservas canceladas y asientos liberados");
+    }
 
-        } catch (Exception e) {
-            log.error("Error procesando evento payment-failed desde rawEvent: {}", e.getMessage(), e);
+    private <T> List<T> decoded(List<T> polled, String type) {
+        List<T> events = polled.stream().filter(Objects::nonNull).toList();
+        if (events.size() < polled.size()) {
+            log.error("{} eventos {} inválidos en el lote, se descartan", polled.size() - events.size(), type);
         }
+        return events;
+    }
 }
-}
\ No newline at end of file
@@ -0,0 +1,62 @@
+package org.ecoride.tripservice.listener;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.ecoride.events.ReservationEvents;
+import org.ecoride.tripservice.config.KafkaConfig;
+import org.ecoride.tripservice.exception.ResourceNotFoundException;
+import org.ecoride.tripservice.service.TripService;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reintenta uno a uno los resultados de pago que {@link PaymentEventListener} no pudo
+ * aplicar. Si el reintento lanza, el registro pasa al siguiente topic -backoff-N (ver
+ * KafkaConfig#paymentRetryTopics) y, agotados los intentos, al DLT. Reserva inexistente
+ * o ya procesada no se reintenta: se omite como en el lote.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentRetryListener {
+
+    private final TripService tripService;
+
+    @KafkaListener(
+            topics = "payment-authorized" + KafkaConfig.RETRY_SUFFIX,
+            groupId = "trip-service-group",
+            containerFactory = "retryKafkaListenerContainerFactory"
+    )
+    public void retryPaymentAuthorized(@Payload ReservationEvents.PaymentAuthorized event) {
+        try {
+            tripService.confirmReservation(event.getReservationId(), event.getCorrelationId());
+        } catch (ResourceNotFoundException | IllegalStateException e) {
+            log.warn("[{}] Reintento de PaymentAuthorized omitido: {}", event.getCorrelationId(), e.getMessage());
+        }
+    }
+
+    @KafkaListener(
+            topics = "payment-failed" + KafkaConfig.RETRY_SUFFIX,
+            groupId = "trip-service-group",
+            containerFactory = "retryKafkaListenerContainerFactory"
+    )
+    public void retryPaymentFailed(@Payload ReservationEvents.PaymentFailed event) {
+        try {
+            tripService.cancelReservation(event.getReservationId(),
+                    "PAYMENT_FAILED: " + event.getReason(), event.getCorrelationId());
+        } catch (ResourceNotFoundException | IllegalStateException e) {
+            log.warn("[{}] Reintento de PaymentFailed omitido: {}", event.getCorrelationId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Destino final tras agotar los reintentos; el registro queda en el DLT para
+     * reenviarlo con POST /admin/dead-letters/{topic}/replay.
+     */
+    public void handleDeadLetter(@Payload Object event, @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
+        log.error("Evento agotó sus reintentos y quedó en {}: {}", topic, event);
+    }
+}
@@ -0,0 +1,41 @@
+package org.ecoride.tripservice.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Evento pendiente de publicar en Kafka, escrito en la misma transacción que el
+ * cambio de negocio que lo origina.
+ */
+@Entity
+@Table(name = "outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false, length = 100)
+    private String topic;
+
+    // Clave de partición: todos los eventos de una reserva van a la misma partición
+    @Column(name = "message_key", length = 100)
+    private String messageKey;
+
+    // Evento ya codificado con EventCodec: el relay lo envía tal cual
+    @Column(nullable = false, columnDefinition = "BYTEA")
+    private byte[] payload;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
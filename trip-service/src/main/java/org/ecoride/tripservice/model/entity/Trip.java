@@ -3,6 +3,8 @@ package org.ecoride.tripservice.model.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import org.ecoride.tripservice.model.enums.TripStatus;
+import org.ecoride.tripservice.model.listener.TripEntityListener;
+import org.ecoride.tripservice.util.SearchTextNormalizer;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.annotations.JdbcTypeCode;
@@ -16,6 +18,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "trips")
+@EntityListeners(TripEntityListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -39,6 +42,13 @@ public class Trip {
     @JdbcTypeCode(SqlTypes.VARCHAR)
     private String destination;
 
+    // Versiones normalizadas usadas por la búsqueda (índices trigram/prefijo)
+    @Column(name = "origin_normalized", nullable = false, length = 500)
+    private String originNormalized;
+
+    @Column(name = "destination_normalized", nullable = false, length = 500)
+    private String destinationNormalized;
+
     @Column(nullable = false)
     private LocalDateTime startTime;
 
@@ -70,6 +80,13 @@ public class Trip {
     @Version
     private Long version;
 
+    @PrePersist
+    @PreUpdate
+    void normalizeSearchFields() {
+        this.originNormalized = SearchTextNormalizer.normalize(origin);
+        this.destinationNormalized = SearchTextNormalizer.normalize(destination);
+    }
+
     public boolean hasAvailableSeats() {
         return seatsAvailable > 0 && status == TripStatus.ACTIVE;
     }
@@ -0,0 +1,10 @@
+package org.ecoride.tripservice.model.event;
+
+import java.util.UUID;
+
+/**
+ * Un viaje se modificó o se borró a través de la entidad. Lo publica
+ * {@link org.ecoride.tripservice.model.listener.TripEntityListener}.
+ */
+public record TripChangedEvent(UUID tripId) {
+}
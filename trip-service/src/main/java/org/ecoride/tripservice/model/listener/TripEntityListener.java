@@ -0,0 +1,28 @@
+package org.ecoride.tripservice.model.listener;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.ecoride.tripservice.model.entity.Trip;
+import org.ecoride.tripservice.model.event.TripChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publica un {@link TripChangedEvent} por cada viaje modificado o borrado a través de
+ * JPA, para que las cachés se enteren sin que el modelo dependa de ellas. Hibernate
+ * obtiene este listener del contexto de Spring; el evento se entrega en el mismo hilo,
+ * dentro de la transacción que hizo el cambio.
+ */
+@Component
+@RequiredArgsConstructor
+public class TripEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostUpdate
+    @PostRemove
+    void tripChanged(Trip trip) {
+        eventPublisher.publishEvent(new TripChangedEvent(trip.getId()));
+    }
+}
@@ -3,10 +3,13 @@ package org.ecoride.tripservice.repository;
 import org.ecoride.tripservice.model.entity.Reservation;
 import org.ecoride.tripservice.model.enums.ReservationStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -24,12 +27,29 @@ public interface ReservationRepository extends JpaRepository<Reservation, UUID>
             @Param("passengerId") UUID passengerId
     );
 
-    @Query("SELECT COUNT(r) > 0 FROM Reservation r " +
-            "WHERE r.trip.id = :tripId " +
-            "AND r.passengerId = :passengerId " +
-            "AND r.status IN ('PENDING', 'CONFIRMED')")
-    boolean existsActiveReservation(
-            @Param("tripId") UUID tripId,
-            @Param("passengerId") UUID passengerId
-    );
+    // Recorre idx_reservations_pending_created; SKIP LOCKED reparte el trabajo entre réplicas
+    @Query(value = """
+            SELECT id, trip_id AS tripId, passenger_id AS passengerId FROM reservations
+            WHERE status = 'PENDING' AND created_at < :cutoff
+            ORDER BY created_at, id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<PendingReservation> lockExpiredPending(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    // Incrementa la versión: un PaymentAuthorized concurrente falla por bloqueo optimista
+    @Modifying
+    @Query(value = """
+            UPDATE reservations SET status = 'CANCELLED', updated_at = now(), version = version + 1
+            WHERE id IN (:ids) AND status = 'PENDING'
+            """, nativeQuery = true)
+    int cancelPending(@Param("ids") Collection<UUID> ids);
+
+    interface PendingReservation {
+        UUID getId();
+
+        UUID getTripId();
+
+        UUID getPassengerId();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package org.ecoride.tripservice.repository;
+
+import org.ecoride.tripservice.model.entity.Trip;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Operaciones masivas sobre viajes: altas con el batching JDBC de Hibernate y
+ * devolución de asientos en una sola sentencia.
+ */
+public interface TripBulkRepository {
+
+    /**
+     * Persiste los viajes vaciando el contexto de persistencia cada
+     * hibernate.jdbc.batch_size filas. Debe llamarse dentro de una transacción.
+     */
+    void insertAll(List<Trip> trips);
+
+    /**
+     * Suma los asientos liberados a cada viaje (sin pasar de seats_total) con un único
+     * UPDATE. No incrementa la versión, igual que el resto de cambios de asientos.
+     *
+     * @return viajes actualizados
+     */
+    int releaseSeats(Map<UUID, Integer> seatsByTrip);
+}
@@ -0,0 +1,61 @@
+package org.ecoride.tripservice.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.ecoride.tripservice.model.entity.Trip;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class TripBulkRepositoryImpl implements TripBulkRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}")
+    private int batchSize;
+
+    @Override
+    public void insertAll(List<Trip> trips) {
+        // Los ids UUID se generan en memoria, así que los INSERT se pueden agrupar
+        for (int i = 0; i < trips.size(); i++) {
+            entityManager.persist(trips.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    public int releaseSeats(Map<UUID, Integer> seatsByTrip) {
+        if (seatsByTrip.isEmpty()) {
+            return 0;
+        }
+        // Orden fijo de viajes para que dos liberaciones concurrentes no se bloqueen en cruz
+        UUID[] tripIds = seatsByTrip.keySet().stream().sorted().toArray(UUID[]::new);
+        Integer[] seats = new Integer[tripIds.length];
+        for (int i = 0; i < tripIds.length; i++) {
+            seats[i] = seatsByTrip.get(tripIds[i]);
+        }
+
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("""
+                    UPDATE trips t
+                    SET seats_available = LEAST(t.seats_total, t.seats_available + r.released)
+                    FROM unnest(?, ?) AS r(trip_id, released)
+                    WHERE t.id = r.trip_id
+                    """)) {
+                statement.setArray(1, connection.createArrayOf("uuid", tripIds));
+                statement.setArray(2, connection.createArrayOf("integer", seats));
+                return statement.executeUpdate();
+            }
+        });
+    }
+}
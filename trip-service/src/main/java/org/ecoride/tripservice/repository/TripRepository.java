@@ -3,38 +3,25 @@ package org.ecoride.tripservice.repository;
 import org.ecoride.tripservice.model.entity.Trip;
 import org.ecoride.tripservice.model.enums.TripStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface TripRepository extends JpaRepository<Trip, UUID> {
+public interface TripRepository extends JpaRepository<Trip, UUID>, JpaSpecificationExecutor<Trip>,
+        TripSearchRepository, TripBulkRepository {
 
     List<Trip> findByDriverIdAndStatus(UUID driverId, TripStatus status);
 
-    @Query("""
-        SELECT t FROM Trip t
-        WHERE t.status = :status
-        AND lower(t.origin) LIKE lower(CONCAT('%', COALESCE(:origin, ''), '%'))
-        AND lower(t.destination) LIKE lower(CONCAT('%', COALESCE(:destination, ''), '%'))
-        AND t.startTime >= COALESCE(:from, t.startTime)
-        AND t.startTime <= COALESCE(:to, t.startTime)
-        AND t.seatsAvailable > 0
-        ORDER BY t.startTime
-        """)
-    List<Trip> searchTrips(
-            @Param("origin") String origin,
-            @Param("destination") String destination,
-            @Param("from") LocalDateTime from,
-            @Param("to") LocalDateTime to,
-            @Param("status") TripStatus status
-    );
-
-
     @Query("SELECT t FROM Trip t WHERE t.driverId = :driverId " +
             "AND t.startTime BETWEEN :start AND :end")
     List<Trip> findDriverTripsInRange(
@@ -42,4 +29,41 @@ public interface TripRepository extends JpaRepository<Trip, UUID> {
             @Param("start") LocalDateTime start,
             @Param("end") LocalDateTime end
     );
-}
\ No newline at end of file
+
+    @Query(value = """
+            SELECT CAST(t.seats_total - (
+                SELECT COUNT(*) FROM reservations r
+                WHERE r.trip_id = t.id AND r.status IN ('PENDING', 'CONFIRMED')
+            ) AS integer)
+            FROM trips t
+            WHERE t.id = :tripId AND t.status = 'ACTIVE'
+            """, nativeQuery = true)
+    Optional<Integer> countRemainingSeats(@Param("tripId") UUID tripId);
+
+    // No incrementa la versión: seats_available es una vista derivada de las reservas activas
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE trips t
+            SET seats_available = t.seats_total - (
+                SELECT COUNT(*) FROM reservations r
+                WHERE r.trip_id = t.id AND r.status IN ('PENDING', 'CONFIRMED')
+            )
+            WHERE t.id IN (:tripIds)
+            """, nativeQuery = true)
+    int syncSeatsAvailable(@Param("tripIds") Collection<UUID> tripIds);
+
+    @Modifying
+    @Query(value = """
+            UPDATE trips SET seats_available = seats_available - 1
+            WHERE id = :tripId AND seats_available > 0 AND status = 'ACTIVE'
+            """, nativeQuery = true)
+    int decrementSeatIfAvailable(@Param("tripId") UUID tripId);
+
+    @Modifying
+    @Query(value = """
+            UPDATE trips SET seats_available = seats_available + 1
+            WHERE id = :tripId AND seats_available < seats_total
+            """, nativeQuery = true)
+    int incrementSeat(@Param("tripId") UUID tripId);
+}
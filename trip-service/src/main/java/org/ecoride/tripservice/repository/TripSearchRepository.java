@@ -0,0 +1,23 @@
+package org.ecoride.tripservice.repository;
+
+import org.ecoride.tripservice.dto.TripResponse;
+import org.ecoride.tripservice.model.entity.Trip;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Búsquedas de viajes que proyectan directamente a {@link TripResponse},
+ * sin cargar entidades en el contexto de persistencia.
+ */
+public interface TripSearchRepository {
+
+    List<TripResponse> searchPage(Specification<Trip> spec, int limit);
+
+    /**
+     * Debe consumirse dentro de una transacción y cerrarse al terminar:
+     * las filas se leen desde un cursor JDBC en bloques de fetch size.
+     */
+    Stream<TripResponse> streamSearch(Specification<Trip> spec);
+}
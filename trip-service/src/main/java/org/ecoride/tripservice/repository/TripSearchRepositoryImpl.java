@@ -0,0 +1,59 @@
+package org.ecoride.tripservice.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.ecoride.tripservice.dto.TripResponse;
+import org.ecoride.tripservice.model.entity.Trip;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public class TripSearchRepositoryImpl implements TripSearchRepository {
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TripResponse> searchPage(Specification<Trip> spec, int limit) {
+        return buildQuery(spec)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<TripResponse> streamSearch(Specification<Trip> spec) {
+        return buildQuery(spec)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream();
+    }
+
+    private TypedQuery<TripResponse> buildQuery(Specification<Trip> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TripResponse> query = cb.createQuery(TripResponse.class);
+        Root<Trip> root = query.from(Trip.class);
+
+        query.select(cb.construct(TripResponse.class,
+                        root.get("id"),
+                        root.get("driverId"),
+                        root.get("origin"),
+                        root.get("destination"),
+                        root.get("startTime"),
+                        root.get("seatsTotal"),
+                        root.get("seatsAvailable"),
+                        root.get("price"),
+                        root.get("status"),
+                        root.get("createdAt")))
+                .where(spec.toPredicate(root, query, cb))
+                .orderBy(cb.asc(root.get("startTime")), cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query);
+    }
+}
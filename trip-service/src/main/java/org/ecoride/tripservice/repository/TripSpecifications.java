@@ -0,0 +1,89 @@
+package org.ecoride.tripservice.repository;
+
+import org.ecoride.tripservice.dto.TripCursor;
+import org.ecoride.tripservice.model.entity.Trip;
+import org.ecoride.tripservice.model.enums.TripStatus;
+import org.ecoride.tripservice.util.SearchTextNormalizer;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Construye la consulta de búsqueda de viajes agregando solo los filtros
+ * que vienen en la petición, para que Postgres pueda usar los índices
+ * parciales y trigram en lugar de evaluar COALESCE/LIKE sobre toda la tabla.
+ */
+public final class TripSpecifications {
+
+    /**
+     * Por debajo de este largo los trigramas no filtran nada, así que se
+     * busca por prefijo (índice varchar_pattern_ops).
+     */
+    static final int MIN_CONTAINS_LENGTH = 3;
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private TripSpecifications() {
+    }
+
+    public static Specification<Trip> search(String origin, String destination,
+                                             LocalDateTime from, LocalDateTime to) {
+        List<Specification<Trip>> filters = new ArrayList<>();
+        filters.add(isBookable());
+
+        if (StringUtils.hasText(origin)) {
+            filters.add(matches("originNormalized", origin));
+        }
+        if (StringUtils.hasText(destination)) {
+            filters.add(matches("destinationNormalized", destination));
+        }
+        if (from != null) {
+            filters.add((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("startTime"), from));
+        }
+        if (to != null) {
+            filters.add((root, query, cb) -> cb.lessThanOrEqualTo(root.get("startTime"), to));
+        }
+
+        return Specification.allOf(filters);
+    }
+
+    /**
+     * Keyset sobre (startTime, id), alineado con el orden del índice idx_trips_bookable_start.
+     */
+    public static Specification<Trip> after(TripCursor cursor) {
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("startTime"), cursor.getStartTime()),
+                cb.and(
+                        cb.equal(root.get("startTime"), cursor.getStartTime()),
+                        cb.greaterThan(root.get("id"), cursor.getId())
+                )
+        );
+    }
+
+    /**
+     * Mismo predicado que el índice parcial idx_trips_bookable_start.
+     */
+    static Specification<Trip> isBookable() {
+        return (root, query, cb) -> cb.and(
+                cb.equal(root.get("status"), TripStatus.ACTIVE),
+                cb.greaterThan(root.get("seatsAvailable"), 0)
+        );
+    }
+
+    private static Specification<Trip> matches(String attribute, String term) {
+        String normalized = escapeLike(SearchTextNormalizer.normalize(term));
+        String pattern = normalized.length() < MIN_CONTAINS_LENGTH
+                ? normalized + "%"
+                : "%" + normalized + "%";
+        return (root, query, cb) -> cb.like(root.get(attribute), pattern, LIKE_ESCAPE);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -0,0 +1,41 @@
+package org.ecoride.tripservice.service;
+
+import org.ecoride.tripservice.model.entity.Trip;
+import org.ecoride.tripservice.model.enums.TripStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Copia inmutable de un Trip guardada en {@link TripCache}. Nunca se vuelve a
+ * asociar a una sesión, así que la versión cacheada no puede acabar en un merge.
+ */
+record CachedTrip(
+        UUID id,
+        UUID driverId,
+        String origin,
+        String destination,
+        LocalDateTime startTime,
+        int seatsTotal,
+        int seatsAvailable,
+        BigDecimal price,
+        TripStatus status,
+        LocalDateTime createdAt,
+        Long version) {
+
+    static CachedTrip of(Trip trip) {
+        return new CachedTrip(
+                trip.getId(),
+                trip.getDriverId(),
+                trip.getOrigin(),
+                trip.getDestination(),
+                trip.getStartTime(),
+                trip.getSeatsTotal(),
+                trip.getSeatsAvailable(),
+                trip.getPrice(),
+                trip.getStatus(),
+                trip.getCreatedAt(),
+                trip.getVersion());
+    }
+}
@@ -0,0 +1,51 @@
+package org.ecoride.tripservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.ecoride.tripservice.repository.TripRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+/**
+ * Reserva asientos con un UPDATE condicional sobre trips: una sola ida a la base de
+ * datos, sin incrementar @Version y seguro con varias réplicas.
+ */
+@Component
+@ConditionalOnProperty(name = "trip.seat-inventory.mode", havingValue = "database", matchIfMissing = true)
+@RequiredArgsConstructor
+public class DatabaseSeatInventory implements SeatInventory {
+
+    private final TripRepository tripRepository;
+    private final TripCache tripCache;
+
+    @Override
+    public boolean tryReserve(UUID tripId) {
+        if (tripRepository.decrementSeatIfAvailable(tripId) == 1) {
+            tripCache.evictAfterCommit(tripId);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void release(UUID tripId) {
+        if (tripRepository.incrementSeat(tripId) == 1) {
+            tripCache.evictAfterCommit(tripId);
+        }
+    }
+
+    @Override
+    public void releaseAll(Map<UUID, Integer> seatsByTrip) {
+        tripRepository.releaseSeats(seatsByTrip);
+        seatsByTrip.keySet().forEach(tripCache::evictAfterCommit);
+    }
+
+    @Override
+    public OptionalInt availableSeats(UUID tripId) {
+        // trips.seats_available ya es el valor vigente
+        return OptionalInt.empty();
+    }
+}
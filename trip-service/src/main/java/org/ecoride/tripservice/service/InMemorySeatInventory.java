@@ -0,0 +1,208 @@
+package org.ecoride.tripservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ecoride.tripservice.repository.TripRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Inventario de asientos en memoria: un contador atómico por viaje, reservado con CAS.
+ *
+ * La fuente de verdad sigue siendo la tabla reservations: el contador se carga como
+ * seats_total - reservas activas y la columna trips.seats_available se recalcula en
+ * lote cada pocos milisegundos para los viajes que cambiaron. Asume que las reservas
+ * de un viaje pasan por una sola instancia; con varias réplicas sin afinidad usar
+ * {@link DatabaseSeatInventory}.
+ */
+@Component
+@ConditionalOnProperty(name = "trip.seat-inventory.mode", havingValue = "memory")
+@Slf4j
+public class InMemorySeatInventory implements SeatInventory {
+
+    // Marca un slot desalojado; quien lo vea debe recargarlo
+    private static final int RETIRED = Integer.MIN_VALUE;
+
+    private final TripRepository tripRepository;
+    private final TripCache tripCache;
+    private final long idleEvictionNanos;
+
+    private final Map<UUID, SeatSlot> slots = new ConcurrentHashMap<>();
+    private final Set<UUID> dirtyTrips = ConcurrentHashMap.newKeySet();
+
+    public InMemorySeatInventory(TripRepository tripRepository,
+                                 TripCache tripCache,
+                                 @Value("${trip.seat-inventory.idle-eviction-minutes:10}") long idleEvictionMinutes) {
+        this.tripRepository = tripRepository;
+        this.tripCache = tripCache;
+        this.idleEvictionNanos = TimeUnit.MINUTES.toNanos(idleEvictionMinutes);
+    }
+
+    /**
+     * Toma un asiento si queda alguno. Si la transacción actual hace rollback el
+     * asiento se devuelve al contador.
+     */
+    @Override
+    public boolean tryReserve(UUID tripId) {
+        while (true) {
+            SeatSlot slot = slotFor(tripId);
+            int current = slot.available.get();
+            if (current == RETIRED) {
+                slots.remove(tripId, slot);
+                continue;
+            }
+            if (current <= 0) {
+                return false;
+            }
+            if (slot.available.compareAndSet(current, current - 1)) {
+                slot.touch();
+                afterCompletion(committed -> {
+                    if (committed) {
+                        dirtyTrips.add(tripId);
+                    } else {
+                        increment(tripId);
+                    }
+                });
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Devuelve un asiento al inventario una vez confirmada la transacción.
+     */
+    @Override
+    public void release(UUID tripId) {
+        afterCompletion(committed -> {
+            if (committed) {
+                increment(tripId);
+                dirtyTrips.add(tripId);
+            }
+        });
+    }
+
+    @Override
+    public void releaseAll(Map<UUID, Integer> seatsByTrip) {
+        afterCompletion(committed -> {
+            if (committed) {
+                seatsByTrip.forEach((tripId, seats) -> {
+                    for (int i = 0; i < seats; i++) {
+                        increment(tripId);
+                    }
+                });
+                dirtyTrips.addAll(seatsByTrip.keySet());
+            }
+        });
+    }
+
+    @Override
+    public OptionalInt availableSeats(UUID tripId) {
+        SeatSlot slot = slots.get(tripId);
+        if (slot == null) {
+            return OptionalInt.empty();
+        }
+        int current = slot.available.get();
+        return current == RETIRED ? OptionalInt.empty() : OptionalInt.of(current);
+    }
+
+    /**
+     * Recalcula seats_available de todos los viajes modificados en un único UPDATE.
+     */
+    @Scheduled(fixedDelayString = "${trip.seat-inventory.flush-interval-ms:200}")
+    public void flush() {
+        if (dirtyTrips.isEmpty()) {
+            return;
+        }
+
+        List<UUID> tripIds = new ArrayList<>(dirtyTrips.size());
+        for (UUID tripId : dirtyTrips) {
+            if (dirtyTrips.remove(tripId)) {
+                tripIds.add(tripId);
+            }
+        }
+
+        try {
+            tripRepository.syncSeatsAvailable(tripIds);
+            // Sin slot en memoria, getTripById vuelve a leer seats_available de la caché
+            tripCache.evict(tripIds);
+            log.debug("Inventario sincronizado para {} viajes", tripIds.size());
+        } catch (RuntimeException e) {
+            dirtyTrips.addAll(tripIds);
+            log.error("Error sincronizando inventario de asientos: {}", e.getMessage(), e);
+        }
+    }
+
+    private void increment(UUID tripId) {
+        SeatSlot slot = slots.get(tripId);
+        if (slot == null) {
+            // Sin slot en memoria: la próxima carga ya parte de la base de datos
+            return;
+        }
+        slot.available.getAndUpdate(current -> current == RETIRED ? RETIRED : current + 1);
+    }
+
+    private SeatSlot slotFor(UUID tripId) {
+        return slots.computeIfAbsent(tripId, id -> new SeatSlot(
+                tripRepository.countRemainingSeats(id).orElse(0)));
+    }
+
+    /**
+     * Desaloja los viajes sin actividad reciente para que el mapa no crezca sin límite.
+     */
+    @Scheduled(fixedDelayString = "${trip.seat-inventory.eviction-interval-ms:60000}")
+    public void evictIdleSlots() {
+        long now = System.nanoTime();
+        slots.forEach((tripId, slot) -> {
+            int current = slot.available.get();
+            if (now - slot.lastAccessNanos > idleEvictionNanos
+                    && current != RETIRED
+                    && slot.available.compareAndSet(current, RETIRED)) {
+                slots.remove(tripId, slot);
+            }
+        });
+    }
+
+    private static void afterCompletion(CompletionCallback callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.onCompletion(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.onCompletion(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface CompletionCallback {
+        void onCompletion(boolean committed);
+    }
+
+    private static final class SeatSlot {
+        private final AtomicInteger available;
+        private volatile long lastAccessNanos = System.nanoTime();
+
+        private SeatSlot(int available) {
+            this.available = new AtomicInteger(available);
+        }
+
+        private void touch() {
+            lastAccessNanos = System.nanoTime();
+        }
+    }
+}
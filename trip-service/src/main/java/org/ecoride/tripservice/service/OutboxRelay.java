@@ -0,0 +1,80 @@
+package org.ecoride.tripservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ecoride.tripservice.model.entity.OutboxEvent;
+import org.ecoride.tripservice.repository.OutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publica en lotes los eventos del outbox. Cada lote se bloquea con SKIP LOCKED,
+ * se envía completo al productor (que agrupa y comprime) y solo se borra cuando
+ * Kafka confirmó todos los envíos; si algo falla el lote se reintenta.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxRepository outboxRepository;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       KafkaTemplate<String, byte[]> kafkaTemplate,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${outbox.relay.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:100}")
+    public void relay() {
+        try {
+            Integer published;
+            do {
+                published = transactionTemplate.execute(status -> publishBatch());
+            } while (published != null && published == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Error publicando eventos del outbox: {}", e.getMessage(), e);
+        }
+    }
+
+    private int publishBatch() {
+        List<OutboxEvent> batch = outboxRepository.lockNextBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        CompletableFuture<?>[] sends = batch.stream()
+                .map(event -> kafkaTemplate.send(event.getTopic(), event.getMessageKey(), event.getPayload()))
+                .toArray(CompletableFuture[]::new);
+
+        try {
+            CompletableFuture.allOf(sends).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Publicación del outbox interrumpida", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Kafka no confirmó el lote del outbox", e);
+        }
+
+        outboxRepository.deleteAllInBatch(batch);
+        log.debug("Outbox: {} eventos publicados", batch.size());
+        return batch.size();
+    }
+}
@@ -0,0 +1,31 @@
+package org.ecoride.tripservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.ecoride.events.codec.EventCodec;
+import org.ecoride.tripservice.model.entity.OutboxEvent;
+import org.ecoride.tripservice.repository.OutboxRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxRepository outboxRepository;
+
+    /**
+     * Registra el evento en la transacción en curso; {@link OutboxRelay} lo publica
+     * después del commit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String topic, UUID key, Object event) {
+        outboxRepository.save(OutboxEvent.builder()
+                .topic(topic)
+                .messageKey(key.toString())
+                .payload(EventCodec.encode(event))
+                .build());
+    }
+}
@@ -0,0 +1,104 @@
+package org.ecoride.tripservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ecoride.events.ReservationEvents;
+import org.ecoride.tripservice.repository.ReservationRepository;
+import org.ecoride.tripservice.repository.ReservationRepository.PendingReservation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Cancela las reservas que siguen PENDING pasado trip.reservation-expiry.pending-timeout
+ * (payment-service no respondió o el mensaje se perdió) y devuelve sus asientos.
+ * <p>
+ * Trabaja por lotes cortos, cada uno en su transacción: reclama las reservas con
+ * SKIP LOCKED (varias réplicas se reparten el trabajo sin esperarse), las cancela con
+ * un UPDATE, devuelve los asientos con otro UPDATE por lote y deja los
+ * ReservationCancelled en el outbox. Las filas de trips solo se bloquean lo que dura
+ * un lote, aunque haya un atasco de miles de reservas.
+ */
+@Component
+@Slf4j
+public class PendingReservationSweeper {
+
+    private static final String TOPIC_RESERVATION_CANCELLED = "reservation-cancelled";
+    private static final String EXPIRED_REASON = "EXPIRED: pago sin respuesta";
+
+    private final ReservationRepository reservationRepository;
+    private final SeatInventory seatInventory;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration pendingTimeout;
+    private final int batchSize;
+
+    public PendingReservationSweeper(ReservationRepository reservationRepository,
+                                     SeatInventory seatInventory,
+                                     OutboxService outboxService,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${trip.reservation-expiry.pending-timeout:15m}") Duration pendingTimeout,
+                                     @Value("${trip.reservation-expiry.batch-size:500}") int batchSize) {
+        this.reservationRepository = reservationRepository;
+        this.seatInventory = seatInventory;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.pendingTimeout = pendingTimeout;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${trip.reservation-expiry.sweep-interval-ms:30000}")
+    public void sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(pendingTimeout);
+        int total = 0;
+        try {
+            Integer expired;
+            do {
+                expired = transactionTemplate.execute(status -> expireBatch(cutoff));
+                total += expired != null ? expired : 0;
+            } while (expired != null && expired == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Error expirando reservas pendientes: {}", e.getMessage(), e);
+        }
+        if (total > 0) {
+            log.info("{} reservas pendientes expiradas (creadas antes de {})", total, cutoff);
+        }
+    }
+
+    private int expireBatch(LocalDateTime cutoff) {
+        List<PendingReservation> expired = reservationRepository.lockExpiredPending(cutoff, batchSize);
+        if (expired.isEmpty()) {
+            return 0;
+        }
+
+        reservationRepository.cancelPending(expired.stream().map(PendingReservation::getId).toList());
+
+        Map<UUID, Integer> seatsByTrip = new HashMap<>();
+        for (PendingReservation reservation : expired) {
+            seatsByTrip.merge(reservation.getTripId(), 1, Integer::sum);
+        }
+        seatInventory.releaseAll(seatsByTrip);
+
+        // Con hibernate.jdbc.batch_size los INSERT del outbox salen agrupados en el commit
+        for (PendingReservation reservation : expired) {
+            outboxService.enqueue(TOPIC_RESERVATION_CANCELLED, reservation.getId(),
+                    ReservationEvents.ReservationCancelled.builder()
+                            .reservationId(reservation.getId())
+                            .tripId(reservation.getTripId())
+                            .passengerId(reservation.getPassengerId())
+                            .reason(EXPIRED_REASON)
+                            .correlationId(UUID.randomUUID().toString())
+                            .build());
+        }
+
+        log.debug("Lote de {} reservas expiradas en {} viajes", expired.size(), seatsByTrip.size());
+        return expired.size();
+    }
+}
@@ -0,0 +1,31 @@
+package org.ecoride.tripservice.service;
+
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+/**
+ * Reserva y libera asientos de un viaje sin cargar ni guardar la entidad Trip.
+ * La implementación se elige con trip.seat-inventory.mode (database | memory).
+ */
+public interface SeatInventory {
+
+    /**
+     * @return false si el viaje no existe, no está activo o no quedan asientos
+     */
+    boolean tryReserve(UUID tripId);
+
+    void release(UUID tripId);
+
+    /**
+     * Devuelve de una vez los asientos de varias reservas canceladas en la transacción actual.
+     *
+     * @param seatsByTrip asientos liberados por viaje
+     */
+    void releaseAll(Map<UUID, Integer> seatsByTrip);
+
+    /**
+     * Asientos disponibles si la implementación va por delante de trips.seats_available.
+     */
+    OptionalInt availableSeats(UUID tripId);
+}
@@ -0,0 +1,87 @@
+package org.ecoride.tripservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.ecoride.tripservice.model.event.TripChangedEvent;
+import org.ecoride.tripservice.repository.TripRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Caché de lectura de viajes para getTripById y createReservation.
+ * <p>
+ * Los asientos se cambian con UPDATE nativos que no incrementan @Version, así que la
+ * versión no sirve para detectar entradas obsoletas: quien cambia asientos llama a
+ * {@link #evictAfterCommit(UUID)}. Los cambios hechos a través de la entidad (que sí
+ * incrementan @Version) llegan como {@link TripChangedEvent} y se desalojan igual.
+ * Una carga en curso bloquea el desalojo de su clave hasta terminar, por lo que no
+ * puede quedar guardada una lectura anterior al commit.
+ * <p>
+ * El desalojo es local: con varias réplicas en modo database, las demás pueden servir
+ * asientos de hace como mucho trip.cache.ttl.
+ */
+@Component
+public class TripCache {
+
+    private final TripRepository tripRepository;
+    private final Cache<UUID, CachedTrip> trips;
+
+    public TripCache(TripRepository tripRepository,
+                     @Value("${trip.cache.max-size:10000}") long maxSize,
+                     @Value("${trip.cache.ttl:30s}") Duration ttl,
+                     MeterRegistry meterRegistry) {
+        this.tripRepository = tripRepository;
+        this.trips = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, trips, "trips");
+    }
+
+    Optional<CachedTrip> get(UUID tripId) {
+        // Caffeine no guarda los null: un viaje inexistente se vuelve a consultar
+        return Optional.ofNullable(trips.get(tripId,
+                id -> tripRepository.findById(id).map(CachedTrip::of).orElse(null)));
+    }
+
+    @EventListener
+    void onTripChanged(TripChangedEvent event) {
+        evictAfterCommit(event.tripId());
+    }
+
+    /**
+     * Desaloja el viaje cuando la transacción actual confirma (o ya, si no hay ninguna).
+     * Tras un rollback no hace falta: la base de datos no cambió.
+     */
+    public void evictAfterCommit(UUID tripId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            trips.invalidate(tripId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                trips.invalidate(tripId);
+            }
+        });
+    }
+
+    public void evict(Collection<UUID> tripIds) {
+        trips.invalidateAll(tripIds);
+    }
+
+    public void clear() {
+        trips.invalidateAll();
+    }
+}
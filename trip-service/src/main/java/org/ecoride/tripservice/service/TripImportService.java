@@ -0,0 +1,151 @@
+package org.ecoride.tripservice.service;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.ecoride.tripservice.dto.BulkCreateTripsResponse;
+import org.ecoride.tripservice.dto.BulkTripResult;
+import org.ecoride.tripservice.dto.CreateTripRequest;
+import org.ecoride.tripservice.exception.BusinessException;
+import org.ecoride.tripservice.model.entity.Trip;
+import org.ecoride.tripservice.model.enums.TripStatus;
+import org.ecoride.tripservice.repository.TripRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * Alta masiva de viajes (horarios recurrentes de flotas). Los viajes se validan en
+ * paralelo y los válidos se insertan en bloques de trip.bulk.chunk-size, cada uno en
+ * su propia transacción y con INSERT agrupados por JDBC. Si un bloque falla al
+ * guardarse, solo se rechazan los viajes de ese bloque.
+ */
+@Service
+@Slf4j
+public class TripImportService {
+
+    private final TripRepository tripRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final int maxItems;
+    private final int chunkSize;
+
+    public TripImportService(TripRepository tripRepository,
+                             TransactionTemplate transactionTemplate,
+                             Validator validator,
+                             @Value("${trip.bulk.max-items:10000}") int maxItems,
+                             @Value("${trip.bulk.chunk-size:1000}") int chunkSize) {
+        this.tripRepository = tripRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.maxItems = maxItems;
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkCreateTripsResponse createTrips(List<CreateTripRequest> requests, UUID driverId) {
+        if (requests.size() > maxItems) {
+            throw new BusinessException("No se pueden crear más de " + maxItems + " viajes por petición");
+        }
+        long start = System.nanoTime();
+
+        // Validator es thread-safe; cada posición solo la escribe un hilo
+        BulkTripResult[] results = new BulkTripResult[requests.size()];
+        IntStream.range(0, requests.size()).parallel()
+                .forEach(i -> results[i] = validate(i, requests.get(i)));
+
+        List<Integer> valid = IntStream.range(0, results.length)
+                .filter(i -> results[i] == null)
+                .boxed()
+                .toList();
+
+        for (int from = 0; from < valid.size(); from += chunkSize) {
+            insertChunk(valid.subList(from, Math.min(from + chunkSize, valid.size())),
+                    requests, driverId, results);
+        }
+
+        int created = (int) Arrays.stream(results)
+                .filter(result -> result.getStatus() == BulkTripResult.Status.CREATED)
+                .count();
+        log.info("Alta masiva para driver {}: {} creados, {} rechazados en {} ms",
+                driverId, created, results.length - created, (System.nanoTime() - start) / 1_000_000);
+
+        return BulkCreateTripsResponse.builder()
+                .created(created)
+                .rejected(results.length - created)
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    /**
+     * @return null si el viaje es válido, o su resultado REJECTED
+     */
+    private BulkTripResult validate(int index, CreateTripRequest request) {
+        if (request == null) {
+            return rejected(index, Map.of("trip", "El viaje no puede ser nulo"));
+        }
+        Set<ConstraintViolation<CreateTripRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        Map<String, String> errors = new LinkedHashMap<>();
+        violations.forEach(v -> errors.put(v.getPropertyPath().toString(), v.getMessage()));
+        return rejected(index, errors);
+    }
+
+    private void insertChunk(List<Integer> indexes, List<CreateTripRequest> requests,
+                             UUID driverId, BulkTripResult[] results) {
+        List<Trip> trips = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            trips.add(toTrip(requests.get(index), driverId));
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> tripRepository.insertAll(trips));
+        } catch (RuntimeException e) {
+            log.error("Error guardando un bloque de {} viajes: {}", trips.size(), e.getMessage(), e);
+            for (int index : indexes) {
+                results[index] = rejected(index, Map.of("trip", "No se pudo guardar el viaje"));
+            }
+            return;
+        }
+
+        for (int i = 0; i < indexes.size(); i++) {
+            int index = indexes.get(i);
+            results[index] = BulkTripResult.builder()
+                    .index(index)
+                    .status(BulkTripResult.Status.CREATED)
+                    .tripId(trips.get(i).getId())
+                    .build();
+        }
+    }
+
+    private static Trip toTrip(CreateTripRequest request, UUID driverId) {
+        return Trip.builder()
+                .driverId(driverId)
+                .origin(request.getOrigin())
+                .destination(request.getDestination())
+                .startTime(request.getStartTime())
+                .seatsTotal(request.getSeatsTotal())
+                .seatsAvailable(request.getSeatsTotal())
+                .price(request.getPrice())
+                .status(TripStatus.ACTIVE)
+                .build();
+    }
+
+    private static BulkTripResult rejected(int index, Map<String, String> errors) {
+        return BulkTripResult.builder()
+                .index(index)
+                .status(BulkTripResult.Status.REJECTED)
+                .errors(errors)
+                .build();
+    }
+}
@@ -2,28 +2,37 @@ package org.ecoride.tripservice.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.kafka.common.errors.ResourceNotFoundException;
+import org.ecoride.events.ReservationEvents;
 import org.ecoride.tripservice.dto.CreateTripRequest;
 import org.ecoride.tripservice.dto.ReservationResponse;
+import org.ecoride.tripservice.dto.TripCursor;
+import org.ecoride.tripservice.dto.TripPageResponse;
 import org.ecoride.tripservice.dto.TripResponse;
-import org.ecoride.tripservice.events.ReservationEvents;
 import org.ecoride.tripservice.exception.BusinessException;
+import org.ecoride.tripservice.exception.ResourceNotFoundException;
 import org.ecoride.tripservice.model.entity.Reservation;
 import org.ecoride.tripservice.model.entity.Trip;
 import org.ecoride.tripservice.model.enums.ReservationStatus;
 import org.ecoride.tripservice.model.enums.TripStatus;
 import org.ecoride.tripservice.repository.ReservationRepository;
 import org.ecoride.tripservice.repository.TripRepository;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.ecoride.tripservice.repository.TripSpecifications;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import tools.jackson.databind.ObjectMapper;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -32,13 +41,20 @@ public class TripService {
 
     private final TripRepository tripRepository;
     private final ReservationRepository reservationRepository;
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    @Autowired
-    private ObjectMapper objectMapper;
+    private final SeatInventory seatInventory;
+    private final OutboxService outboxService;
+    private final TripCache tripCache;
 
     private static final String TOPIC_RESERVATION_REQUESTED = "reservation-requested";
     private static final String TOPIC_RESERVATION_CONFIRMED = "reservation-confirmed";
     private static final String TOPIC_RESERVATION_CANCELLED = "reservation-cancelled";
+    private static final String TOPIC_PAYMENT_VOID_REQUESTED = "payment-void-requested";
+
+    // Índice único parcial (trip_id, passenger_id) WHERE status IN ('PENDING', 'CONFIRMED')
+    private static final String ACTIVE_RESERVATION_CONSTRAINT = "uq_reservations_active_passenger";
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
 
     @Transactional
     public TripResponse createTrip(CreateTripRequest request, UUID driverId) {
@@ -62,25 +78,60 @@ public class TripService {
     }
 
     @Transactional(readOnly = true)
-    public List<TripResponse> searchTrips(String origin, String destination,
-                                          LocalDateTime from, LocalDateTime to) {
-        log.info("Buscando viajes: origin={}, destination={}, from={}, to={}",
+    public TripPageResponse searchTrips(String origin, String destination,
+                                        LocalDateTime from, LocalDateTime to,
+                                        String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        log.info("Buscando viajes: origin={}, destination={}, from={}, to={}, size={}",
+                origin, destination, from, to, pageSize);
+
+        Specification<Trip> spec = TripSpecifications.search(origin, destination, from, to);
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(TripSpecifications.after(TripCursor.decode(cursor)));
+        }
+
+        // Se pide una fila extra solo para saber si existe página siguiente
+        List<TripResponse> trips = tripRepository.searchPage(spec, pageSize + 1);
+        boolean hasNext = trips.size() > pageSize;
+        if (hasNext) {
+            trips = trips.subList(0, pageSize);
+        }
+
+        return TripPageResponse.builder()
+                .items(trips)
+                .size(trips.size())
+                .nextCursor(hasNext ? TripCursor.after(trips.get(pageSize - 1)).encode() : null)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public void streamTrips(String origin, String destination,
+                            LocalDateTime from, LocalDateTime to,
+                            Consumer<TripResponse> sink) {
+        log.info("Streaming de viajes: origin={}, destination={}, from={}, to={}",
                 origin, destination, from, to);
 
-        List<Trip> trips = tripRepository.searchTrips(
-                origin, destination, from, to, TripStatus.ACTIVE
-        );
+        try (Stream<TripResponse> trips = tripRepository.streamSearch(
+                TripSpecifications.search(origin, destination, from, to))) {
+            trips.forEach(sink);
+        }
+    }
 
-        return trips.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
     }
 
     @Transactional(readOnly = true)
     public TripResponse getTripById(UUID tripId) {
-        Trip trip = tripRepository.findById(tripId)
+        CachedTrip trip = tripCache.get(tripId)
                 .orElseThrow(() -> new ResourceNotFoundException("Viaje no encontrado: " + tripId));
-        return mapToResponse(trip);
+        TripResponse response = mapToResponse(trip);
+        // El inventario en memoria va por delante de seats_available hasta el próximo flush
+        seatInventory.availableSeats(tripId).ifPresent(response::setSeatsAvailable);
+        return response;
     }
 
     @Transactional
@@ -89,26 +140,33 @@ public class TripService {
         log.info("[{}] Creando reserva para trip: {}, passenger: {}",
                 correlationId, tripId, passengerId);
 
-        Trip trip = tripRepository.findById(tripId)
+        // El precio no cambia: sale de la caché; los asientos los decide el UPDATE condicional
+        BigDecimal price = tripCache.get(tripId)
+                .map(CachedTrip::price)
                 .orElseThrow(() -> new ResourceNotFoundException("Viaje no encontrado: " + tripId));
 
-        if (!trip.hasAvailableSeats()) {
+        // El asiento se toma sin cargar ni guardar el Trip (sin bump de @Version)
+        if (!seatInventory.tryReserve(tripId)) {
             throw new BusinessException("No hay asientos disponibles para este viaje");
         }
 
-        if (reservationRepository.existsActiveReservation(tripId, passengerId)) {
-            throw new BusinessException("Ya tienes una reserva activa para este viaje");
-        }
-
         Reservation reservation = Reservation.builder()
-                .trip(trip)
+                .trip(tripRepository.getReferenceById(tripId))
                 .passengerId(passengerId)
                 .status(ReservationStatus.PENDING)
                 .build();
 
-        trip.decrementSeats();
-        reservation = reservationRepository.save(reservation);
-        tripRepository.save(trip);
+        // La reserva duplicada la detecta el índice único al insertar, sin consulta previa
+        // y sin carreras; el rollback devuelve también el asiento
+        try {
+            reservation = reservationRepository.saveAndFlush(reservation);
+        } catch (DataIntegrityViolationException e) {
+            if (e.getCause() instanceof ConstraintViolationException violation
+                    && ACTIVE_RESERVATION_CONSTRAINT.equals(violation.getConstraintName())) {
+                throw new BusinessException("Ya tienes una reserva activa para este viaje");
+            }
+            throw e;
+        }
 
         log.info("[{}] Reserva creada con ID: {}, status: PENDING",
                 correlationId, reservation.getId());
@@ -117,12 +175,12 @@ public class TripService {
                 .reservationId(reservation.getId())
                 .tripId(tripId)
                 .passengerId(passengerId)
-                .amount(trip.getPrice())
+                .amount(price)
                 .correlationId(correlationId)
                 .build();
 
-        kafkaTemplate.send(TOPIC_RESERVATION_REQUESTED, objectMapper.writeValueAsString(event));
-        log.info("[{}] Evento ReservationRequested publicado", correlationId);
+        outboxService.enqueue(TOPIC_RESERVATION_REQUESTED, reservation.getId(), event);
+        log.info("[{}] Evento ReservationRequested registrado en outbox", correlationId);
 
         return mapToReservationResponse(reservation);
     }
@@ -136,49 +194,152 @@ public class TripService {
 
     @Transactional
     public void confirmReservation(UUID reservationId, String correlationId) {
-        log.info("[{}] Confirmando reserva: {}", correlationId, reservationId);
+        Reservation reservation = reservationRepository.findById(reservationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Reserva no encontrada: " + reservationId));
+
+        applyConfirmation(reservation, correlationId);
+    }
+
+    /**
+     * Confirma un lote de pagos autorizados con un solo findAllById y un solo commit.
+     * Los registros inválidos (reserva inexistente o ya procesada) se omiten sin
+     * afectar al resto del lote.
+     *
+     * @return ids de las reservas que no se pudieron confirmar
+     */
+    @Transactional
+    public List<UUID> confirmReservations(List<ReservationEvents.PaymentAuthorized> events) {
+        Map<UUID, Reservation> reservations = findReservations(
+                events.stream().map(ReservationEvents.PaymentAuthorized::getReservationId).toList());
+
+        List<UUID> rejected = new ArrayList<>();
+        for (ReservationEvents.PaymentAuthorized event : events) {
+            Reservation reservation = reservations.get(event.getReservationId());
+            if (reservation == null) {
+                log.warn("[{}] Reserva no encontrada: {}", event.getCorrelationId(), event.getReservationId());
+                rejected.add(event.getReservationId());
+                continue;
+            }
+            try {
+                if (!applyConfirmation(reservation, event.getCorrelationId())) {
+                    rejected.add(event.getReservationId());
+                }
+            } catch (IllegalStateException e) {
+                log.warn("[{}] No se pudo confirmar la reserva {}: {}",
+                        event.getCorrelationId(), event.getReservationId(), e.getMessage());
+                rejected.add(event.getReservationId());
+            }
+        }
+
+        log.info("Lote PaymentAuthorized: {} confirmadas, {} omitidas",
+                events.size() - rejected.size(), rejected.size());
+        return rejected;
+    }
 
+    @Transactional
+    public void cancelReservation(UUID reservationId, String reason, String correlationId) {
         Reservation reservation = reservationRepository.findById(reservationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Reserva no encontrada: " + reservationId));
 
+        applyCancellation(reservation, reason, correlationId);
+    }
+
+    /**
+     * Compensa un lote de pagos fallidos en una sola transacción, con el mismo
+     * aislamiento por registro que {@link #confirmReservations(List)}.
+     *
+     * @return ids de las reservas que no se pudieron cancelar
+     */
+    @Transactional
+    public List<UUID> cancelReservations(List<ReservationEvents.PaymentFailed> events) {
+        Map<UUID, Reservation> reservations = findReservations(
+                events.stream().map(ReservationEvents.PaymentFailed::getReservationId).toList());
+
+        List<UUID> rejected = new ArrayList<>();
+        for (ReservationEvents.PaymentFailed event : events) {
+            Reservation reservation = reservations.get(event.getReservationId());
+            if (reservation == null) {
+                log.warn("[{}] Reserva no encontrada: {}", event.getCorrelationId(), event.getReservationId());
+                rejected.add(event.getReservationId());
+                continue;
+            }
+            try {
+                applyCancellation(reservation, "PAYMENT_FAILED: " + event.getReason(), event.getCorrelationId());
+            } catch (IllegalStateException e) {
+                log.warn("[{}] No se pudo cancelar la reserva {}: {}",
+                        event.getCorrelationId(), event.getReservationId(), e.getMessage());
+                rejected.add(event.getReservationId());
+            }
+        }
+
+        log.info("Lote PaymentFailed: {} canceladas, {} omitidas",
+                events.size() - rejected.size(), rejected.size());
+        return rejected;
+    }
+
+    private Map<UUID, Reservation> findReservations(List<UUID> reservationIds) {
+        return reservationRepository.findAllById(reservationIds).stream()
+                .collect(Collectors.toMap(Reservation::getId, Function.identity()));
+    }
+
+    /**
+     * @return false si la reserva ya estaba cancelada y en su lugar se pidió anular el pago
+     */
+    private boolean applyConfirmation(Reservation reservation, String correlationId) {
+        if (reservation.getStatus() == ReservationStatus.CANCELLED) {
+            // El pago llegó después de cancelarse la reserva (p. ej. expiró esperándolo): el
+            // asiento ya se liberó, así que payment-service debe anular la autorización
+            log.warn("[{}] Pago autorizado para la reserva {} ya cancelada, se pide anularlo",
+                    correlationId, reservation.getId());
+            outboxService.enqueue(TOPIC_PAYMENT_VOID_REQUESTED, reservation.getId(),
+                    ReservationEvents.PaymentVoidRequested.builder()
+                            .reservationId(reservation.getId())
+                            .reason("Reserva cancelada antes de recibir el pago")
+                            .correlationId(correlationId)
+                            .build());
+            return false;
+        }
+        log.info("[{}] Confirmando reserva: {}", correlationId, reservation.getId());
+
         reservation.confirm();
         reservationRepository.save(reservation);
 
         ReservationEvents.ReservationConfirmed event = ReservationEvents.ReservationConfirmed.builder()
-                .reservationId(reservationId)
+                .reservationId(reservation.getId())
                 .tripId(reservation.getTrip().getId())
                 .passengerId(reservation.getPassengerId())
                 .correlationId(correlationId)
                 .build();
 
-        kafkaTemplate.send(TOPIC_RESERVATION_CONFIRMED, objectMapper.writeValueAsString(event));
-        log.info("[{}] Reserva confirmada y evento publicado", correlationId);
+        outboxService.enqueue(TOPIC_RESERVATION_CONFIRMED, reservation.getId(), event);
+        log.info("[{}] Reserva confirmada y evento registrado en outbox", correlationId);
+        return true;
     }
 
-    @Transactional
-    public void cancelReservation(UUID reservationId, String reason, String correlationId) {
-        log.info("[{}] Cancelando reserva: {}, reason: {}", correlationId, reservationId, reason);
-
-        Reservation reservation = reservationRepository.findById(reservationId)
-                .orElseThrow(() -> new ResourceNotFoundException("Reserva no encontrada: " + reservationId));
+    private void applyCancellation(Reservation reservation, String reason, String correlationId) {
+        // Un pago fallido que llega después de la confirmación (reentrega o recuperación en
+        // payment-service) no deshace un pago ya autorizado
+        if (reservation.getStatus() == ReservationStatus.CONFIRMED) {
+            throw new IllegalStateException("La reserva ya está confirmada, se ignora el pago fallido");
+        }
+        log.info("[{}] Cancelando reserva: {}, reason: {}", correlationId, reservation.getId(), reason);
 
         reservation.cancel(reason);
-        Trip trip = reservation.getTrip();
-        trip.incrementSeats();
+        UUID tripId = reservation.getTrip().getId();
 
         reservationRepository.save(reservation);
-        tripRepository.save(trip);
+        seatInventory.release(tripId);
 
         ReservationEvents.ReservationCancelled event = ReservationEvents.ReservationCancelled.builder()
-                .reservationId(reservationId)
-                .tripId(trip.getId())
+                .reservationId(reservation.getId())
+                .tripId(tripId)
                 .passengerId(reservation.getPassengerId())
                 .reason(reason)
                 .correlationId(correlationId)
                 .build();
 
-        kafkaTemplate.send(TOPIC_RESERVATION_CANCELLED, objectMapper.writeValueAsString(event));
-        log.info("[{}] Reserva cancelada, asiento liberado, evento publicado", correlationId);
+        outboxService.enqueue(TOPIC_RESERVATION_CANCELLED, reservation.getId(), event);
+        log.info("[{}] Reserva cancelada, asiento liberado, evento registrado en outbox", correlationId);
     }
 
     private TripResponse mapToResponse(Trip trip) {
@@ -196,6 +357,21 @@ public class TripService {
                 .build();
     }
 
+    private TripResponse mapToResponse(CachedTrip trip) {
+        return TripResponse.builder()
+                .id(trip.id())
+                .driverId(trip.driverId())
+                .origin(trip.origin())
+                .destination(trip.destination())
+                .startTime(trip.startTime())
+                .seatsTotal(trip.seatsTotal())
+                .seatsAvailable(trip.seatsAvailable())
+                .price(trip.price())
+                .status(trip.status())
+                .createdAt(trip.createdAt())
+                .build();
+    }
+
     private ReservationResponse mapToReservationResponse(Reservation reservation) {
         return ReservationResponse.builder()
                 .id(reservation.getId())
@@ -0,0 +1,27 @@
+package org.ecoride.tripservice.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normaliza textos de búsqueda (origen/destino) para que coincidan con las
+ * columnas *_normalized: sin tildes, en minúsculas y con espacios colapsados.
+ */
+public final class SearchTextNormalizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SearchTextNormalizer() {
+    }
+
+    public static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFD);
+        String withoutAccents = DIACRITICS.matcher(decomposed).replaceAll("");
+        return WHITESPACE.matcher(withoutAccents).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+}
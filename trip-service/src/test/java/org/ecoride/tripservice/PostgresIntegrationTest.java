@@ -0,0 +1,27 @@
+package org.ecoride.tripservice;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Base de los tests de integración contra PostgreSQL. Todas las clases comparten un
+ * solo contenedor, que se arranca con la primera y lo retira Testcontainers al acabar
+ * la JVM: Spring reutiliza el contexto entre clases con la misma configuración y ese
+ * contexto debe seguir apuntando a una base viva. Como la base es compartida, los
+ * tests filtran sus comprobaciones por los viajes que crean.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgresIntegrationTest {
+
+    protected static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        postgres.start();
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+}
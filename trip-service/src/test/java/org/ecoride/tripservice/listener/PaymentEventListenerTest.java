@@ -0,0 +1,120 @@
+package org.ecoride.tripservice.listener;
+
+import org.ecoride.events.ReservationEvents;
+import org.ecoride.events.kafka.RetryTopics;
+import org.ecoride.tripservice.exception.ResourceNotFoundException;
+import org.ecoride.tripservice.service.TripService;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentEventListenerTest {
+
+    private final TripService tripService = mock(TripService.class);
+    private final Acknowledgment acknowledgment = mock(Acknowledgment.class);
+    private final RetryTopics retryTopics = mock(RetryTopics.class);
+    private final PaymentEventListener listener = new PaymentEventListener(tripService, retryTopics);
+
+    @Test
+    void appliesWholePollInOneCallAndSkipsUnparsableRecords() {
+        // El registro corrupto llega como null desde ErrorHandlingDeserializer
+        List<ReservationEvents.PaymentAuthorized> batch =
+                Arrays.asList(authorized(UUID.randomUUID()), authorized(UUID.randomUUID()), null);
+        when(tripService.confirmReservations(anyList())).thenReturn(List.of());
+
+        listener.handlePaymentAuthorized(batch, acknowledgment);
+
+        verify(tripService).confirmReservations(argThat(events -> events.size() == 2));
+        verify(tripService, never()).confirmReservation(any(), anyString());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void fallsBackToPerRecordWhenBatchFails() {
+        UUID ok = UUID.randomUUID();
+        UUID poison = UUID.randomUUID();
+        when(tripService.confirmReservations(anyList())).thenThrow(new IllegalStateException("commit falló"));
+        doThrow(new IllegalStateException("reserva bloqueada"))
+                .when(tripService).confirmReservation(eq(poison), anyString());
+
+        listener.handlePaymentAuthorized(List.of(authorized(poison), authorized(ok)), acknowledgment);
+
+        verify(tripService).confirmReservation(eq(poison), anyString());
+        verify(tripService).confirmReservation(eq(ok), anyString());
+        // Una reserva ya procesada no se reintenta
+        verify(retryTopics, never()).forward(anyString(), anyString(), any());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void skipsMissingReservationsInsteadOfRetryingThem() {
+        UUID ok = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        when(tripService.confirmReservations(anyList())).thenThrow(new QueryTimeoutException("lock timeout"));
+        when(tripService.cancelReservations(anyList())).thenThrow(new QueryTimeoutException("lock timeout"));
+        doThrow(new ResourceNotFoundException("Reserva no encontrada: " + missing))
+                .when(tripService).confirmReservation(eq(missing), anyString());
+        doThrow(new ResourceNotFoundException("Reserva no encontrada: " + missing))
+                .when(tripService).cancelReservation(eq(missing), anyString(), anyString());
+
+        listener.handlePaymentAuthorized(List.of(authorized(missing), authorized(ok)), acknowledgment);
+        listener.handlePaymentFailed(List.of(failed(missing), failed(ok)), acknowledgment);
+
+        verify(tripService).confirmReservation(eq(ok), anyString());
+        verify(tripService).cancelReservation(eq(ok), anyString(), anyString());
+        // Reserva inexistente: reintentarla solo la llevaría al DLT
+        verify(retryTopics, never()).forward(anyString(), anyString(), any());
+        verify(acknowledgment, times(2)).acknowledge();
+    }
+
+    @Test
+    void forwardsTransientFailuresToRetryTopicAndKeepsConsuming() {
+        UUID ok = UUID.randomUUID();
+        UUID transientFailure = UUID.randomUUID();
+        when(tripService.cancelReservations(anyList())).thenThrow(new QueryTimeoutException("lock timeout"));
+        doThrow(new QueryTimeoutException("lock timeout"))
+                .when(tripService).cancelReservation(eq(transientFailure), anyString(), anyString());
+
+        ReservationEvents.PaymentFailed failed = failed(transientFailure);
+        listener.handlePaymentFailed(List.of(failed, failed(ok)), acknowledgment);
+
+        verify(tripService).cancelReservation(eq(ok), anyString(), anyString());
+        verify(retryTopics).forward("payment-failed", transientFailure.toString(), failed);
+        verify(retryTopics, never()).forward(anyString(), eq(ok.toString()), any());
+        verify(acknowledgment).acknowledge();
+    }
+
+    private static ReservationEvents.PaymentFailed failed(UUID reservationId) {
+        return ReservationEvents.PaymentFailed.builder()
+                .reservationId(reservationId)
+                .passengerId(UUID.randomUUID())
+                .reason("Fondos insuficientes")
+                .correlationId(UUID.randomUUID().toString())
+                .build();
+    }
+
+    private static ReservationEvents.PaymentAuthorized authorized(UUID reservationId) {
+        return ReservationEvents.PaymentAuthorized.builder()
+                .reservationId(reservationId)
+                .paymentIntentId(UUID.randomUUID())
+                .chargeId(UUID.randomUUID())
+                .correlationId(UUID.randomUUID().toString())
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package org.ecoride.tripservice.listener;
+
+import org.ecoride.events.ReservationEvents;
+import org.ecoride.tripservice.exception.ResourceNotFoundException;
+import org.ecoride.tripservice.service.TripService;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Una reserva inexistente se omite en el reintento; un error transitorio se propaga
+ * para que el registro pase al siguiente topic -backoff-N.
+ */
+class PaymentRetryListenerTest {
+
+    private final TripService tripService = mock(TripService.class);
+    private final PaymentRetryListener listener = new PaymentRetryListener(tripService);
+
+    @Test
+    void skipsMissingReservations() {
+        UUID missing = UUID.randomUUID();
+        doThrow(new ResourceNotFoundException("Reserva no encontrada: " + missing))
+                .when(tripService).confirmReservation(eq(missing), anyString());
+        doThrow(new ResourceNotFoundException("Reserva no encontrada: " + missing))
+                .when(tripService).cancelReservation(eq(missing), anyString(), anyString());
+
+        assertThatCode(() -> listener.retryPaymentAuthorized(authorized(missing))).doesNotThrowAnyException();
+        assertThatCode(() -> listener.retryPaymentFailed(failed(missing))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void propagatesTransientFailures() {
+        UUID reservationId = UUID.randomUUID();
+        doThrow(new QueryTimeoutException("lock timeout"))
+                .when(tripService).confirmReservation(eq(reservationId), anyString());
+
+        assertThatThrownBy(() -> listener.retryPaymentAuthorized(authorized(reservationId)))
+                .isInstanceOf(QueryTimeoutException.class);
+    }
+
+    private static ReservationEvents.PaymentFailed failed(UUID reservationId) {
+        return ReservationEvents.PaymentFailed.builder()
+                .reservationId(reservationId)
+                .passengerId(UUID.randomUUID())
+                .reason("Fondos insuficientes")
+                .correlationId(UUID.randomUUID().toString())
+                .build();
+    }
+
+    private static ReservationEvents.PaymentAuthorized authorized(UUID reservationId) {
+        return ReservationEvents.PaymentAuthorized.builder()
+                .reservationId(reservationId)
+                .paymentIntentId(UUID.randomUUID())
+                .chargeId(UUID.randomUUID())
+                .correlationId(UUID.randomUUID().toString())
+                .build();
+    }
+}
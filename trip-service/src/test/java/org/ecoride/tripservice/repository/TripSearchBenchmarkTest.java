@@ -0,0 +1,118 @@
+package org.ecoride.tripservice.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ecoride.tripservice.PostgresIntegrationTest;
+import org.ecoride.tripservice.dto.TripResponse;
+import org.ecoride.tripservice.service.TripService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark de la búsqueda de viajes: mide el p99 con 20k y con 200k viajes
+ * y verifica que no crece con el tamaño de la tabla.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false",
+        "spring.kafka.listener.auto-startup=false"
+})
+class TripSearchBenchmarkTest extends PostgresIntegrationTest {
+
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int MEASURED_ITERATIONS = 500;
+
+    @Autowired
+    private TripService tripService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void cleanTrips() {
+        jdbcTemplate.execute("TRUNCATE trips CASCADE");
+    }
+
+    @Test
+    void searchP99StaysFlatAsTripsTableGrows() {
+        LocalDateTime base = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+
+        seedTrips(base, 0, 20_000);
+        long smallP99 = searchP99Micros(base);
+
+        seedTrips(base, 20_000, 200_000);
+        long largeP99 = searchP99Micros(base);
+
+        log.info("Búsqueda p99: 20k viajes = {} us, 200k viajes = {} us", smallP99, largeP99);
+
+        // 10x más filas no debe traducirse en más de ~3x de latencia
+        assertThat(largeP99).isLessThan(smallP99 * 3 + 5_000);
+    }
+
+    @Test
+    void searchPlanUsesTrigramAndBookableIndexes() {
+        LocalDateTime base = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        seedTrips(base, 0, 50_000);
+
+        String plan = String.join("\n", jdbcTemplate.queryForList("""
+                EXPLAIN SELECT * FROM trips
+                WHERE status = 'ACTIVE' AND seats_available > 0
+                AND origin_normalized LIKE '%bogota%'
+                ORDER BY start_time, id
+                """, String.class));
+
+        assertThat(plan).doesNotContain("Seq Scan");
+        assertThat(plan).containsAnyOf("idx_trips_origin_trgm", "idx_trips_bookable_start");
+    }
+
+    private long searchP99Micros(LocalDateTime base) {
+        LocalDateTime from = base.plusHours(12);
+        LocalDateTime to = from.plusHours(24);
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            tripService.searchTrips("bogota", null, from, to, null, null);
+        }
+
+        long[] samples = new long[MEASURED_ITERATIONS];
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            List<TripResponse> trips = tripService.searchTrips("Bogotá", "medellin", from, to, null, null)
+                    .getItems();
+            samples[i] = (System.nanoTime() - start) / 1_000;
+            assertThat(trips).allMatch(t -> t.getOrigin().equals("Bogotá"));
+        }
+
+        Arrays.sort(samples);
+        return samples[(int) Math.ceil(MEASURED_ITERATIONS * 0.99) - 1];
+    }
+
+    /**
+     * Un viaje por minuto a partir de {@code base}: la ventana consultada
+     * siempre contiene la misma cantidad de filas, crezca o no la tabla.
+     */
+    private void seedTrips(LocalDateTime base, int fromIndex, int toIndex) {
+        jdbcTemplate.update("""
+                INSERT INTO trips (id, driver_id, origin, destination, origin_normalized, destination_normalized,
+                                   start_time, seats_total, seats_available, price, status)
+                SELECT gen_random_uuid(), gen_random_uuid(),
+                       CASE WHEN i % 50 = 0 THEN 'Bogotá' ELSE 'Ciudad ' || (i % 997) END,
+                       CASE WHEN i % 50 = 0 THEN 'Medellín' ELSE 'Pueblo ' || (i % 991) END,
+                       CASE WHEN i % 50 = 0 THEN 'bogota' ELSE 'ciudad ' || (i % 997) END,
+                       CASE WHEN i % 50 = 0 THEN 'medellin' ELSE 'pueblo ' || (i % 991) END,
+                       ?::timestamp + make_interval(mins => i),
+                       4, 1 + (i % 4), 25000, 'ACTIVE'
+                FROM generate_series(?, ?) AS i
+                """, base, fromIndex, toIndex - 1);
+        jdbcTemplate.execute("ANALYZE trips");
+    }
+}
@@ -0,0 +1,97 @@
+package org.ecoride.tripservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ecoride.tripservice.repository.TripRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Slf4j
+class InMemorySeatInventoryTest {
+
+    private static final int SEATS = 5_000;
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS_PER_THREAD = 1_000;
+
+    private final TripRepository tripRepository = mock(TripRepository.class);
+    private final InMemorySeatInventory seatInventory = new InMemorySeatInventory(
+            tripRepository, mock(TripCache.class), 10);
+
+    @Test
+    void hotTripNeverOversellsUnderContention() throws Exception {
+        UUID tripId = UUID.randomUUID();
+        when(tripRepository.countRemainingSeats(tripId)).thenReturn(Optional.of(SEATS));
+
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    if (seatInventory.tryReserve(tripId)) {
+                        granted.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        double seconds = (System.nanoTime() - begin) / 1e9;
+
+        log.info("InMemorySeatInventory: {} intentos en {} s ({} ops/s)",
+                THREADS * ATTEMPTS_PER_THREAD, String.format("%.3f", seconds),
+                Math.round(THREADS * ATTEMPTS_PER_THREAD / seconds));
+
+        assertThat(granted.get()).isEqualTo(SEATS);
+        assertThat(seatInventory.availableSeats(tripId)).hasValue(0);
+        verify(tripRepository, times(1)).countRemainingSeats(tripId);
+    }
+
+    @Test
+    void releaseReturnsSeatAndFlushSyncsDirtyTripsInOneUpdate() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(tripRepository.countRemainingSeats(first)).thenReturn(Optional.of(1));
+        when(tripRepository.countRemainingSeats(second)).thenReturn(Optional.of(1));
+
+        assertThat(seatInventory.tryReserve(first)).isTrue();
+        assertThat(seatInventory.tryReserve(first)).isFalse();
+        assertThat(seatInventory.tryReserve(second)).isTrue();
+
+        seatInventory.release(first);
+        assertThat(seatInventory.availableSeats(first)).hasValue(1);
+
+        seatInventory.flush();
+        verify(tripRepository, times(1)).syncSeatsAvailable(anyCollection());
+
+        seatInventory.flush();
+        verify(tripRepository, times(1)).syncSeatsAvailable(anyCollection());
+    }
+
+    @Test
+    void inactiveOrMissingTripHasNoSeats() {
+        UUID tripId = UUID.randomUUID();
+        when(tripRepository.countRemainingSeats(tripId)).thenReturn(Optional.empty());
+
+        assertThat(seatInventory.tryReserve(tripId)).isFalse();
+        assertThat(seatInventory.availableSeats(tripId)).hasValue(0);
+    }
+}
@@ -0,0 +1,73 @@
+package org.ecoride.tripservice.service;
+
+import org.ecoride.tripservice.model.entity.OutboxEvent;
+import org.ecoride.tripservice.repository.OutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, byte[]> kafkaTemplate = mock(KafkaTemplate.class);
+    private final OutboxRepository outboxRepository = mock(OutboxRepository.class);
+    private final OutboxRelay relay = new OutboxRelay(
+            outboxRepository,
+            kafkaTemplate,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)),
+            2,
+            1_000
+    );
+
+    @Test
+    void publishesWholeBatchAndDeletesItAfterKafkaAcks() {
+        List<OutboxEvent> fullBatch = List.of(event("reservation-requested"), event("reservation-confirmed"));
+        List<OutboxEvent> lastBatch = List.of(event("reservation-cancelled"));
+        when(outboxRepository.lockNextBatch(2)).thenReturn(fullBatch, lastBatch);
+        when(kafkaTemplate.send(anyString(), anyString(), any(byte[].class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        relay.relay();
+
+        verify(kafkaTemplate, times(3)).send(anyString(), anyString(), any(byte[].class));
+        verify(outboxRepository).deleteAllInBatch(fullBatch);
+        verify(outboxRepository).deleteAllInBatch(lastBatch);
+    }
+
+    @Test
+    void keepsBatchWhenKafkaFails() {
+        List<OutboxEvent> batch = List.of(event("reservation-requested"));
+        when(outboxRepository.lockNextBatch(anyInt())).thenReturn(batch);
+        when(kafkaTemplate.send(eq("reservation-requested"), anyString(), any(byte[].class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker caído")));
+
+        relay.relay();
+
+        verify(outboxRepository, never()).deleteAllInBatch(batch);
+    }
+
+    private static OutboxEvent event(String topic) {
+        return OutboxEvent.builder()
+                .id(UUID.randomUUID())
+                .topic(topic)
+                .messageKey(UUID.randomUUID().toString())
+                .payload(new byte[]{1})
+                .build();
+    }
+}
@@ -0,0 +1,143 @@
+package org.ecoride.tripservice.service;
+
+import org.ecoride.events.ReservationEvents;
+import org.ecoride.tripservice.PostgresIntegrationTest;
+import org.ecoride.tripservice.model.entity.Trip;
+import org.ecoride.tripservice.model.enums.TripStatus;
+import org.ecoride.tripservice.repository.TripRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Las reservas PENDING caducadas se cancelan en lotes, devuelven su asiento y dejan
+ * un ReservationCancelled en el outbox; las recientes no se tocan. Si el pago de una
+ * reserva expirada llega después, se pide a payment-service que lo anule.
+ */
+@SpringBootTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false",
+        "spring.kafka.listener.auto-startup=false",
+        "trip.seat-inventory.mode=database",
+        "outbox.relay.interval-ms=600000",
+        "trip.reservation-expiry.sweep-interval-ms=600000",
+        "trip.reservation-expiry.pending-timeout=15m",
+        "trip.reservation-expiry.batch-size=3"
+})
+class PendingReservationSweeperTest extends PostgresIntegrationTest {
+
+    private static final int SEATS = 7;
+    private static final int STALE = 5;
+
+    @MockitoBean
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Autowired
+    private TripService tripService;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private PendingReservationSweeper sweeper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void expiresStalePendingReservationsAndReleasesTheirSeats() {
+        Trip trip = tripRepository.save(Trip.builder()
+                .driverId(UUID.randomUUID())
+                .origin("Bogotá")
+                .destination("Medellín")
+                .startTime(LocalDateTime.now().plusDays(2))
+                .seatsTotal(SEATS)
+                .seatsAvailable(SEATS)
+                .price(new BigDecimal("45000"))
+                .status(TripStatus.ACTIVE)
+                .build());
+
+        for (int i = 0; i < SEATS; i++) {
+            tripService.createReservation(trip.getId(), UUID.randomUUID());
+        }
+        // Las primeras STALE reservas llevan una hora esperando el pago
+        jdbcTemplate.update("""
+                UPDATE reservations SET created_at = now() - interval '1 hour'
+                WHERE id IN (SELECT id FROM reservations WHERE trip_id = ? ORDER BY created_at LIMIT ?)
+                """, trip.getId(), STALE);
+        jdbcTemplate.update("DELETE FROM outbox");
+
+        sweeper.sweep();
+
+        assertThat(countReservations(trip, "CANCELLED")).isEqualTo(STALE);
+        assertThat(countReservations(trip, "PENDING")).isEqualTo(SEATS - STALE);
+        assertThat(count("SELECT seats_available FROM trips WHERE id = '" + trip.getId() + "'")).isEqualTo(STALE);
+        assertThat(count("SELECT COUNT(*) FROM outbox WHERE topic = 'reservation-cancelled'")).isEqualTo(STALE);
+
+        // Un segundo barrido no encuentra nada más que expirar
+        sweeper.sweep();
+        assertThat(countReservations(trip, "CANCELLED")).isEqualTo(STALE);
+    }
+
+    @Test
+    void lateAuthorizationOfAnExpiredReservationRequestsAVoid() {
+        Trip trip = tripRepository.save(Trip.builder()
+                .driverId(UUID.randomUUID())
+                .origin("Cali")
+                .destination("Pereira")
+                .startTime(LocalDateTime.now().plusDays(2))
+                .seatsTotal(2)
+                .seatsAvailable(2)
+                .price(new BigDecimal("30000"))
+                .status(TripStatus.ACTIVE)
+                .build());
+        UUID expired = tripService.createReservation(trip.getId(), UUID.randomUUID()).getId();
+        UUID pending = tripService.createReservation(trip.getId(), UUID.randomUUID()).getId();
+        jdbcTemplate.update("UPDATE reservations SET created_at = now() - interval '1 hour' WHERE id = ?", expired);
+        sweeper.sweep();
+        jdbcTemplate.update("DELETE FROM outbox");
+
+        // El pago de la reserva expirada llega tarde, en el mismo lote que el de la vigente
+        List<UUID> rejected = tripService.confirmReservations(List.of(authorized(expired), authorized(pending)));
+
+        assertThat(rejected).containsExactly(expired);
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM reservations WHERE id = ?", String.class, expired))
+                .isEqualTo("CANCELLED");
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM reservations WHERE id = ?", String.class, pending))
+                .isEqualTo("CONFIRMED");
+        // El asiento de la expirada sigue libre y payment-service recibe la orden de anular su pago
+        assertThat(count("SELECT seats_available FROM trips WHERE id = '" + trip.getId() + "'")).isEqualTo(1);
+        assertThat(count("SELECT COUNT(*) FROM outbox WHERE topic = 'payment-void-requested'"
+                + " AND message_key = '" + expired + "'")).isEqualTo(1);
+        assertThat(count("SELECT COUNT(*) FROM outbox WHERE topic = 'reservation-confirmed'")).isEqualTo(1);
+    }
+
+    private static ReservationEvents.PaymentAuthorized authorized(UUID reservationId) {
+        return ReservationEvents.PaymentAuthorized.builder()
+                .reservationId(reservationId)
+                .paymentIntentId(UUID.randomUUID())
+                .chargeId(UUID.randomUUID())
+                .correlationId(UUID.randomUUID().toString())
+                .build();
+    }
+
+    private int countReservations(Trip trip, String status) {
+        return count("SELECT COUNT(*) FROM reservations WHERE trip_id = '" + trip.getId()
+                + "' AND status = '" + status + "'");
+    }
+
+    private int count(String sql) {
+        Integer value = jdbcTemplate.queryForObject(sql, Integer.class);
+        return value != null ? value : 0;
+    }
+}
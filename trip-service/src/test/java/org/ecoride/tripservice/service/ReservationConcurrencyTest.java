@@ -0,0 +1,143 @@
+package org.ecoride.tripservice.service;
+
+import org.ecoride.tripservice.PostgresIntegrationTest;
+import org.ecoride.tripservice.exception.BusinessException;
+import org.ecoride.tripservice.model.entity.Trip;
+import org.ecoride.tripservice.model.enums.TripStatus;
+import org.ecoride.tripservice.repository.TripRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 500 pasajeros reservando a la vez el mismo viaje: nunca se venden más asientos
+ * de los que hay.
+ */
+@SpringBootTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false",
+        "spring.kafka.listener.auto-startup=false",
+        "trip.seat-inventory.mode=database",
+        "outbox.relay.interval-ms=600000"
+})
+class ReservationConcurrencyTest extends PostgresIntegrationTest {
+
+    private static final int BOOKERS = 500;
+    private static final int SEATS = 40;
+
+    @MockitoBean
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Autowired
+    private TripService tripService;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void parallelBookersNeverOversell() throws Exception {
+        Trip trip = tripRepository.save(Trip.builder()
+                .driverId(UUID.randomUUID())
+                .origin("Bogotá")
+                .destination("Medellín")
+                .startTime(LocalDateTime.now().plusDays(2))
+                .seatsTotal(SEATS)
+                .seatsAvailable(SEATS)
+                .price(new BigDecimal("45000"))
+                .status(TripStatus.ACTIVE)
+                .build());
+
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+
+        try (ExecutorService bookers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < BOOKERS; i++) {
+                results.add(bookers.submit(() -> {
+                    start.await();
+                    try {
+                        tripService.createReservation(trip.getId(), UUID.randomUUID());
+                        booked.incrementAndGet();
+                    } catch (BusinessException e) {
+                        soldOut.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        }
+
+        assertThat(booked.get()).isEqualTo(SEATS);
+        assertThat(soldOut.get()).isEqualTo(BOOKERS - SEATS);
+        assertThat(tripRepository.findById(trip.getId()).orElseThrow().getSeatsAvailable()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reservations WHERE trip_id = ?",
+                Integer.class, trip.getId())).isEqualTo(SEATS);
+    }
+
+    @Test
+    void samePassengerBookingInParallelGetsOneReservation() throws Exception {
+        Trip trip = tripRepository.save(Trip.builder()
+                .driverId(UUID.randomUUID())
+                .origin("Cali")
+                .destination("Pereira")
+                .startTime(LocalDateTime.now().plusDays(3))
+                .seatsTotal(SEATS)
+                .seatsAvailable(SEATS)
+                .price(new BigDecimal("30000"))
+                .status(TripStatus.ACTIVE)
+                .build());
+        UUID passengerId = UUID.randomUUID();
+
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger duplicated = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+
+        try (ExecutorService bookers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 20; i++) {
+                results.add(bookers.submit(() -> {
+                    start.await();
+                    try {
+                        tripService.createReservation(trip.getId(), passengerId);
+                        booked.incrementAndGet();
+                    } catch (BusinessException e) {
+                        duplicated.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        }
+
+        assertThat(booked.get()).isEqualTo(1);
+        assertThat(duplicated.get()).isEqualTo(19);
+        // Los intentos duplicados hicieron rollback y devolvieron su asiento
+        assertThat(tripRepository.findById(trip.getId()).orElseThrow().getSeatsAvailable()).isEqualTo(SEATS - 1);
+    }
+}
@@ -0,0 +1,135 @@
+package org.ecoride.tripservice.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.ecoride.tripservice.PostgresIntegrationTest;
+import org.ecoride.tripservice.dto.TripResponse;
+import org.ecoride.tripservice.exception.BusinessException;
+import org.ecoride.tripservice.model.entity.Trip;
+import org.ecoride.tripservice.model.enums.TripStatus;
+import org.ecoride.tripservice.repository.TripRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Carga de lectura (98% getTripById, 2% reservas) con y sin {@link TripCache}:
+ * cuenta las sentencias JDBC de las lecturas y comprueba contra la tabla que los
+ * asientos devueltos son siempre los vigentes.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false",
+        "spring.kafka.listener.auto-startup=false",
+        "trip.seat-inventory.mode=database",
+        "outbox.relay.interval-ms=600000",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class TripCacheBenchmarkTest extends PostgresIntegrationTest {
+
+    private static final int TRIPS = 50;
+    private static final int SEATS = 40;
+    private static final int OPERATIONS = 20_000;
+    private static final int RESERVE_EVERY = 50;
+    private static final int VERIFY_EVERY = 10;
+
+    @MockitoBean
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Autowired
+    private TripService tripService;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private TripCache tripCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void readHeavyLoadQueriesFarLessAndSeatsStayCorrect() {
+        List<UUID> tripIds = seedTrips();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        long uncached = run(tripIds, statistics, true);
+        long cached = run(tripIds, statistics, false);
+
+        log.info("Sentencias en {} lecturas de viaje: sin caché = {}, con caché = {}",
+                OPERATIONS, uncached, cached);
+
+        // Solo deberían consultar la base de datos la primera lectura y la siguiente a cada reserva
+        assertThat(cached).isLessThan(uncached / 10);
+    }
+
+    /**
+     * @return sentencias JDBC emitidas por las lecturas (las reservas no cuentan)
+     */
+    private long run(List<UUID> tripIds, Statistics statistics, boolean bypassCache) {
+        tripCache.clear();
+        Random random = new Random(42);
+        long readStatements = 0;
+
+        for (int i = 0; i < OPERATIONS; i++) {
+            UUID tripId = tripIds.get(random.nextInt(tripIds.size()));
+            if (i % RESERVE_EVERY == 0) {
+                try {
+                    tripService.createReservation(tripId, UUID.randomUUID());
+                } catch (BusinessException soldOut) {
+                    // Viaje lleno: la lectura debe seguir mostrando 0 asientos
+                }
+            }
+            if (bypassCache) {
+                tripCache.clear();
+            }
+
+            long before = statistics.getPrepareStatementCount();
+            TripResponse trip = tripService.getTripById(tripId);
+            readStatements += statistics.getPrepareStatementCount() - before;
+
+            if (i % VERIFY_EVERY == 0) {
+                Integer seatsInDatabase = jdbcTemplate.queryForObject(
+                        "SELECT seats_available FROM trips WHERE id = ?", Integer.class, tripId);
+                assertThat(trip.getSeatsAvailable()).isEqualTo(seatsInDatabase);
+            }
+        }
+        return readStatements;
+    }
+
+    private List<UUID> seedTrips() {
+        List<UUID> tripIds = new ArrayList<>();
+        for (int i = 0; i < TRIPS; i++) {
+            Trip trip = tripRepository.save(Trip.builder()
+                    .driverId(UUID.randomUUID())
+                    .origin("Bogotá")
+                    .destination("Medellín")
+                    .startTime(LocalDateTime.now().plusDays(2).plusMinutes(i))
+                    .seatsTotal(SEATS)
+                    .seatsAvailable(SEATS)
+                    .price(new BigDecimal("45000"))
+                    .status(TripStatus.ACTIVE)
+                    .build());
+            tripIds.add(trip.getId());
+        }
+        return tripIds;
+    }
+}
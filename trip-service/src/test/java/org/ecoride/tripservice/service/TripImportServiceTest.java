@@ -0,0 +1,82 @@
+package org.ecoride.tripservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ecoride.tripservice.PostgresIntegrationTest;
+import org.ecoride.tripservice.dto.BulkCreateTripsResponse;
+import org.ecoride.tripservice.dto.BulkTripResult;
+import org.ecoride.tripservice.dto.CreateTripRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Importa 10k viajes (1 de cada 100 inválido) y comprueba los resultados por
+ * posición y que el alta tarda segundos.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false",
+        "spring.kafka.listener.auto-startup=false"
+})
+class TripImportServiceTest extends PostgresIntegrationTest {
+
+    private static final int TRIPS = 10_000;
+
+    @Autowired
+    private TripImportService tripImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void importsTenThousandTripsWithPerItemResults() {
+        UUID driverId = UUID.randomUUID();
+        LocalDateTime base = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+
+        List<CreateTripRequest> requests = new ArrayList<>(TRIPS);
+        for (int i = 0; i < TRIPS; i++) {
+            requests.add(CreateTripRequest.builder()
+                    .origin("Bogotá")
+                    .destination("Medellín")
+                    .startTime(base.plusHours(i))
+                    // Cada 100 viajes uno con más asientos de los permitidos
+                    .seatsTotal(i % 100 == 0 ? 20 : 4)
+                    .price(new BigDecimal("45000"))
+                    .build());
+        }
+
+        long start = System.nanoTime();
+        BulkCreateTripsResponse response = tripImportService.createTrips(requests, driverId);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Alta masiva de {} viajes en {} ms", TRIPS, elapsedMs);
+
+        assertThat(response.getRejected()).isEqualTo(TRIPS / 100);
+        assertThat(response.getCreated()).isEqualTo(TRIPS - TRIPS / 100);
+        assertThat(response.getResults()).hasSize(TRIPS);
+
+        BulkTripResult invalid = response.getResults().get(100);
+        assertThat(invalid.getIndex()).isEqualTo(100);
+        assertThat(invalid.getStatus()).isEqualTo(BulkTripResult.Status.REJECTED);
+        assertThat(invalid.getErrors()).containsKey("seatsTotal");
+
+        BulkTripResult created = response.getResults().get(101);
+        assertThat(created.getStatus()).isEqualTo(BulkTripResult.Status.CREATED);
+        assertThat(created.getTripId()).isNotNull();
+
+        Integer stored = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM trips WHERE driver_id = ?", Integer.class, driverId);
+        assertThat(stored).isEqualTo(response.getCreated());
+        assertThat(elapsedMs).isLessThan(30_000);
+    }
+}